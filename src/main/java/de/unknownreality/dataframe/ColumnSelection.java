@@ -85,6 +85,20 @@ public class ColumnSelection {
         return createDataFrame(rows);
     }
 
+    /**
+     * Returns a dataframe containing the selected columns and rows found using a range index.
+     * Both bounds are included, a <tt>null</tt> bound is unbounded.
+     *
+     * @param indexName name of range index
+     * @param low       lower bound or <tt>null</tt>
+     * @param high      upper bound or <tt>null</tt>
+     * @return new dataframe
+     */
+    public DataFrame whereIndexRange(String indexName, Object low, Object high) {
+        DataRows rows = dataFrame.selectRowsByIndexRange(indexName, low, high);
+        return createDataFrame(rows);
+    }
+
     /**
      * Returns a dataframe containing the selected columns and all rows from the original dataframe.
      *
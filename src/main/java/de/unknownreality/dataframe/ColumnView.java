@@ -0,0 +1,224 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe;
+
+import de.unknownreality.dataframe.column.NumberColumn;
+import de.unknownreality.dataframe.common.math.Quantiles;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only view on the values of a column for the rows selected by a {@link DataFrameView}.
+ * Aggregations require a {@link NumberColumn} and ignore NA values.
+ *
+ * @param <T> value type of the column
+ */
+public class ColumnView<T> implements Iterable<T> {
+    private final DataFrameView view;
+    private final DataFrameColumn<T, ?> column;
+
+    ColumnView(DataFrameView view, DataFrameColumn<T, ?> column) {
+        this.view = view;
+        this.column = column;
+    }
+
+    public String getName() {
+        return column.getName();
+    }
+
+    /**
+     * Returns the underlying column of the parent data frame
+     *
+     * @return parent column
+     */
+    public DataFrameColumn<T, ?> getColumn() {
+        return column;
+    }
+
+    public int size() {
+        return view.size();
+    }
+
+    public T get(int index) {
+        return column.get(view.getRowIndex(index));
+    }
+
+    public boolean isNA(int index) {
+        return column.isNA(view.getRowIndex(index));
+    }
+
+    /**
+     * Returns a list containing the values of this view
+     *
+     * @return list of values
+     */
+    public List<T> toList() {
+        List<T> values = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            values.add(get(i));
+        }
+        return values;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size();
+            }
+
+            @Override
+            public T next() {
+                if (index >= size()) {
+                    throw new NoSuchElementException(String.format("element not found: index out of bounds %s >= %s]", index, size()));
+                }
+                return get(index++);
+            }
+        };
+    }
+
+    private NumberColumn<?, ?> numberColumn() {
+        if (!(column instanceof NumberColumn)) {
+            throw new DataFrameRuntimeException(String.format("column '%s' is not a number column", getName()));
+        }
+        return (NumberColumn<?, ?>) column;
+    }
+
+    /**
+     * Returns the number of NA values in this view
+     *
+     * @return number of NA values
+     */
+    public int countNA() {
+        int count = 0;
+        for (int i = 0; i < size(); i++) {
+            if (isNA(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of all values, <tt>0</tt> if all values are NA
+     *
+     * @return sum of all values
+     */
+    public double sum() {
+        NumberColumn<?, ?> numberColumn = numberColumn();
+        double sum = 0;
+        for (int i = 0; i < size(); i++) {
+            int row = view.getRowIndex(i);
+            if (!numberColumn.isNA(row)) {
+                sum += numberColumn.getDouble(row);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the mean of all values, <tt>NaN</tt> if all values are NA
+     *
+     * @return mean of all values
+     */
+    public double mean() {
+        int count = size() - countNA();
+        return count == 0 ? Double.NaN : sum() / count;
+    }
+
+    /**
+     * Returns the minimum of all values, <tt>NaN</tt> if all values are NA
+     *
+     * @return minimum value
+     */
+    public double min() {
+        NumberColumn<?, ?> numberColumn = numberColumn();
+        double min = Double.NaN;
+        for (int i = 0; i < size(); i++) {
+            int row = view.getRowIndex(i);
+            if (!numberColumn.isNA(row)) {
+                double value = numberColumn.getDouble(row);
+                min = Double.isNaN(min) ? value : Math.min(min, value);
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Returns the maximum of all values, <tt>NaN</tt> if all values are NA
+     *
+     * @return maximum value
+     */
+    public double max() {
+        NumberColumn<?, ?> numberColumn = numberColumn();
+        double max = Double.NaN;
+        for (int i = 0; i < size(); i++) {
+            int row = view.getRowIndex(i);
+            if (!numberColumn.isNA(row)) {
+                double value = numberColumn.getDouble(row);
+                max = Double.isNaN(max) ? value : Math.max(max, value);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns a {@link Quantiles} object for the non NA values of this view.
+     * The values are sorted once when this method is called.
+     *
+     * @return quantiles object
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Quantiles<? extends Number> getQuantiles() {
+        numberColumn();
+        Class type = column.getValueType().getType();
+        T[] values = (T[]) Array.newInstance(type, size() - countNA());
+        int index = 0;
+        for (int i = 0; i < size(); i++) {
+            if (!isNA(i)) {
+                values[index++] = get(i);
+            }
+        }
+        Arrays.sort(values, column.getValueType().getComparator());
+        return new Quantiles((Number[]) values, type, true);
+    }
+
+    /**
+     * Returns the median of all values
+     *
+     * @return median
+     */
+    public Number median() {
+        return getQuantiles().median();
+    }
+}
@@ -46,7 +46,7 @@ import java.util.Comparator;
 /**
  * Created by algru on 12.06.2017.
  */
-public interface DataFrame extends DataContainer<DataFrameHeader, DataRow> {
+public interface DataFrame extends DataContainer<DataFrameHeader, DataRow>, AutoCloseable {
     /**
      * Returns the name of this dataframe
      *
@@ -507,6 +507,25 @@ public interface DataFrame extends DataContainer<DataFrameHeader, DataRow> {
      */
     DataRows selectRows(FilterPredicate predicate);
 
+    /**
+     * Returns a new data frame containing all rows where the corresponding value in a boolean mask column is <tt>true</tt>.<br>
+     * NA values in the mask are treated as <tt>false</tt>.
+     * Rows beyond the size of the mask are not selected.
+     *
+     * @param mask boolean mask column
+     * @return new data frame including the selected rows
+     */
+    DataFrame select(BooleanColumn mask);
+
+    /**
+     * Finds data rows where the corresponding value in a boolean mask column is <tt>true</tt>.
+     * NA values in the mask are treated as <tt>false</tt>.
+     *
+     * @param mask boolean mask column
+     * @return list of found data rows
+     */
+    DataRows selectRows(BooleanColumn mask);
+
     /**
      * Converts this dataframe into another dataframe using a specified transformer
      *
@@ -559,6 +578,16 @@ public interface DataFrame extends DataContainer<DataFrameHeader, DataRow> {
      */
     DataFrame addIndex(Index index);
 
+    /**
+     * Enables or disables lazy index maintenance.
+     * If enabled, appended and modified rows are added to the indices in one batch before the next index lookup.
+     * Unique constraint violations are then reported by this lookup instead of the modification.
+     *
+     * @param lazy <tt>true</tt> to defer index updates until the next lookup
+     * @return <tt>self</tt> for method chaining
+     */
+    DataFrame setLazyIndexUpdates(boolean lazy);
+
     /**
      * Returns the number of rows in this data frame
      *
@@ -957,6 +986,18 @@ public interface DataFrame extends DataContainer<DataFrameHeader, DataRow> {
      */
     DataRows selectRowsByIndex(String name, Object... values);
 
+    /**
+     * Finds the data rows of a range index whose values in the first index column are within a range.
+     * Both bounds are included, a <tt>null</tt> bound is unbounded.
+     *
+     * @param name name of range index
+     * @param low  lower bound or <tt>null</tt>
+     * @param high upper bound or <tt>null</tt>
+     * @return rows found
+     * @see de.unknownreality.dataframe.index.RangeIndex
+     */
+    DataRows selectRowsByIndexRange(String name, Object low, Object high);
+
 
     DataRows selectRows(Collection<Integer> rowIndices);
 
@@ -978,6 +1019,18 @@ public interface DataFrame extends DataContainer<DataFrameHeader, DataRow> {
      */
     DataFrame selectByIndex(String name, Object... values);
 
+    /**
+     * Returns a new dataframe containing the data rows of a range index whose values in the first index column
+     * are within a range.
+     * Both bounds are included, a <tt>null</tt> bound is unbounded.
+     *
+     * @param name name of range index
+     * @param low  lower bound or <tt>null</tt>
+     * @param high upper bound or <tt>null</tt>
+     * @return dataframe containing found rows
+     */
+    DataFrame selectByIndexRange(String name, Object low, Object high);
+
     /**
      * Returns a collection of all columns in this data frame
      *
@@ -1803,7 +1856,84 @@ public interface DataFrame extends DataContainer<DataFrameHeader, DataRow> {
     DataFrame tail();
 
     /**
-     * Clears all columns
+     * Returns the first <tt>n</tt> rows sorted by the specified columns.
+     * Only the selected rows are sorted, this data frame is not changed.
+     * The result is the same as <tt>copy().sort(sortColumns).head(n)</tt>.
+     *
+     * @param n           maximum number of rows
+     * @param sortColumns sort columns
+     * @return data frame containing the top rows
+     */
+    DataFrame top(int n, SortColumn... sortColumns);
+
+    /**
+     * Returns the last <tt>n</tt> rows sorted by the specified columns, last row first.
+     * This is the same as {@link #top(int, SortColumn...)} with inverted sort directions, NA values are sorted to the end.
+     * This data frame is not changed.
+     *
+     * @param n           maximum number of rows
+     * @param sortColumns sort columns
+     * @return data frame containing the bottom rows
+     */
+    DataFrame bottom(int n, SortColumn... sortColumns);
+
+    /**
+     * Returns a read-only view on all rows of this data frame.
+     * No values are copied.
+     *
+     * @return view on all rows
+     */
+    default DataFrameView view() {
+        return DataFrameView.of(this);
+    }
+
+    /**
+     * Returns a read-only view on the rows in the range <tt>[from, to)</tt>.
+     * No values are copied.
+     *
+     * @param from first row (inclusive)
+     * @param to   last row (exclusive)
+     * @return view on the row range
+     */
+    default DataFrameView view(int from, int to) {
+        return DataFrameView.of(this, from, to);
+    }
+
+    /**
+     * Returns a read-only view on all rows that are valid according to the predicate.
+     * Only the indices of the matching rows are stored.
+     *
+     * @param predicate filter predicate
+     * @return view on the matching rows
+     */
+    default DataFrameView view(FilterPredicate predicate) {
+        return view().select(predicate);
+    }
+
+    /**
+     * Returns a read-only view on all rows that are valid according to the predicate.
+     * Only the indices of the matching rows are stored.
+     *
+     * @param predicateString filter predicate string
+     * @return view on the matching rows
+     * @see FilterPredicate#compile(String)
+     */
+    default DataFrameView view(String predicateString) {
+        return view().select(predicateString);
+    }
+
+    /**
+     * Clears all columns.
+     * Off-heap memory of number columns is released.
      */
     void clear();
+
+    /**
+     * Clears all columns and releases their off-heap memory.
+     * Allows data frames to be used in try-with-resources statements.
+     */
+    @Override
+    default void close() {
+        clear();
+    }
 }
@@ -25,6 +25,7 @@
 package de.unknownreality.dataframe;
 
 import de.unknownreality.dataframe.column.*;
+import de.unknownreality.dataframe.column.storage.StorageMode;
 import de.unknownreality.dataframe.filter.FilterPredicate;
 import de.unknownreality.dataframe.group.GroupUtil;
 import de.unknownreality.dataframe.io.ColumnInformation;
@@ -46,6 +47,7 @@ public class DataFrameBuilder {
     private DataIterator<?> dataIterator;
     private FilterPredicate filterPredicate = FilterPredicate.EMPTY_FILTER;
     private String name;
+    private StorageMode storageMode;
 
     protected DataFrameBuilder() {
     }
@@ -207,6 +209,19 @@ public class DataFrameBuilder {
         return this;
     }
 
+    /**
+     * Defines the storage mode of all number columns in the resulting data frame.
+     * If no storage mode is set, the columns keep their own mode
+     * (the mode of the {@link de.unknownreality.dataframe.type.DataFrameTypeManager} for loaded data).
+     *
+     * @param storageMode storage mode of the number columns
+     * @return <tt>self</tt> for method chaining
+     */
+    public DataFrameBuilder withStorageMode(StorageMode storageMode) {
+        this.storageMode = storageMode;
+        return this;
+    }
+
     public DataFrameBuilder from(DataIterator<?> dataIterator) {
         this.dataIterator = dataIterator;
         return this;
@@ -247,7 +262,9 @@ public class DataFrameBuilder {
             if (columnInformationList.isEmpty()) {
                 columnInformationList = dataIterator.getColumnsInformation();
             }
-            return DataFrameConverter.fromDataIterator(dataIterator, columnInformationList, filterPredicate);
+            DataFrame dataFrame = DataFrameConverter.fromDataIterator(dataIterator, columnInformationList, filterPredicate);
+            applyStorageMode(dataFrame);
+            return dataFrame;
         }
         DefaultDataFrame dataFrame = new DefaultDataFrame(name);
         for (String n : columns.keySet()) {
@@ -261,7 +278,19 @@ public class DataFrameBuilder {
         if (groupUtil != null) {
             dataFrame.setGroupUtil(groupUtil);
         }
+        applyStorageMode(dataFrame);
         return dataFrame;
     }
 
+    private void applyStorageMode(DataFrame dataFrame) {
+        if (storageMode == null) {
+            return;
+        }
+        for (DataFrameColumn<?, ?> column : dataFrame.getColumns()) {
+            if (column instanceof NumberColumn) {
+                ((NumberColumn<?, ?>) column).setStorageMode(storageMode);
+            }
+        }
+    }
+
 }
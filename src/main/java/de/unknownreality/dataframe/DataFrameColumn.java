@@ -246,6 +246,43 @@ public abstract class DataFrameColumn<T, C extends DataFrameColumn<T, C>> implem
     }
 
 
+    /**
+     * Used by {@link #reorder(int[])} to rearrange the values of this column.
+     * The default implementation buffers all values and sets them in the new order.
+     *
+     * @param order source index for each target index
+     */
+    protected void doReorder(int[] order) {
+        Object[] buffer = new Object[order.length];
+        for (int i = 0; i < order.length; i++) {
+            buffer[i] = isNA(order[i]) ? null : get(order[i]);
+        }
+        for (int i = 0; i < buffer.length; i++) {
+            if (buffer[i] == null) {
+                doSetNA(i);
+            } else {
+                doSet(i, getValueType().getType().cast(buffer[i]));
+            }
+        }
+    }
+
+    /**
+     * Rearranges the values of this column.
+     * After this call the value at index <tt>i</tt> is the previous value at index <tt>order[i]</tt>.
+     * <p>Calls{@link #notifyDataFrameColumnChanged()} to ensure data frame index consistency</p>
+     *
+     * @param order source index for each target index, must be a permutation of the column indices
+     * @return <tt>self</tt> for method chaining
+     */
+    public final C reorder(int[] order) {
+        if (order.length != size()) {
+            throw new DataFrameRuntimeException(String.format("order length %d does not match column size %d", order.length, size()));
+        }
+        doReorder(order);
+        notifyDataFrameColumnChanged();
+        return getThis();
+    }
+
     /**
      * Returns the value at a specified index
      *
@@ -261,6 +298,77 @@ public abstract class DataFrameColumn<T, C extends DataFrameColumn<T, C>> implem
      */
     public abstract C copy();
 
+    /**
+     * Used by {@link #copy(int, int)} to copy a range of values.
+     * The default implementation appends the values to an {@link #copyEmpty() empty copy}.
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     * @return copy of the range
+     */
+    protected C doCopy(int from, int to) {
+        C copy = copyEmpty();
+        for (int i = from; i < to; i++) {
+            if (isNA(i)) {
+                copy.doAppendNA();
+            } else {
+                copy.doAppend(get(i));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Creates a copy of the values in the range <tt>[from, to)</tt>.
+     * Columns may share their storage with the copy until one of them is modified (copy-on-write).
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     * @return copy of the range
+     */
+    public final C copy(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new DataFrameRuntimeException(String.format("invalid range [%d, %d) for column of size %d", from, to, size()));
+        }
+        return doCopy(from, to);
+    }
+
+    /**
+     * Used by {@link #copy(int[])} to copy the values at the specified indices.
+     * The default implementation appends the values to an {@link #copyEmpty() empty copy}.
+     *
+     * @param rows indices of the copied values
+     * @return copy of the values
+     */
+    protected C doCopy(int[] rows) {
+        C copy = copyEmpty();
+        copy.setCapacity(Math.max(rows.length, 1));
+        for (int row : rows) {
+            if (isNA(row)) {
+                copy.doAppendNA();
+            } else {
+                copy.doAppend(get(row));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Creates a column containing the values at the specified indices in the specified order
+     *
+     * @param rows indices of the copied values
+     * @return copy of the values
+     */
+    public final C copy(int[] rows) {
+        int size = size();
+        for (int row : rows) {
+            if (row < 0 || row >= size) {
+                throw new DataFrameRuntimeException(String.format("index %d out of bounds for column of size %d", row, size));
+            }
+        }
+        return doCopy(rows);
+    }
+
     /**
      * Creates a empty copy (no values) of this column
      *
@@ -25,6 +25,7 @@
 package de.unknownreality.dataframe;
 
 import de.unknownreality.dataframe.column.BasicColumn;
+import de.unknownreality.dataframe.column.DictionaryStringColumn;
 import de.unknownreality.dataframe.column.StringColumn;
 import de.unknownreality.dataframe.common.Row;
 import de.unknownreality.dataframe.common.row.BasicRow;
@@ -48,6 +49,12 @@ public class DataFrameConverter {
 
     public static final boolean SAMPLE_ROW_DETECTION = true;
 
+    /**
+     * Autodetected string columns are dictionary encoded ({@link DictionaryStringColumn})
+     * if the number of distinct values is at most this fraction of the number of rows.
+     */
+    public static final double DICTIONARY_MAX_DISTINCT_RATIO = 0.25;
+
     private final static ValueType<?>[] DEFAULT_VALUE_TYPES = new ValueType[]
             {
                     DataFrameTypeManager.get().findValueTypeOrNull(Boolean.class),
@@ -257,11 +264,41 @@ public class DataFrameConverter {
         for (DataFrameColumn<?, ?> column : columns) {
             if (newColumns[i] != null) {
                 dataFrame.replaceColumn(column, newColumns[i]);
+            } else if (autodetect[i] && column.getClass() == StringColumn.class) {
+                DictionaryStringColumn dictionaryColumn = createDictionaryColumn((StringColumn) column);
+                if (dictionaryColumn != null) {
+                    dataFrame.replaceColumn(column, dictionaryColumn);
+                }
             }
             i++;
         }
     }
 
+    /**
+     * Creates a dictionary encoded copy of a string column.
+     * Returns <tt>null</tt> if the column has too many distinct values.
+     *
+     * @param column string column
+     * @return dictionary encoded column or <tt>null</tt>
+     * @see #DICTIONARY_MAX_DISTINCT_RATIO
+     */
+    private static DictionaryStringColumn createDictionaryColumn(StringColumn column) {
+        int maxDistinct = (int) (column.size() * DICTIONARY_MAX_DISTINCT_RATIO);
+        DictionaryStringColumn dictionaryColumn = new DictionaryStringColumn(column.getName());
+        dictionaryColumn.setCapacity(column.size());
+        for (int i = 0; i < column.size(); i++) {
+            if (column.isNA(i)) {
+                dictionaryColumn.appendNA();
+                continue;
+            }
+            dictionaryColumn.append(column.get(i));
+            if (dictionaryColumn.getDictionarySize() > maxDistinct) {
+                return null;
+            }
+        }
+        return dictionaryColumn;
+    }
+
 
     /**
      * Converts a parent data container to a data frame.
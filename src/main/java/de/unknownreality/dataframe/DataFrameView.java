@@ -0,0 +1,314 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe;
+
+import de.unknownreality.dataframe.common.DataContainer;
+import de.unknownreality.dataframe.common.mapping.DataMapper;
+import de.unknownreality.dataframe.filter.BoundPredicateCompiler;
+import de.unknownreality.dataframe.filter.FilterPredicate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only view on the rows of a data frame.
+ * <p>
+ * A view references the columns of its parent data frame and selects rows either by a
+ * contiguous range or by a selection vector of row indices. No values are copied,
+ * filtering a view only creates a new selection vector.
+ * Use {@link #toDataFrame()} to create a data frame containing the selected rows.
+ * </p>
+ * <p>
+ * A view becomes invalid if the parent data frame is modified structurally
+ * (e.g. sorted, filtered or cleared), accessing an invalid view throws a {@link DataFrameRuntimeException}.
+ * </p>
+ */
+public class DataFrameView implements DataContainer<DataFrameHeader, DataRow> {
+    private final DataFrame dataFrame;
+    private final int version;
+    private final int offset;
+    private final int size;
+    private final int[] rows;
+
+    private DataFrameView(DataFrame dataFrame, int offset, int size, int[] rows) {
+        this.dataFrame = dataFrame;
+        this.version = dataFrame.getVersion();
+        this.offset = offset;
+        this.size = size;
+        this.rows = rows;
+    }
+
+    /**
+     * Creates a view on all rows of a data frame
+     *
+     * @param dataFrame parent data frame
+     * @return view on all rows
+     */
+    public static DataFrameView of(DataFrame dataFrame) {
+        return new DataFrameView(dataFrame, 0, dataFrame.size(), null);
+    }
+
+    /**
+     * Creates a view on the rows in the range <tt>[from, to)</tt> of a data frame
+     *
+     * @param dataFrame parent data frame
+     * @param from      first row (inclusive)
+     * @param to        last row (exclusive)
+     * @return view on the row range
+     */
+    public static DataFrameView of(DataFrame dataFrame, int from, int to) {
+        if (from < 0 || to > dataFrame.size() || from > to) {
+            throw new DataFrameRuntimeException(String.format("invalid range [%d, %d) for data frame of size %d", from, to, dataFrame.size()));
+        }
+        return new DataFrameView(dataFrame, from, to - from, null);
+    }
+
+    /**
+     * Creates a view on the rows with the specified indices.
+     * The array is used as selection vector and must not be modified afterwards.
+     *
+     * @param dataFrame  parent data frame
+     * @param rowIndices indices of the selected rows
+     * @return view on the selected rows
+     */
+    public static DataFrameView of(DataFrame dataFrame, int[] rowIndices) {
+        for (int rowIndex : rowIndices) {
+            if (rowIndex < 0 || rowIndex >= dataFrame.size()) {
+                throw new DataFrameRuntimeException(String.format("row index out of bounds: %d", rowIndex));
+            }
+        }
+        return new DataFrameView(dataFrame, 0, rowIndices.length, rowIndices);
+    }
+
+    private void checkValidity() {
+        if (version != dataFrame.getVersion()) {
+            throw new DataFrameRuntimeException("view is no longer valid, the dataframe changed since the view was created");
+        }
+    }
+
+    /**
+     * Returns the parent data frame of this view
+     *
+     * @return parent data frame
+     */
+    public DataFrame getDataFrame() {
+        return dataFrame;
+    }
+
+    /**
+     * Returns the index of a row in the parent data frame
+     *
+     * @param index index of the row in this view
+     * @return index of the row in the parent data frame
+     */
+    public int getRowIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new DataFrameRuntimeException(String.format("index out of bounds: %d >= %d", index, size));
+        }
+        return rows == null ? offset + index : rows[index];
+    }
+
+    /**
+     * Returns the indices of the selected rows in the parent data frame
+     *
+     * @return row indices
+     */
+    public int[] getRowIndices() {
+        if (rows != null) {
+            return rows.clone();
+        }
+        int[] indices = new int[size];
+        for (int i = 0; i < size; i++) {
+            indices[i] = offset + i;
+        }
+        return indices;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public DataFrameHeader getHeader() {
+        return dataFrame.getHeader();
+    }
+
+    public Collection<String> getColumnNames() {
+        return dataFrame.getColumnNames();
+    }
+
+    /**
+     * Returns the value at a specified column and row of this view
+     *
+     * @param col column index
+     * @param row row index in this view
+     * @return value
+     */
+    public Object getValue(int col, int row) {
+        checkValidity();
+        return dataFrame.getValue(col, getRowIndex(row));
+    }
+
+    /**
+     * Returns <tt>true</tt> if the value at a specified column and row of this view is NA
+     *
+     * @param col column index
+     * @param row row index in this view
+     * @return <tt>true</tt> if the value is NA
+     */
+    public boolean isNA(int col, int row) {
+        checkValidity();
+        return dataFrame.isNA(col, getRowIndex(row));
+    }
+
+    /**
+     * Returns a row of this view.
+     * The returned row refers to the parent data frame, {@link DataRow#getIndex()} returns the parent row index.
+     *
+     * @param index row index in this view
+     * @return data row
+     */
+    public DataRow getRow(int index) {
+        checkValidity();
+        return dataFrame.getRow(getRowIndex(index));
+    }
+
+    @Override
+    public Iterator<DataRow> iterator() {
+        checkValidity();
+        return new Iterator<DataRow>() {
+            int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public DataRow next() {
+                if (index >= size) {
+                    throw new NoSuchElementException(String.format("element not found: index out of bounds %s >= %s]", index, size));
+                }
+                return getRow(index++);
+            }
+        };
+    }
+
+    @Override
+    public <T> List<T> map(Class<T> cl) {
+        return DataMapper.map(this, cl);
+    }
+
+    /**
+     * Returns a read-only view on a column
+     *
+     * @param name name of the column
+     * @return column view
+     */
+    public ColumnView<?> getColumn(String name) {
+        DataFrameColumn<?, ?> column = dataFrame.getColumn(name);
+        if (column == null) {
+            throw new DataFrameRuntimeException(String.format("column not found: %s", name));
+        }
+        return new ColumnView<>(this, column);
+    }
+
+    /**
+     * Returns a view on the rows in the range <tt>[from, to)</tt> of this view
+     *
+     * @param from first row (inclusive)
+     * @param to   last row (exclusive)
+     * @return view on the row range
+     */
+    public DataFrameView selectSubset(int from, int to) {
+        checkValidity();
+        if (from < 0 || to > size || from > to) {
+            throw new DataFrameRuntimeException(String.format("invalid range [%d, %d) for view of size %d", from, to, size));
+        }
+        if (rows == null) {
+            return new DataFrameView(dataFrame, offset + from, to - from, null);
+        }
+        return new DataFrameView(dataFrame, 0, to - from, Arrays.copyOfRange(rows, from, to));
+    }
+
+    public DataFrameView head(int size) {
+        return selectSubset(0, Math.min(this.size, size));
+    }
+
+    public DataFrameView tail(int size) {
+        return selectSubset(Math.max(0, this.size - size), this.size);
+    }
+
+    /**
+     * Returns a view on all rows of this view that are valid according to the predicate
+     *
+     * @param predicate filter predicate
+     * @return view on the matching rows
+     */
+    public DataFrameView select(FilterPredicate predicate) {
+        checkValidity();
+        int[] selected = getRowIndices();
+        int count = BoundPredicateCompiler.compile(predicate, dataFrame).select(selected, size);
+        return new DataFrameView(dataFrame, 0, count, count == size ? selected : Arrays.copyOf(selected, count));
+    }
+
+    /**
+     * Returns a view on all rows of this view that are valid according to the predicate
+     *
+     * @param predicateString filter predicate string
+     * @return view on the matching rows
+     * @see FilterPredicate#compile(String)
+     */
+    public DataFrameView select(String predicateString) {
+        return select(FilterPredicate.compile(predicateString));
+    }
+
+    /**
+     * Creates a new data frame containing the rows of this view.
+     * Range views of a {@link DefaultDataFrame} share the column storage with the parent until one of them is modified.
+     *
+     * @return data frame containing the rows of this view
+     */
+    public DataFrame toDataFrame() {
+        checkValidity();
+        if (rows == null) {
+            return dataFrame.selectSubset(offset, offset + size);
+        }
+        DefaultDataFrame temp = new DefaultDataFrame();
+        for (DataFrameColumn<?, ?> column : dataFrame.getColumns()) {
+            temp.addColumn(column.copy(rows));
+        }
+        DefaultDataFrame result = new DefaultDataFrame(dataFrame.getName());
+        result.set(temp, dataFrame instanceof DefaultDataFrame ? ((DefaultDataFrame) dataFrame).getIndices() : null);
+        return result;
+    }
+}
@@ -27,7 +27,7 @@ package de.unknownreality.dataframe;
 import de.unknownreality.dataframe.column.*;
 import de.unknownreality.dataframe.common.mapping.DataMapper;
 import de.unknownreality.dataframe.filter.FilterPredicate;
-import de.unknownreality.dataframe.filter.compile.PredicateCompiler;
+import de.unknownreality.dataframe.filter.IndexPlan;
 import de.unknownreality.dataframe.group.DataGrouping;
 import de.unknownreality.dataframe.group.GroupUtil;
 import de.unknownreality.dataframe.group.impl.TreeGroupUtil;
@@ -37,7 +37,7 @@ import de.unknownreality.dataframe.join.JoinColumn;
 import de.unknownreality.dataframe.join.JoinUtil;
 import de.unknownreality.dataframe.join.JoinedDataFrame;
 import de.unknownreality.dataframe.join.impl.DefaultJoinUtil;
-import de.unknownreality.dataframe.sort.RowColumnComparator;
+import de.unknownreality.dataframe.sort.IndexSorter;
 import de.unknownreality.dataframe.sort.SortColumn;
 import de.unknownreality.dataframe.transform.DataFrameTransform;
 import de.unknownreality.dataframe.type.DataFrameTypeManager;
@@ -347,7 +347,7 @@ public class DefaultDataFrame implements DataFrame {
             column.endDataFrameAppend();
         }
         size++;
-        indices.update(getRow(size - 1));
+        indices.update(size - 1);
         return this;
     }
 
@@ -386,7 +386,7 @@ public class DefaultDataFrame implements DataFrame {
             column.endDataFrameAppend();
         }
         size++;
-        indices.update(getRow(size - 1));
+        indices.update(size - 1);
         return this;
     }
 
@@ -411,7 +411,7 @@ public class DefaultDataFrame implements DataFrame {
 
         }
         this.size++;
-        indices.update(getRow(size - 1));
+        indices.update(size - 1);
         return this;
     }
 
@@ -430,7 +430,7 @@ public class DefaultDataFrame implements DataFrame {
             column.endDataFrameAppend();
         }
         this.size++;
-        indices.update(getRow(size - 1));
+        indices.update(size - 1);
         return this;
     }
 
@@ -463,7 +463,7 @@ public class DefaultDataFrame implements DataFrame {
         for (String columnName : header) {
             ValueType<?> type = header.getValueType(columnName);
             try {
-                DataFrameColumn<?, ?> column = DataFrameTypeManager.get().createColumn(type);
+                DataFrameColumn<?, ?> column = DataFrameTypeManager.get().createColumn(header.getColumnType(columnName), type);
                 column.setName(columnName);
                 addColumn(column);
             } catch (Exception e) {
@@ -566,11 +566,13 @@ public class DefaultDataFrame implements DataFrame {
     }
 
 
+    /**
+     * {@inheritDoc}
+     * The sort order is computed as a permutation of the row indices, the columns are reordered in place.
+     */
     @Override
     public DefaultDataFrame sort(SortColumn... columns) {
-        DataRows rows = getRows(0, size);
-        rows.sort(new RowColumnComparator(columns));
-        set(rows, indices);
+        reorderRows(IndexSorter.argsort(this, columns));
         return this;
     }
 
@@ -579,7 +581,11 @@ public class DefaultDataFrame implements DataFrame {
     public DefaultDataFrame sort(Comparator<DataRow> comp) {
         DataRows rows = getRows(0, size);
         rows.sort(comp);
-        set(rows, indices);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = rows.get(i).getIndex();
+        }
+        reorderRows(order);
         return this;
     }
 
@@ -592,10 +598,23 @@ public class DefaultDataFrame implements DataFrame {
 
     @Override
     public DefaultDataFrame sort(String name, SortColumn.Direction dir) {
-        DataRows rows = getRows(0, size);
-        rows.sort(new RowColumnComparator(new SortColumn[]{new SortColumn(name, dir)}));
-        set(rows, indices);
-        return this;
+        return sort(new SortColumn(name, dir));
+    }
+
+    /**
+     * Rearranges the rows of this data frame and rebuilds the indices.
+     *
+     * @param order source row index for each target row index
+     */
+    private void reorderRows(int[] order) {
+        this.version.incrementAndGet();
+        if (columns != null) {
+            for (DataFrameColumn<?, ?> column : columns) {
+                column.doReorder(order);
+            }
+        }
+        this.indices.clearValues();
+        this.indices.updateAllRows();
     }
 
 
@@ -628,32 +647,51 @@ public class DefaultDataFrame implements DataFrame {
 
     @Override
     public DataRow selectFirst(FilterPredicate predicate) {
-        for (DataRow row : this) {
-            if (predicate.valid(row)) {
-                return row;
-            }
-        }
-        return null;
+        int row = IndexPlan.create(this, indices, predicate).selectFirst(this);
+        return row == -1 ? null : getRow(row);
     }
 
 
+    /**
+     * {@inheritDoc}
+     * Parts of the predicate that match an index are answered by the index, see {@link IndexPlan}.
+     * The remaining predicate is evaluated column by column, the selected rows are copied column by column.
+     */
     @Override
     public DefaultDataFrame select(FilterPredicate predicate) {
+        return selectRowIndices(IndexPlan.create(this, indices, predicate).select(this));
+    }
+
+    /**
+     * Creates a new data frame containing the rows at the specified indices
+     *
+     * @param rows row indices
+     * @return data frame containing the selected rows
+     */
+    private DefaultDataFrame selectRowIndices(int[] rows) {
         DefaultDataFrame df = new DefaultDataFrame();
-        df.set(getHeader());
-        indices.copyTo(df);
-        for (DataRow row : this) {
-            if (predicate.valid(row)) {
-                df.append(row);
-            }
-        }
+        df.set(copyRowIndices(rows), indices);
         return df;
     }
 
+    /**
+     * Creates a data frame without indices containing copies of the rows at the specified indices
+     *
+     * @param rows row indices
+     * @return data frame containing the copied rows
+     */
+    private DefaultDataFrame copyRowIndices(int[] rows) {
+        DefaultDataFrame temp = new DefaultDataFrame();
+        for (DataFrameColumn<?, ?> column : columnsMap.values()) {
+            temp.addColumn(column.copy(rows));
+        }
+        return temp;
+    }
+
 
     @Override
     public DefaultDataFrame select(String predicateString) {
-        return select(PredicateCompiler.compile(predicateString));
+        return select(FilterPredicate.compile(predicateString));
     }
 
 
@@ -664,9 +702,13 @@ public class DefaultDataFrame implements DataFrame {
     }
 
 
+    /**
+     * {@inheritDoc}
+     * The selected rows are copied column by column, the indices are rebuilt once afterwards.
+     */
     @Override
     public DefaultDataFrame filter(FilterPredicate predicate) {
-        set(select(predicate), getIndices());
+        set(copyRowIndices(IndexPlan.create(this, indices, predicate).select(this)), indices);
         return this;
     }
 
@@ -684,11 +726,29 @@ public class DefaultDataFrame implements DataFrame {
 
     @Override
     public DataRows selectRows(FilterPredicate predicate) {
-        List<DataRow> rows = new ArrayList<>();
-        for (DataRow row : this) {
-            if (predicate.valid(row)) {
-                rows.add(row);
-            }
+        int[] rowIndices = IndexPlan.create(this, indices, predicate).select(this);
+        List<DataRow> rows = new ArrayList<>(rowIndices.length);
+        for (int row : rowIndices) {
+            rows.add(getRow(row));
+        }
+        return new DataRows(this, rows);
+    }
+
+    @Override
+    public DefaultDataFrame select(BooleanColumn mask) {
+        int[] rows = new int[Math.min(mask.cardinality(), size)];
+        int count = 0;
+        for (int i = mask.nextSetBit(0); i >= 0 && i < size && count < rows.length; i = mask.nextSetBit(i + 1)) {
+            rows[count++] = i;
+        }
+        return selectRowIndices(count == rows.length ? rows : Arrays.copyOf(rows, count));
+    }
+
+    @Override
+    public DataRows selectRows(BooleanColumn mask) {
+        List<DataRow> rows = new ArrayList<>(mask.cardinality());
+        for (int i = mask.nextSetBit(0); i >= 0 && i < size; i = mask.nextSetBit(i + 1)) {
+            rows.add(getRow(i));
         }
         return new DataRows(this, rows);
     }
@@ -743,6 +803,12 @@ public class DefaultDataFrame implements DataFrame {
         return this;
     }
 
+    @Override
+    public DefaultDataFrame setLazyIndexUpdates(boolean lazy) {
+        indices.setLazy(lazy);
+        return this;
+    }
+
     @Override
     public int size() {
         return size;
@@ -765,13 +831,28 @@ public class DefaultDataFrame implements DataFrame {
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     * The columns of the new data frame share their values with this data frame until one of them is modified.
+     */
     @Override
     public DefaultDataFrame selectSubset(int from, int to) {
         DefaultDataFrame newFrame = new DefaultDataFrame();
-        newFrame.set(getRows(from, to), indices);
+        newFrame.set(copyColumns(from, to), indices);
         return newFrame;
     }
 
+    private DefaultDataFrame copyColumns(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new DataFrameRuntimeException(String.format("invalid range [%d, %d) for data frame of size %d", from, to, size));
+        }
+        DefaultDataFrame temp = new DefaultDataFrame();
+        for (DataFrameColumn<?, ?> column : columnsMap.values()) {
+            temp.addColumn(column.copy(from, to));
+        }
+        return temp;
+    }
+
 
     @Override
     public DataRows getRows(int from, int to) {
@@ -795,14 +876,16 @@ public class DefaultDataFrame implements DataFrame {
     }
 
 
+    /**
+     * {@inheritDoc}
+     * The rows are appended column by column, number columns are appended without boxing.
+     */
     @Override
     public DefaultDataFrame concat(DataFrame other) {
         if (!header.equals(other.getHeader())) {
             throw new DataFrameRuntimeException("data frames not compatible");
         }
-        for (DataRow row : other) {
-            append(row);
-        }
+        appendColumns(other);
         return this;
     }
 
@@ -813,13 +896,39 @@ public class DefaultDataFrame implements DataFrame {
             if (!header.equals(dataFrame.getHeader())) {
                 throw new DataFrameRuntimeException("data frames not compatible");
             }
-            for (DataRow row : dataFrame) {
-                append(row);
-            }
+        }
+        for (DataFrame dataFrame : dataFrames) {
+            appendColumns(dataFrame);
         }
         return this;
     }
 
+    private void appendColumns(DataFrame other) {
+        int otherSize = other.size();
+        if (otherSize == 0 || columns == null) {
+            return;
+        }
+        for (DataFrameColumn<?, ?> column : columns) {
+            DataFrameColumn<?, ?> otherColumn = other.getColumn(column.getName());
+            column.startDataFrameAppend();
+            if (column instanceof NumberColumn && otherColumn instanceof NumberColumn) {
+                ((NumberColumn<?, ?>) column).appendColumn((NumberColumn<?, ?>) otherColumn);
+            } else {
+                for (int i = 0; i < otherSize; i++) {
+                    if (otherColumn.isNA(i)) {
+                        column.appendNA();
+                    } else {
+                        column.appendRaw(otherColumn.get(i));
+                    }
+                }
+            }
+            column.endDataFrameAppend();
+        }
+        int start = size;
+        size += otherSize;
+        indices.update(start, size);
+    }
+
 
     @Override
     public DefaultDataFrame concat(DataFrame... dataFrames) {
@@ -1011,11 +1120,14 @@ public class DefaultDataFrame implements DataFrame {
         return joinUtil.outerJoin(this, dataFrame, suffixA, suffixB, joinColumns);
     }
 
+    /**
+     * {@inheritDoc}
+     * The columns of the copy share their values with this data frame until one of them is modified.
+     */
     @Override
     public DefaultDataFrame copy() {
-        DataRows rows = getRows(0, size);
         DefaultDataFrame copy = new DefaultDataFrame();
-        copy.set(rows, indices);
+        copy.set(copyColumns(0, size), indices);
         return copy;
     }
 
@@ -1033,7 +1145,7 @@ public class DefaultDataFrame implements DataFrame {
 
     protected void notifyColumnValueChanged(DataFrameColumn<?, ?> column, int index, Object value) {
         if (indices.isIndexColumn(column)) {
-            indices.updateValue(column, getRow(index));
+            indices.updateValue(column, index);
         }
     }
 
@@ -1057,6 +1169,12 @@ public class DefaultDataFrame implements DataFrame {
         return selectRows(rowIndices);
     }
 
+    @Override
+    public DataRows selectRowsByIndexRange(String name, Object low, Object high) {
+        Collection<Integer> rowIndices = indices.findRange(name, low, true, high, true);
+        return selectRows(rowIndices);
+    }
+
     @Override
     public DataRows selectRows(Collection<Integer> rowIndices) {
         if (!rowIndices.isEmpty()) {
@@ -1083,6 +1201,14 @@ public class DefaultDataFrame implements DataFrame {
         return df;
     }
 
+    @Override
+    public DataFrame selectByIndexRange(String name, Object low, Object high) {
+        DataRows rows = selectRowsByIndexRange(name, low, high);
+        DefaultDataFrame df = new DefaultDataFrame();
+        df.set(rows, indices);
+        return df;
+    }
+
 
     @Override
     public Collection<DataFrameColumn<?, ?>> getColumns() {
@@ -1170,7 +1296,7 @@ public class DefaultDataFrame implements DataFrame {
         } else {
             columns[col].setRaw(row, newValue);
         }
-        indices.update(getRow(row));
+        indices.update(row);
     }
 
     @Override
@@ -1206,10 +1332,22 @@ public class DefaultDataFrame implements DataFrame {
         return tail(DEFAULT_TAIL_SIZE);
     }
 
+    @Override
+    public DataFrame top(int n, SortColumn... sortColumns) {
+        return DataFrameView.of(this, IndexSorter.top(this, n, sortColumns)).toDataFrame();
+    }
+
+    @Override
+    public DataFrame bottom(int n, SortColumn... sortColumns) {
+        return DataFrameView.of(this, IndexSorter.bottom(this, n, sortColumns)).toDataFrame();
+    }
+
     @Override
     public void clear() {
-        for (DataFrameColumn<?, ?> col : columns) {
-            col.clear();
+        if (columns != null) {
+            for (DataFrameColumn<?, ?> col : columns) {
+                col.clear();
+            }
         }
         size = 0;
     }
@@ -29,6 +29,7 @@ import de.unknownreality.dataframe.DataFrameColumn;
 import de.unknownreality.dataframe.DataFrameRuntimeException;
 import de.unknownreality.dataframe.MapFunction;
 import de.unknownreality.dataframe.Values;
+import de.unknownreality.dataframe.sort.IndexSorter;
 
 import java.lang.reflect.Array;
 import java.util.*;
@@ -40,10 +41,13 @@ public abstract class BasicColumn<T, C extends BasicColumn<T, C>> extends DataFr
     public static final double GROW_FACTOR = 1.6d;
     public static final int INIT_SIZE = 128;
 
-    private int size = 0;
+    protected int size = 0;
 
     protected T[] values;
 
+    private int offset = 0;
+    private boolean shared = false;
+
     @SuppressWarnings("unchecked")
     public BasicColumn(String name, Class<T> cl) {
         this.size = 0;
@@ -65,25 +69,127 @@ public abstract class BasicColumn<T, C extends BasicColumn<T, C>> extends DataFr
         this(name, values, values.length);
     }
 
+    /**
+     * Creates a column without allocating the object value array.
+     * Used by columns that provide their own value storage.
+     * Such columns must override all methods that access {@link #values}.
+     *
+     * @param name name of the column
+     */
+    protected BasicColumn(String name) {
+        setName(name);
+    }
+
+    /**
+     * Copies the shared value array before this column is modified.
+     * After this call {@link #values} is owned by this column and starts at index 0.
+     */
+    @SuppressWarnings("unchecked")
+    protected void beforeWrite() {
+        if (!shared) {
+            return;
+        }
+        T[] copy = (T[]) Array.newInstance(values.getClass().getComponentType(), Math.max(size, INIT_SIZE));
+        System.arraycopy(values, offset, copy, 0, size);
+        values = copy;
+        offset = 0;
+        shared = false;
+    }
+
+    /**
+     * Copies the values in the range <tt>[from, to)</tt>.
+     * The copy shares the value array with this column until one of them is modified.
+     * Columns that do not use {@link #values} copy the range value by value.
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     * @return copy of the range
+     */
+    @Override
+    protected C doCopy(int from, int to) {
+        if (values == null) {
+            return super.doCopy(from, to);
+        }
+        C copy = copyEmpty();
+        BasicColumn<T, C> target = copy;
+        target.values = values;
+        target.offset = offset + from;
+        target.size = to - from;
+        target.shared = true;
+        shared = true;
+        return copy;
+    }
+
+    /**
+     * Gathers the values at the specified indices into a new array.
+     * Columns that do not use {@link #values} copy the values one by one.
+     *
+     * @param rows indices of the copied values
+     * @return copy of the values
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected C doCopy(int[] rows) {
+        if (values == null) {
+            return super.doCopy(rows);
+        }
+        T[] gathered = (T[]) Array.newInstance(values.getClass().getComponentType(), Math.max(rows.length + 1, INIT_SIZE));
+        for (int i = 0; i < rows.length; i++) {
+            gathered[i] = values[offset + rows[i]];
+        }
+        C copy = copyEmpty();
+        BasicColumn<T, C> target = copy;
+        target.values = gathered;
+        target.size = rows.length;
+        return copy;
+    }
+
+    /**
+     * Gathers the values into a new array in the specified order.
+     * Columns that do not use {@link #values} are reordered value by value.
+     *
+     * @param order source index for each target index
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void doReorder(int[] order) {
+        if (values == null) {
+            super.doReorder(order);
+            return;
+        }
+        T[] reordered = (T[]) Array.newInstance(values.getClass().getComponentType(), Math.max(size, INIT_SIZE));
+        for (int i = 0; i < order.length; i++) {
+            reordered[i] = values[offset + order[i]];
+        }
+        values = reordered;
+        offset = 0;
+        shared = false;
+    }
+
     @Override
     public C setCapacity(int capacity) {
         if (capacity < size) {
             throw new DataFrameRuntimeException("capacity can not be lower than current size");
         }
+        beforeWrite();
         values = Arrays.copyOf(values, capacity);
         return getThis();
     }
 
     @Override
     protected void doSort(Comparator<T> comparator) {
-        Arrays.sort(values, 0, size(), comparator);
+        beforeWrite();
+        if (IndexSorter.isParallel(size)) {
+            Arrays.parallelSort(values, 0, size, comparator);
+        } else {
+            Arrays.sort(values, 0, size, comparator);
+        }
     }
 
 
     @Override
     protected void doSort() {
-        Arrays.sort(values, 0, size(), getValueType().getComparator());
-
+        doSort(getValueType().getComparator());
     }
 
 
@@ -97,6 +203,7 @@ public abstract class BasicColumn<T, C extends BasicColumn<T, C>> extends DataFr
     }
 
     protected void setValue(int index, T value) {
+        beforeWrite();
         values[index] = value;
     }
 
@@ -107,13 +214,14 @@ public abstract class BasicColumn<T, C extends BasicColumn<T, C>> extends DataFr
             if (isNA(i)) {
                 continue;
             }
-            values[i] = mapFunction.map(values[i]);
+            doSet(i, mapFunction.map(get(i)));
         }
     }
 
 
     @Override
     protected void doReverse() {
+        beforeWrite();
         for (int i = 0; i < size() / 2; i++) {
             T temp = values[i];
             values[i] = values[size() - i - 1];
@@ -124,7 +232,7 @@ public abstract class BasicColumn<T, C extends BasicColumn<T, C>> extends DataFr
 
     @Override
     public T get(int index) {
-        return values[index];
+        return values[offset + index];
     }
 
     @Override
@@ -145,7 +253,13 @@ public abstract class BasicColumn<T, C extends BasicColumn<T, C>> extends DataFr
 
     @Override
     public boolean contains(T o) {
-        return Arrays.asList(values).contains(o);
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(o, get(i))) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -171,10 +285,10 @@ public abstract class BasicColumn<T, C extends BasicColumn<T, C>> extends DataFr
 
             @Override
             public T next() {
-                if (index >= values.length) {
-                    throw new NoSuchElementException(String.format("element not found: index out of bounds %s >= %s]", index, values.length));
+                if (index >= size()) {
+                    throw new NoSuchElementException(String.format("element not found: index out of bounds %s >= %s]", index, size()));
                 }
-                return values[index++];
+                return get(index++);
             }
         };
     }
@@ -185,33 +299,42 @@ public abstract class BasicColumn<T, C extends BasicColumn<T, C>> extends DataFr
      * @return set of values in this column
      */
     public Set<T> uniq() {
-        Set<T> u = new HashSet<>(Arrays.asList(values));
-        u.remove(null);
+        Set<T> u = new HashSet<>();
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            if (!isNA(i)) {
+                u.add(get(i));
+            }
+        }
         return u;
     }
 
 
+    @SuppressWarnings("unchecked")
     @Override
     public T[] toArray() {
-        return Arrays.copyOf(values, size());
+        return toArray((T[]) Array.newInstance(getValueType().getType(), size()));
     }
 
 
     @SuppressWarnings("unchecked")
     @Override
     public T[] toArray(T[] a) {
-        if (a.length < size())
-            return (T[]) Arrays.copyOf(values, size(), a.getClass());
-        System.arraycopy(values, 0, a, 0, size());
-        if (a.length > size())
-            a[size()] = null;
+        int size = size();
+        if (a.length < size)
+            a = (T[]) Array.newInstance(a.getClass().getComponentType(), size);
+        for (int i = 0; i < size; i++) {
+            a[i] = get(i);
+        }
+        if (a.length > size)
+            a[size] = null;
         return a;
     }
 
 
     @Override
     protected boolean doAppend(T t) {
-
+        beforeWrite();
         if (size >= values.length - 1) {
             values = Arrays.copyOf(values, (int) ((double) values.length * GROW_FACTOR));
         }
@@ -226,19 +349,25 @@ public abstract class BasicColumn<T, C extends BasicColumn<T, C>> extends DataFr
 
     @Override
     public boolean isNA(int index) {
-        return values.length <= index || values[index] == null;
+        return index >= size || values[offset + index] == null;
     }
 
 
     @Override
     protected void doSetNA(int index) {
+        beforeWrite();
         values[index] = null;
     }
 
 
     @Override
     public boolean containsAll(Collection<?> c) {
-        return new HashSet<>(Arrays.asList(values)).containsAll(c);
+        Set<T> set = new HashSet<>();
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            set.add(get(i));
+        }
+        return set.containsAll(c);
     }
 
 
@@ -252,13 +381,13 @@ public abstract class BasicColumn<T, C extends BasicColumn<T, C>> extends DataFr
 
     @Override
     public List<T> toList() {
-        return new ArrayList<>(Arrays.asList(Arrays.copyOf(values, size)));
+        return new ArrayList<>(Arrays.asList(toArray()));
     }
 
     @Override
     public List<T> asList() {
         return Collections.unmodifiableList(
-                new BasicValueList<>(values, size)
+                new BasicValueList<>(this, size())
         );
     }
 
@@ -266,17 +395,18 @@ public abstract class BasicColumn<T, C extends BasicColumn<T, C>> extends DataFr
     @Override
     public void clear() {
         values = (T[]) Array.newInstance(getValueType().getType(), INIT_SIZE);
+        offset = 0;
+        shared = false;
         size = 0;
     }
 
     static class BasicValueList<E> extends AbstractList<E>
-            implements RandomAccess, java.io.Serializable {
-        private static final long serialVersionUID = -2764017481108945198L;
-        private final E[] a;
+            implements RandomAccess {
+        private final BasicColumn<E, ?> column;
         private final int size;
 
-        BasicValueList(E[] array, int size) {
-            a = Objects.requireNonNull(array);
+        BasicValueList(BasicColumn<E, ?> column, int size) {
+            this.column = Objects.requireNonNull(column);
             this.size = size;
         }
 
@@ -285,42 +415,12 @@ public abstract class BasicColumn<T, C extends BasicColumn<T, C>> extends DataFr
             return size;
         }
 
-        @Override
-        public Object[] toArray() {
-            return Arrays.copyOf(a, size, Object[].class);
-        }
-
-        @Override
-        @SuppressWarnings("unchecked")
-        public <T> T[] toArray(T[] a) {
-            int size = size();
-            if (a.length < size)
-                return Arrays.copyOf(this.a, size,
-                        (Class<? extends T[]>) a.getClass());
-            System.arraycopy(this.a, 0, a, 0, size);
-            if (a.length > size)
-                a[size] = null;
-            return a;
-        }
-
         @Override
         public E get(int index) {
-            return a[index];
-        }
-
-        @Override
-        public int indexOf(Object o) {
-            E[] a = this.a;
-            if (o == null) {
-                for (int i = 0; i < size; i++)
-                    if (a[i] == null)
-                        return i;
-            } else {
-                for (int i = 0; i < size; i++)
-                    if (o.equals(a[i]))
-                        return i;
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("index out of bounds: " + index + " >= " + size);
             }
-            return -1;
+            return column.get(index);
         }
     }
 }
@@ -25,30 +25,62 @@
 package de.unknownreality.dataframe.column;
 
 
+import de.unknownreality.dataframe.DataFrameRuntimeException;
 import de.unknownreality.dataframe.common.Row;
 import de.unknownreality.dataframe.type.impl.BooleanType;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.LongBinaryOperator;
+
 /**
  * Created by Alex on 09.03.2016.
+ * <p>
+ * The values are stored in a bitset with 64 values per <tt>long</tt>.
+ * NA values are tracked in a separate bitmap, the value bit of a NA value is always <tt>0</tt>.
+ * Logical operations ({@link #and(BooleanColumn)}, {@link #or(BooleanColumn)}, ...) are applied word by word.
+ * If a value in one of the operands is NA, the resulting value is NA.
+ * </p>
  */
 public class BooleanColumn extends BasicColumn<Boolean, BooleanColumn> {
 
     private final BooleanType valueType = new BooleanType();
 
+    private long[] bits;
+    private long[] naBits;
+
     public BooleanColumn() {
-        super(Boolean.class);
+        this(null);
     }
 
     public BooleanColumn(String name) {
-        super(name, Boolean.class);
+        super(name);
+        this.bits = new long[wordCount(INIT_SIZE)];
+        this.naBits = new long[bits.length];
     }
 
     public BooleanColumn(String name, Boolean[] values) {
-        super(name, values);
+        this(name, values, values.length);
     }
 
     public BooleanColumn(String name, Boolean[] values, int size) {
-        super(name, values, size);
+        super(name);
+        this.bits = new long[wordCount(Math.max(size, INIT_SIZE))];
+        this.naBits = new long[bits.length];
+        for (int i = 0; i < size; i++) {
+            doAppend(values[i]);
+        }
+    }
+
+    private BooleanColumn(String name, long[] bits, long[] naBits, int size) {
+        super(name);
+        this.bits = bits;
+        this.naBits = naBits;
+        this.size = size;
+    }
+
+    private static int wordCount(int size) {
+        return (size + 63) >>> 6;
     }
 
 
@@ -57,41 +89,285 @@ public class BooleanColumn extends BasicColumn<Boolean, BooleanColumn> {
         return valueType;
     }
 
+    /**
+     * Sets each value to the result of <tt>this &amp;&amp; other</tt>.
+     * Only the first <tt>min(size(), other.size())</tt> values are changed.
+     *
+     * @param other other boolean column
+     * @return <tt>self</tt> for method chaining
+     */
     public BooleanColumn and(BooleanColumn other) {
-        for (int i = 0; i < Math.min(size(), other.size()); i++) {
-            values[i] = values[i] && other.values[i];
-        }
-        return this;
+        return apply(other, (a, b) -> a & b);
     }
 
+    /**
+     * Sets each value to the result of <tt>this &amp;&amp; !other</tt>.
+     * Only the first <tt>min(size(), other.size())</tt> values are changed.
+     *
+     * @param other other boolean column
+     * @return <tt>self</tt> for method chaining
+     */
     public BooleanColumn andNot(BooleanColumn other) {
-        for (int i = 0; i < Math.min(size(), other.size()); i++) {
-            values[i] = values[i] && !other.values[i];
-        }
-        return this;
+        return apply(other, (a, b) -> a & ~b);
     }
 
+    /**
+     * Sets each value to the result of <tt>this || other</tt>.
+     * Only the first <tt>min(size(), other.size())</tt> values are changed.
+     *
+     * @param other other boolean column
+     * @return <tt>self</tt> for method chaining
+     */
     public BooleanColumn or(BooleanColumn other) {
-        for(int i  = 0; i < Math.min(size(),other.size());i++){
-            values[i] = values[i] || other.values[i];
-        }
-        return this;
+        return apply(other, (a, b) -> a | b);
     }
 
+    /**
+     * Sets each value to the result of <tt>this != other</tt>.
+     * Only the first <tt>min(size(), other.size())</tt> values are changed.
+     *
+     * @param other other boolean column
+     * @return <tt>self</tt> for method chaining
+     */
     public BooleanColumn xor(BooleanColumn other) {
-        for(int i  = 0; i < Math.min(size(),other.size());i++){
-            values[i] = values[i] != other.values[i];
+        return apply(other, (a, b) -> a ^ b);
+    }
+
+    /**
+     * Negates all values in this column. NA values remain NA.
+     *
+     * @return <tt>self</tt> for method chaining
+     */
+    public BooleanColumn flip() {
+        int words = wordCount(size);
+        for (int w = 0; w < words; w++) {
+            bits[w] = ~bits[w] & ~naBits[w];
+        }
+        if (words > 0) {
+            bits[words - 1] &= lastWordMask(size);
         }
         return this;
     }
 
-    public BooleanColumn flip() {
-        for(int i  = 0; i < size();i++){
-            values[i] = !values[i];
+    private BooleanColumn apply(BooleanColumn other, LongBinaryOperator operator) {
+        int n = Math.min(size, other.size);
+        int fullWords = n >>> 6;
+        for (int w = 0; w < fullWords; w++) {
+            long na = naBits[w] | other.naBits[w];
+            naBits[w] = na;
+            bits[w] = operator.applyAsLong(bits[w], other.bits[w]) & ~na;
+        }
+        if ((n & 63) != 0) {
+            int w = fullWords;
+            long mask = lastWordMask(n);
+            long na = naBits[w] | other.naBits[w];
+            long value = operator.applyAsLong(bits[w], other.bits[w]) & ~na;
+            naBits[w] = (naBits[w] & ~mask) | (na & mask);
+            bits[w] = (bits[w] & ~mask) | (value & mask);
         }
         return this;
     }
 
+    private static long lastWordMask(int size) {
+        return -1L >>> -size;
+    }
+
+    /**
+     * Returns the number of <tt>true</tt> values in this column
+     *
+     * @return number of <tt>true</tt> values
+     */
+    public int cardinality() {
+        int words = wordCount(size);
+        int count = 0;
+        for (int w = 0; w < words - 1; w++) {
+            count += Long.bitCount(bits[w]);
+        }
+        if (words > 0) {
+            count += Long.bitCount(bits[words - 1] & lastWordMask(size));
+        }
+        return count;
+    }
+
+    /**
+     * Returns the index of the first <tt>true</tt> value at or after the specified index.
+     * Returns <tt>-1</tt> if there is no such value.
+     * <p><code>for (int i = column.nextSetBit(0); i &gt;= 0; i = column.nextSetBit(i + 1))</code></p>
+     *
+     * @param fromIndex first index to check
+     * @return index of the next <tt>true</tt> value or <tt>-1</tt>
+     */
+    public int nextSetBit(int fromIndex) {
+        if (fromIndex < 0) {
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        }
+        if (fromIndex >= size) {
+            return -1;
+        }
+        int w = fromIndex >>> 6;
+        int words = wordCount(size);
+        long word = bits[w] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                return index < size ? index : -1;
+            }
+            if (++w == words) {
+                return -1;
+            }
+            word = bits[w];
+        }
+    }
+
+    /**
+     * Returns the indices of all <tt>true</tt> values in ascending order
+     *
+     * @return indices of <tt>true</tt> values
+     */
+    public int[] toIndices() {
+        int[] indices = new int[cardinality()];
+        int j = 0;
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            indices[j++] = i;
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the value at the specified index as primitive <tt>boolean</tt>.
+     * NA values are returned as <tt>false</tt>.
+     *
+     * @param index index of the value
+     * @return value
+     */
+    public boolean getBoolean(int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public Boolean get(int index) {
+        return isNA(index) ? null : getBoolean(index);
+    }
+
+    @Override
+    protected void setValue(int index, Boolean value) {
+        long bit = 1L << index;
+        naBits[index >>> 6] &= ~bit;
+        if (value) {
+            bits[index >>> 6] |= bit;
+        } else {
+            bits[index >>> 6] &= ~bit;
+        }
+    }
+
+    @Override
+    public boolean isNA(int index) {
+        return index >= size || (naBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    protected void doSetNA(int index) {
+        long bit = 1L << index;
+        naBits[index >>> 6] |= bit;
+        bits[index >>> 6] &= ~bit;
+    }
+
+    @Override
+    protected boolean doAppend(Boolean value) {
+        if (size >= bits.length << 6) {
+            resize(Math.max(bits.length + 1, (int) ((double) bits.length * GROW_FACTOR)));
+        }
+        int index = size++;
+        if (value == null) {
+            doSetNA(index);
+        } else {
+            setValue(index, value);
+        }
+        return true;
+    }
+
+    private void resize(int words) {
+        bits = Arrays.copyOf(bits, words);
+        naBits = Arrays.copyOf(naBits, words);
+    }
+
+    @Override
+    public BooleanColumn setCapacity(int capacity) {
+        if (capacity < size) {
+            throw new DataFrameRuntimeException("capacity can not be lower than current size");
+        }
+        resize(wordCount(capacity));
+        return getThis();
+    }
+
+    /**
+     * Sorts the values, NA values first followed by <tt>false</tt> and <tt>true</tt> values.
+     */
+    @Override
+    protected void doSort() {
+        int naCount = 0;
+        int words = wordCount(size);
+        for (int w = 0; w < words; w++) {
+            naCount += Long.bitCount(naBits[w]);
+        }
+        int trueCount = cardinality();
+        fill(naBits, 0, size, false);
+        fill(naBits, 0, naCount, true);
+        fill(bits, 0, size, false);
+        fill(bits, size - trueCount, size, true);
+    }
+
+    private static void fill(long[] words, int from, int to, boolean value) {
+        if (from >= to) {
+            return;
+        }
+        int startWord = from >>> 6;
+        int endWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = lastWordMask(to);
+        if (startWord == endWord) {
+            setMasked(words, startWord, firstMask & lastMask, value);
+            return;
+        }
+        setMasked(words, startWord, firstMask, value);
+        Arrays.fill(words, startWord + 1, endWord, value ? -1L : 0L);
+        setMasked(words, endWord, lastMask, value);
+    }
+
+    private static void setMasked(long[] words, int word, long mask, boolean value) {
+        if (value) {
+            words[word] |= mask;
+        } else {
+            words[word] &= ~mask;
+        }
+    }
+
+    @Override
+    protected void doSort(Comparator<Boolean> comparator) {
+        Boolean[] sorted = toArray();
+        Arrays.sort(sorted, comparator);
+        for (int i = 0; i < sorted.length; i++) {
+            doSet(i, sorted[i]);
+        }
+    }
+
+    @Override
+    protected void doReverse() {
+        for (int i = 0; i < size / 2; i++) {
+            int j = size - i - 1;
+            Boolean temp = get(i);
+            doSet(i, get(j));
+            doSet(j, temp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        bits = new long[wordCount(INIT_SIZE)];
+        naBits = new long[bits.length];
+        size = 0;
+    }
+
 
     @Override
     protected BooleanColumn getThis() {
@@ -101,9 +377,38 @@ public class BooleanColumn extends BasicColumn<Boolean, BooleanColumn> {
 
     @Override
     public BooleanColumn copy() {
-        Boolean[] copyValues = new Boolean[values.length];
-        toArray(copyValues);
-        return new BooleanColumn(getName(), copyValues, size());
+        return new BooleanColumn(getName(), bits.clone(), naBits.clone(), size());
+    }
+
+    /**
+     * Copies the values in the range <tt>[from, to)</tt> word by word
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     * @return copy of the range
+     */
+    @Override
+    protected BooleanColumn doCopy(int from, int to) {
+        int length = to - from;
+        int words = wordCount(Math.max(length, INIT_SIZE));
+        return new BooleanColumn(getName(), copyBits(bits, from, length, words), copyBits(naBits, from, length, words), length);
+    }
+
+    private static long[] copyBits(long[] source, int from, int length, int words) {
+        long[] result = new long[words];
+        int word = from >>> 6;
+        int shift = from & 63;
+        for (int i = 0; i < wordCount(length); i++) {
+            long value = source[word + i] >>> shift;
+            if (shift != 0 && word + i + 1 < source.length) {
+                value |= source[word + i + 1] << (64 - shift);
+            }
+            result[i] = value;
+        }
+        if ((length & 63) != 0) {
+            result[wordCount(length) - 1] &= (1L << length) - 1;
+        }
+        return result;
     }
 
     @Override
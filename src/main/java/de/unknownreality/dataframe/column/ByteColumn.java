@@ -24,6 +24,11 @@
 
 package de.unknownreality.dataframe.column;
 
+import de.unknownreality.dataframe.column.storage.ChunkedByteStorage;
+import de.unknownreality.dataframe.column.storage.DirectByteStorage;
+import de.unknownreality.dataframe.column.storage.ByteArrayStorage;
+import de.unknownreality.dataframe.column.storage.NumberStorage;
+import de.unknownreality.dataframe.column.storage.StorageMode;
 import de.unknownreality.dataframe.common.Row;
 import de.unknownreality.dataframe.type.ValueType;
 import de.unknownreality.dataframe.type.impl.ByteType;
@@ -41,19 +46,24 @@ public class ByteColumn extends NumberColumn<Byte, ByteColumn> {
     }
 
     public ByteColumn() {
-        super(Byte.class);
+        this(null);
     }
 
     public ByteColumn(String name) {
-        super(name, Byte.class);
+        super(name, new ByteArrayStorage(INIT_SIZE), 0);
     }
 
     public ByteColumn(String name, Byte[] values) {
-        super(name, values);
+        this(name, values, values.length);
     }
 
     public ByteColumn(String name, Byte[] values, int size) {
-        super(name, values, size);
+        super(name, new ByteArrayStorage(Math.max(size, INIT_SIZE)), 0);
+        appendValues(values, size);
+    }
+
+    protected ByteColumn(String name, NumberStorage storage, int size) {
+        super(name, storage, size);
     }
 
     @Override
@@ -62,11 +72,42 @@ public class ByteColumn extends NumberColumn<Byte, ByteColumn> {
     }
 
 
+    /**
+     * Returns the value at the specified index as <tt>byte</tt> without boxing.
+     * The result for NA values is undefined, use {@link #isNA(int)} to check for NA values.
+     *
+     * @param index index of the value
+     * @return primitive value
+     */
+    public byte getByte(int index) {
+        return (byte) getLong(index);
+    }
+
+    @Override
+    public Byte get(int index) {
+        return isNA(index) ? null : getByte(index);
+    }
+
+    @Override
+    protected NumberStorage createStorage(int capacity, StorageMode mode) {
+        switch (mode) {
+            case OFF_HEAP:
+                return new DirectByteStorage(capacity);
+            case CHUNKED:
+                return new ChunkedByteStorage(capacity);
+            default:
+                return new ByteArrayStorage(capacity);
+        }
+    }
+
     @Override
     public ByteColumn copy() {
-        Byte[] copyValues = new Byte[values.length];
-        toArray(copyValues);
-        return new ByteColumn(getName(), copyValues, size());
+        return new ByteColumn(getName(), getStorage().copy(), size());
+    }
+
+    @Override
+    protected ByteColumn doCopy(int from, int to) {
+        return new ByteColumn(getName(), getStorage().slice(from, to), to - from);
     }
 
     @Override
@@ -81,6 +122,6 @@ public class ByteColumn extends NumberColumn<Byte, ByteColumn> {
 
     @Override
     public ByteColumn copyEmpty() {
-        return new ByteColumn(getName());
+        return new ByteColumn(getName()).setStorageMode(getStorageMode());
     }
 }
@@ -64,9 +64,7 @@ public class CharacterColumn extends BasicColumn<Character, CharacterColumn> {
 
     @Override
     public CharacterColumn copy() {
-        Character[] copyValues = new Character[values.length];
-        toArray(copyValues);
-        return new CharacterColumn(getName(), copyValues, size());
+        return copy(0, size());
     }
 
     @Override
@@ -0,0 +1,168 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.column;
+
+import de.unknownreality.dataframe.common.math.HyperLogLog;
+
+/**
+ * Statistics of the values in a {@link NumberColumn}.
+ * <p>
+ * The statistics are updated incrementally when values are appended to the column.
+ * Other modifications invalidate the statistics, they are recomputed with a single scan
+ * the next time they are requested.
+ * </p>
+ */
+public class ColumnStatistics {
+    private int count = 0;
+    private int naCount = 0;
+    private double min = Double.MAX_VALUE;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum = 0d;
+    private double last = 0d;
+    private boolean sorted = true;
+    private final HyperLogLog distinct = new HyperLogLog();
+
+    ColumnStatistics() {
+    }
+
+    /**
+     * Computes the statistics of a column
+     *
+     * @param column number column
+     * @return statistics of the column
+     */
+    static ColumnStatistics of(NumberColumn<?, ?> column) {
+        ColumnStatistics statistics = new ColumnStatistics();
+        int size = column.size();
+        for (int i = 0; i < size; i++) {
+            if (column.isNA(i)) {
+                statistics.addNA();
+            } else {
+                statistics.add(column.getDouble(i));
+            }
+        }
+        return statistics;
+    }
+
+    void add(double value) {
+        if (count > 0 && Double.compare(value, last) < 0) {
+            sorted = false;
+        }
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        last = value;
+        distinct.add(value);
+    }
+
+    void addNA() {
+        if (count > 0) {
+            sorted = false;
+        }
+        naCount++;
+    }
+
+    void setSorted(boolean sorted) {
+        this.sorted = sorted;
+        if (sorted && count > 0) {
+            // the last value of a sorted column is the maximum
+            last = max;
+        }
+    }
+
+    /**
+     * Returns the number of non NA values
+     *
+     * @return number of non NA values
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of NA values
+     *
+     * @return number of NA values
+     */
+    public int getNACount() {
+        return naCount;
+    }
+
+    /**
+     * Returns the minimum of all non NA values, {@link Double#MAX_VALUE} if there are no such values
+     *
+     * @return minimum value
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the maximum of all non NA values, {@link Double#NEGATIVE_INFINITY} if there are no such values
+     *
+     * @return maximum value
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the sum of all non NA values
+     *
+     * @return sum of all values
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns the mean of all non NA values
+     *
+     * @return mean of all values
+     */
+    public double getMean() {
+        return sum / count;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the values are in ascending order and all NA values are at the beginning
+     *
+     * @return <tt>true</tt> if the column is sorted
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    /**
+     * Returns the estimated number of distinct non NA values
+     *
+     * @return estimated number of distinct values
+     * @see HyperLogLog
+     */
+    public long getDistinctEstimate() {
+        return distinct.estimate();
+    }
+}
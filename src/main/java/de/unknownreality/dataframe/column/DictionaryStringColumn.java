@@ -0,0 +1,295 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.column;
+
+import de.unknownreality.dataframe.DataFrameRuntimeException;
+import de.unknownreality.dataframe.sort.IndexSorter;
+
+import java.util.*;
+
+/**
+ * String column that stores each distinct value only once in a dictionary.
+ * The rows contain <tt>int</tt> codes referencing the dictionary, NA values are stored as code <tt>-1</tt>.
+ * <p>
+ * This column is well suited for low-cardinality values (e.g. categories or status values).
+ * Equality predicates, grouping and value counts use the codes instead of the string values.
+ * </p>
+ */
+public class DictionaryStringColumn extends StringColumn {
+    public static final int NA_CODE = -1;
+
+    private int[] codes;
+    private final List<String> dictionary;
+    private final Map<String, Integer> codeMap;
+
+    public DictionaryStringColumn() {
+        this(null);
+    }
+
+    public DictionaryStringColumn(String name) {
+        this(name, new int[INIT_SIZE], new ArrayList<>(), new HashMap<>(), 0);
+    }
+
+    public DictionaryStringColumn(String name, String[] values) {
+        this(name, values, values.length);
+    }
+
+    public DictionaryStringColumn(String name, String[] values, int size) {
+        this(name, new int[Math.max(size, INIT_SIZE)], new ArrayList<>(), new HashMap<>(), 0);
+        for (int i = 0; i < size; i++) {
+            doAppend(values[i]);
+        }
+    }
+
+    private DictionaryStringColumn(String name, int[] codes, List<String> dictionary,
+                                   Map<String, Integer> codeMap, int size) {
+        // values are stored as dictionary codes, the object value array is not used
+        super(name, null, size);
+        this.codes = codes;
+        this.dictionary = dictionary;
+        this.codeMap = codeMap;
+    }
+
+    /**
+     * Returns the dictionary code of the value at the specified index.
+     * Returns {@link #NA_CODE} for NA values.
+     *
+     * @param index index of the value
+     * @return dictionary code
+     */
+    public int getCode(int index) {
+        return codes[index];
+    }
+
+    /**
+     * Returns the dictionary code for a string value.
+     * Returns {@link #NA_CODE} if the value is not contained in the dictionary.
+     *
+     * @param value string value
+     * @return dictionary code
+     */
+    public int getCode(String value) {
+        Integer code = codeMap.get(value);
+        return code == null ? NA_CODE : code;
+    }
+
+    /**
+     * Returns the string value for a dictionary code
+     *
+     * @param code dictionary code
+     * @return string value
+     */
+    public String getDictionaryValue(int code) {
+        return dictionary.get(code);
+    }
+
+    /**
+     * Returns the number of values in the dictionary.
+     * The dictionary may contain values that are no longer used by any row.
+     *
+     * @return dictionary size
+     */
+    public int getDictionarySize() {
+        return dictionary.size();
+    }
+
+    /**
+     * Returns the dictionary values ordered by their code
+     *
+     * @return unmodifiable list of dictionary values
+     */
+    public List<String> getDictionary() {
+        return Collections.unmodifiableList(dictionary);
+    }
+
+    private int encode(String value) {
+        Integer code = codeMap.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            codeMap.put(value, code);
+        }
+        return code;
+    }
+
+    @Override
+    public String get(int index) {
+        return isNA(index) ? null : dictionary.get(codes[index]);
+    }
+
+    @Override
+    protected void setValue(int index, String value) {
+        codes[index] = encode(value);
+    }
+
+    @Override
+    public boolean isNA(int index) {
+        return index >= size || codes[index] == NA_CODE;
+    }
+
+    @Override
+    protected void doSetNA(int index) {
+        codes[index] = NA_CODE;
+    }
+
+    @Override
+    protected boolean doAppend(String value) {
+        if (size >= codes.length) {
+            codes = Arrays.copyOf(codes, Math.max(codes.length + 1, (int) ((double) codes.length * GROW_FACTOR)));
+        }
+        codes[size++] = value == null ? NA_CODE : encode(value);
+        return true;
+    }
+
+    @Override
+    public DictionaryStringColumn setCapacity(int capacity) {
+        if (capacity < size) {
+            throw new DataFrameRuntimeException("capacity can not be lower than current size");
+        }
+        codes = Arrays.copyOf(codes, capacity);
+        return this;
+    }
+
+    @Override
+    public boolean contains(String o) {
+        int code = o == null ? NA_CODE : getCode(o);
+        if (o != null && code == NA_CODE) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (codes[i] == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<String> uniq() {
+        boolean[] used = new boolean[dictionary.size()];
+        for (int i = 0; i < size; i++) {
+            if (codes[i] != NA_CODE) {
+                used[codes[i]] = true;
+            }
+        }
+        Set<String> u = new HashSet<>();
+        for (int code = 0; code < used.length; code++) {
+            if (used[code]) {
+                u.add(dictionary.get(code));
+            }
+        }
+        return u;
+    }
+
+    /**
+     * Sorts the values, NA values first.
+     * Only the dictionary is sorted, the codes are rearranged using a counting sort.
+     */
+    @Override
+    protected void doSort() {
+        int[] counts = new int[dictionary.size()];
+        int naCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (codes[i] == NA_CODE) {
+                naCount++;
+            } else {
+                counts[codes[i]]++;
+            }
+        }
+        Integer[] sortedCodes = new Integer[dictionary.size()];
+        for (int code = 0; code < sortedCodes.length; code++) {
+            sortedCodes[code] = code;
+        }
+        Comparator<String> comparator = getValueType().getComparator();
+        Arrays.sort(sortedCodes, (a, b) -> comparator.compare(dictionary.get(a), dictionary.get(b)));
+        Arrays.fill(codes, 0, naCount, NA_CODE);
+        int index = naCount;
+        for (Integer code : sortedCodes) {
+            Arrays.fill(codes, index, index + counts[code], code);
+            index += counts[code];
+        }
+    }
+
+    @Override
+    protected void doSort(Comparator<String> comparator) {
+        String[] sorted = toArray();
+        if (IndexSorter.isParallel(sorted.length)) {
+            Arrays.parallelSort(sorted, comparator);
+        } else {
+            Arrays.sort(sorted, comparator);
+        }
+        for (int i = 0; i < sorted.length; i++) {
+            doSet(i, sorted[i]);
+        }
+    }
+
+    @Override
+    protected void doReverse() {
+        for (int i = 0; i < size / 2; i++) {
+            int temp = codes[i];
+            codes[i] = codes[size - i - 1];
+            codes[size - i - 1] = temp;
+        }
+    }
+
+    @Override
+    public void clear() {
+        codes = new int[INIT_SIZE];
+        dictionary.clear();
+        codeMap.clear();
+        size = 0;
+    }
+
+    @Override
+    protected DictionaryStringColumn getThis() {
+        return this;
+    }
+
+    @Override
+    public DictionaryStringColumn copy() {
+        return new DictionaryStringColumn(getName(), Arrays.copyOf(codes, codes.length),
+                new ArrayList<>(dictionary), new HashMap<>(codeMap), size);
+    }
+
+    @Override
+    protected DictionaryStringColumn doCopy(int from, int to) {
+        return new DictionaryStringColumn(getName(), Arrays.copyOfRange(codes, from, from + Math.max(to - from, INIT_SIZE)),
+                new ArrayList<>(dictionary), new HashMap<>(codeMap), to - from);
+    }
+
+    @Override
+    protected DictionaryStringColumn doCopy(int[] rows) {
+        int[] gathered = new int[Math.max(rows.length, INIT_SIZE)];
+        for (int i = 0; i < rows.length; i++) {
+            gathered[i] = codes[rows[i]];
+        }
+        return new DictionaryStringColumn(getName(), gathered, new ArrayList<>(dictionary), new HashMap<>(codeMap), rows.length);
+    }
+
+    @Override
+    public DictionaryStringColumn copyEmpty() {
+        return new DictionaryStringColumn(getName());
+    }
+}
@@ -24,6 +24,11 @@
 
 package de.unknownreality.dataframe.column;
 
+import de.unknownreality.dataframe.column.storage.ChunkedDoubleStorage;
+import de.unknownreality.dataframe.column.storage.DirectDoubleStorage;
+import de.unknownreality.dataframe.column.storage.DoubleArrayStorage;
+import de.unknownreality.dataframe.column.storage.NumberStorage;
+import de.unknownreality.dataframe.column.storage.StorageMode;
 import de.unknownreality.dataframe.common.Row;
 import de.unknownreality.dataframe.type.impl.DoubleType;
 
@@ -41,18 +46,23 @@ public class DoubleColumn extends NumberColumn<Double, DoubleColumn> {
     }
 
     public DoubleColumn() {
-        super(Double.class);
+        this(null);
     }
 
     public DoubleColumn(String name) {
-        super(name, Double.class);
+        super(name, new DoubleArrayStorage(INIT_SIZE), 0);
     }
 
     public DoubleColumn(String name, Double[] values) {
-        super(name, values);
+        this(name, values, values.length);
     }
     public DoubleColumn(String name, Double[] values, int size) {
-        super(name, values, size);
+        super(name, new DoubleArrayStorage(Math.max(size, INIT_SIZE)), 0);
+        appendValues(values, size);
+    }
+
+    protected DoubleColumn(String name, NumberStorage storage, int size) {
+        super(name, storage, size);
     }
 
     @Override
@@ -61,11 +71,31 @@ public class DoubleColumn extends NumberColumn<Double, DoubleColumn> {
     }
 
 
+    @Override
+    public Double get(int index) {
+        return isNA(index) ? null : getDouble(index);
+    }
+
+    @Override
+    protected NumberStorage createStorage(int capacity, StorageMode mode) {
+        switch (mode) {
+            case OFF_HEAP:
+                return new DirectDoubleStorage(capacity);
+            case CHUNKED:
+                return new ChunkedDoubleStorage(capacity);
+            default:
+                return new DoubleArrayStorage(capacity);
+        }
+    }
+
     @Override
     public DoubleColumn copy() {
-        Double[] copyValues = new Double[values.length];
-        toArray(copyValues);
-        return new DoubleColumn(getName(), copyValues, size());
+        return new DoubleColumn(getName(), getStorage().copy(), size());
+    }
+
+    @Override
+    protected DoubleColumn doCopy(int from, int to) {
+        return new DoubleColumn(getName(), getStorage().slice(from, to), to - from);
     }
     @Override
     public <H> Double getValueFromRow(Row<?, H> row, H headerName) {
@@ -79,6 +109,6 @@ public class DoubleColumn extends NumberColumn<Double, DoubleColumn> {
 
     @Override
     public DoubleColumn copyEmpty() {
-        return new DoubleColumn(getName());
+        return new DoubleColumn(getName()).setStorageMode(getStorageMode());
     }
 }
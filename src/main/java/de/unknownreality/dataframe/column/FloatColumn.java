@@ -24,6 +24,11 @@
 
 package de.unknownreality.dataframe.column;
 
+import de.unknownreality.dataframe.column.storage.ChunkedFloatStorage;
+import de.unknownreality.dataframe.column.storage.DirectFloatStorage;
+import de.unknownreality.dataframe.column.storage.FloatArrayStorage;
+import de.unknownreality.dataframe.column.storage.NumberStorage;
+import de.unknownreality.dataframe.column.storage.StorageMode;
 import de.unknownreality.dataframe.common.Row;
 import de.unknownreality.dataframe.type.impl.FloatType;
 
@@ -40,19 +45,24 @@ public class FloatColumn extends NumberColumn<Float, FloatColumn> {
     }
 
     public FloatColumn() {
-        super(Float.class);
+        this(null);
     }
 
     public FloatColumn(String name) {
-        super(name, Float.class);
+        super(name, new FloatArrayStorage(INIT_SIZE), 0);
     }
 
     public FloatColumn(String name, Float[] values) {
-        super(name, values);
+        this(name, values, values.length);
     }
 
     public FloatColumn(String name, Float[] values, int size) {
-        super(name, values, size);
+        super(name, new FloatArrayStorage(Math.max(size, INIT_SIZE)), 0);
+        appendValues(values, size);
+    }
+
+    protected FloatColumn(String name, NumberStorage storage, int size) {
+        super(name, storage, size);
     }
 
 
@@ -62,11 +72,42 @@ public class FloatColumn extends NumberColumn<Float, FloatColumn> {
     }
 
 
+    /**
+     * Returns the value at the specified index as <tt>float</tt> without boxing.
+     * The result for NA values is undefined, use {@link #isNA(int)} to check for NA values.
+     *
+     * @param index index of the value
+     * @return primitive value
+     */
+    public float getFloat(int index) {
+        return (float) getDouble(index);
+    }
+
+    @Override
+    public Float get(int index) {
+        return isNA(index) ? null : getFloat(index);
+    }
+
+    @Override
+    protected NumberStorage createStorage(int capacity, StorageMode mode) {
+        switch (mode) {
+            case OFF_HEAP:
+                return new DirectFloatStorage(capacity);
+            case CHUNKED:
+                return new ChunkedFloatStorage(capacity);
+            default:
+                return new FloatArrayStorage(capacity);
+        }
+    }
+
     @Override
     public FloatColumn copy() {
-        Float[] copyValues = new Float[values.length];
-        toArray(copyValues);
-        return new FloatColumn(getName(), copyValues, size());
+        return new FloatColumn(getName(), getStorage().copy(), size());
+    }
+
+    @Override
+    protected FloatColumn doCopy(int from, int to) {
+        return new FloatColumn(getName(), getStorage().slice(from, to), to - from);
     }
     @Override
     public <H> Float getValueFromRow(Row<?, H> row, H headerName) {
@@ -80,6 +121,6 @@ public class FloatColumn extends NumberColumn<Float, FloatColumn> {
 
     @Override
     public FloatColumn copyEmpty() {
-        return new FloatColumn(getName());
+        return new FloatColumn(getName()).setStorageMode(getStorageMode());
     }
 }
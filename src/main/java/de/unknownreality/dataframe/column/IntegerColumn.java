@@ -24,6 +24,11 @@
 
 package de.unknownreality.dataframe.column;
 
+import de.unknownreality.dataframe.column.storage.ChunkedIntStorage;
+import de.unknownreality.dataframe.column.storage.DirectIntStorage;
+import de.unknownreality.dataframe.column.storage.IntArrayStorage;
+import de.unknownreality.dataframe.column.storage.NumberStorage;
+import de.unknownreality.dataframe.column.storage.StorageMode;
 import de.unknownreality.dataframe.common.Row;
 import de.unknownreality.dataframe.type.impl.IntegerType;
 
@@ -35,19 +40,24 @@ public class IntegerColumn extends NumberColumn<Integer, IntegerColumn> {
     private final IntegerType valueType = new IntegerType();
 
     public IntegerColumn() {
-        super(Integer.class);
+        this(null);
     }
 
     public IntegerColumn(String name) {
-        super(name, Integer.class);
+        super(name, new IntArrayStorage(INIT_SIZE), 0);
     }
 
     public IntegerColumn(String name, Integer[] values) {
-        super(name, values);
+        this(name, values, values.length);
     }
 
     public IntegerColumn(String name, Integer[] values, int size) {
-        super(name, values, size);
+        super(name, new IntArrayStorage(Math.max(size, INIT_SIZE)), 0);
+        appendValues(values, size);
+    }
+
+    protected IntegerColumn(String name, NumberStorage storage, int size) {
+        super(name, storage, size);
     }
 
 
@@ -61,11 +71,42 @@ public class IntegerColumn extends NumberColumn<Integer, IntegerColumn> {
         return this;
     }
 
+    /**
+     * Returns the value at the specified index as <tt>int</tt> without boxing.
+     * The result for NA values is undefined, use {@link #isNA(int)} to check for NA values.
+     *
+     * @param index index of the value
+     * @return primitive value
+     */
+    public int getInt(int index) {
+        return (int) getLong(index);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return isNA(index) ? null : getInt(index);
+    }
+
+    @Override
+    protected NumberStorage createStorage(int capacity, StorageMode mode) {
+        switch (mode) {
+            case OFF_HEAP:
+                return new DirectIntStorage(capacity);
+            case CHUNKED:
+                return new ChunkedIntStorage(capacity);
+            default:
+                return new IntArrayStorage(capacity);
+        }
+    }
+
     @Override
     public IntegerColumn copy() {
-        Integer[] copyValues = new Integer[values.length];
-        toArray(copyValues);
-        return new IntegerColumn(getName(), copyValues, size());
+        return new IntegerColumn(getName(), getStorage().copy(), size());
+    }
+
+    @Override
+    protected IntegerColumn doCopy(int from, int to) {
+        return new IntegerColumn(getName(), getStorage().slice(from, to), to - from);
     }
 
     @Override
@@ -80,6 +121,6 @@ public class IntegerColumn extends NumberColumn<Integer, IntegerColumn> {
 
     @Override
     public IntegerColumn copyEmpty() {
-        return new IntegerColumn(getName());
+        return new IntegerColumn(getName()).setStorageMode(getStorageMode());
     }
 }
@@ -24,6 +24,11 @@
 
 package de.unknownreality.dataframe.column;
 
+import de.unknownreality.dataframe.column.storage.ChunkedLongStorage;
+import de.unknownreality.dataframe.column.storage.DirectLongStorage;
+import de.unknownreality.dataframe.column.storage.LongArrayStorage;
+import de.unknownreality.dataframe.column.storage.NumberStorage;
+import de.unknownreality.dataframe.column.storage.StorageMode;
 import de.unknownreality.dataframe.common.Row;
 import de.unknownreality.dataframe.type.impl.LongType;
 
@@ -35,19 +40,24 @@ public class LongColumn extends NumberColumn<Long, LongColumn> {
     private final LongType valueType = new LongType();
 
     public LongColumn() {
-        super(Long.class);
+        this(null);
     }
 
     public LongColumn(String name) {
-        super(name, Long.class);
+        super(name, new LongArrayStorage(INIT_SIZE), 0);
     }
 
     public LongColumn(String name, Long[] values) {
-        super(name, values);
+        this(name, values, values.length);
     }
 
     public LongColumn(String name, Long[] values, int size) {
-        super(name, values, size);
+        super(name, new LongArrayStorage(Math.max(size, INIT_SIZE)), 0);
+        appendValues(values, size);
+    }
+
+    protected LongColumn(String name, NumberStorage storage, int size) {
+        super(name, storage, size);
     }
 
 
@@ -61,11 +71,31 @@ public class LongColumn extends NumberColumn<Long, LongColumn> {
         return valueType;
     }
 
+    @Override
+    public Long get(int index) {
+        return isNA(index) ? null : getLong(index);
+    }
+
+    @Override
+    protected NumberStorage createStorage(int capacity, StorageMode mode) {
+        switch (mode) {
+            case OFF_HEAP:
+                return new DirectLongStorage(capacity);
+            case CHUNKED:
+                return new ChunkedLongStorage(capacity);
+            default:
+                return new LongArrayStorage(capacity);
+        }
+    }
+
     @Override
     public LongColumn copy() {
-        Long[] copyValues = new Long[values.length];
-        toArray(copyValues);
-        return new LongColumn(getName(), copyValues, size());
+        return new LongColumn(getName(), getStorage().copy(), size());
+    }
+
+    @Override
+    protected LongColumn doCopy(int from, int to) {
+        return new LongColumn(getName(), getStorage().slice(from, to), to - from);
     }
 
     @Override
@@ -80,6 +110,6 @@ public class LongColumn extends NumberColumn<Long, LongColumn> {
 
     @Override
     public LongColumn copyEmpty() {
-        return new LongColumn(getName());
+        return new LongColumn(getName()).setStorageMode(getStorageMode());
     }
 }
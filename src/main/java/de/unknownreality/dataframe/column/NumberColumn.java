@@ -24,68 +24,271 @@
 
 package de.unknownreality.dataframe.column;
 
+import de.unknownreality.dataframe.DataFrameException;
+import de.unknownreality.dataframe.DataFrameRuntimeException;
+import de.unknownreality.dataframe.column.storage.NumberStorage;
+import de.unknownreality.dataframe.column.storage.StorageMode;
 import de.unknownreality.dataframe.common.NumberUtil;
+import de.unknownreality.dataframe.common.math.QuantileSketch;
 import de.unknownreality.dataframe.common.math.Quantiles;
+import de.unknownreality.dataframe.common.math.QuickSelect;
+import de.unknownreality.dataframe.sort.IndexSorter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
+import java.util.Comparator;
 
 /**
  * Created by Alex on 11.03.2016.
+ * <p>
+ * Number columns store their values in a primitive {@link NumberStorage}.
+ * NA values are tracked in a validity bitmap of the storage.
+ * Use {@link #getDouble(int)} or {@link #getLong(int)} to access values without boxing.
+ * The values are kept in a single array on the java heap by default,
+ * {@link #setStorageMode(StorageMode)} moves them to chunks or off-heap memory.
+ * </p>
  */
 public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C>> extends BasicColumn<T, C> {
     private static final Logger log = LoggerFactory.getLogger(NumberColumn.class);
 
-    public NumberColumn(String name, Class<T> cl) {
-        super(name, cl);
+    private NumberStorage storage;
+    private ColumnStatistics statistics;
+    private T[] sortedValues;
+
+    protected NumberColumn(String name, NumberStorage storage, int size) {
+        super(name);
+        this.storage = storage;
+        this.size = size;
     }
 
-    public NumberColumn(Class<T> cl) {
-        super(null, cl);
+    /**
+     * Creates a new empty storage for the values of this column
+     *
+     * @param capacity initial capacity
+     * @param mode     storage mode
+     * @return new storage
+     */
+    protected abstract NumberStorage createStorage(int capacity, StorageMode mode);
+
+    protected NumberStorage getStorage() {
+        return storage;
     }
 
-    public NumberColumn(String name, T[] values) {
-        super(name, values);
+    /**
+     * Returns the statistics of this column.
+     * The statistics are updated incrementally on append and recomputed lazily after other modifications.
+     *
+     * @return column statistics
+     */
+    public ColumnStatistics getStatistics() {
+        if (statistics == null) {
+            statistics = ColumnStatistics.of(this);
+        }
+        return statistics;
     }
 
-    public NumberColumn(String name, T[] values, int size) {
-        super(name, values, size);
+    /**
+     * Invalidates the cached statistics and sorted values of this column.
+     * Must be called after values are modified directly in the storage.
+     */
+    protected void invalidateStatistics() {
+        statistics = null;
+        sortedValues = null;
     }
 
+    /**
+     * Returns the storage mode of this column
+     *
+     * @return storage mode
+     */
+    public StorageMode getStorageMode() {
+        return storage.getMode();
+    }
+
+    /**
+     * Moves the values of this column to a storage with the specified mode.
+     * Values and NA states are kept, the memory of the previous storage is released.
+     *
+     * @param mode new storage mode
+     * @return <tt>self</tt> for method chaining
+     */
+    public C setStorageMode(StorageMode mode) {
+        if (mode == null) {
+            throw new DataFrameRuntimeException("storage mode must not be null");
+        }
+        if (mode == storage.getMode()) {
+            return getThis();
+        }
+        NumberStorage previous = storage;
+        NumberStorage target = createStorage(Math.max(size, INIT_SIZE), mode);
+        boolean floatingPoint = previous.isFloatingPoint();
+        for (int i = 0; i < size; i++) {
+            if (previous.isNA(i)) {
+                target.setNA(i, true);
+            } else if (floatingPoint) {
+                target.setDouble(i, previous.getDouble(i));
+            } else {
+                target.setLong(i, previous.getLong(i));
+            }
+        }
+        storage = target;
+        previous.release();
+        return getThis();
+    }
+
+    /**
+     * Appends the first <tt>size</tt> values of an array to this column.
+     * <tt>null</tt> values are appended as NA.
+     *
+     * @param values values to append
+     * @param size   number of values
+     */
+    protected void appendValues(T[] values, int size) {
+        storage.ensureCapacity(this.size + size);
+        for (int i = 0; i < size; i++) {
+            doAppend(values[i]);
+        }
+    }
+
+    /**
+     * Appends all values of another number column to this column.
+     * The values are copied as primitives without boxing.
+     * If both columns use {@link StorageMode#CHUNKED chunked storages}, whole chunks are shared when possible.
+     * <p>Calls {@link #validateAppend()} to ensure data frame index consistency</p>
+     *
+     * @param column column containing the values
+     * @return <tt>true</tt> if the values are appended successfully
+     */
+    public boolean appendColumn(NumberColumn<?, ?> column) {
+        try {
+            validateAppend();
+        } catch (DataFrameException e) {
+            log.warn("error appending column", e);
+            return false;
+        }
+        int length = column.size();
+        storage.append(size, column.storage, length);
+        invalidateStatistics();
+        size += length;
+        return true;
+    }
+
+    /**
+     * Returns the value at the specified index as <tt>double</tt> without boxing.
+     * The result for NA values is undefined, use {@link #isNA(int)} to check for NA values.
+     *
+     * @param index index of the value
+     * @return value as double
+     */
+    public double getDouble(int index) {
+        return storage.getDouble(index);
+    }
+
+    /**
+     * Returns the value at the specified index as <tt>long</tt> without boxing.
+     * Floating point values are truncated.
+     * The result for NA values is undefined, use {@link #isNA(int)} to check for NA values.
+     *
+     * @param index index of the value
+     * @return value as long
+     */
+    public long getLong(int index) {
+        return storage.getLong(index);
+    }
+
+    /**
+     * Returns <tt>true</tt> if the values of this column are floating point values.
+     * Integral values can be read without loss using {@link #getLong(int)}.
+     *
+     * @return <tt>true</tt> for floating point columns
+     */
+    public boolean isFloatingPoint() {
+        return storage.isFloatingPoint();
+    }
 
     @Override
-    public T get(int index) {
-        return super.values[index];
+    public Double toDouble(int index) {
+        return isNA(index) ? Double.NaN : storage.getDouble(index);
     }
 
 
     /**
-     * Returns the median of all values in this column
+     * Returns the median of all values in this column.
+     * NA values are ignored. Unless the values are already sorted, the median is selected in linear time.
      *
      * @return median of all values
      */
     public T median() {
-        return new Quantiles<>(
-                getSortedValues(),
-                getValueType().getType(), true).median();
+        return selectRank(getStatistics().getCount() / 2);
     }
 
 
     /**
      * returns the specified quantile.
-     * This calculation requires sorting of the values each time.
-     * If more than one quantile should be calculated, use {@link #getQuantiles()}.
+     * NA values are ignored. Unless the values are already sorted, the quantile is selected in linear time.
      *
      * @param percent quantile percent
      * @return quantile
      */
     public T getQuantile(double percent) {
-        return new Quantiles<>(
-                getSortedValues(),
-                getValueType().getType(), true)
-                .getQuantile(percent);
+        int index = (int) Math.ceil(percent * getStatistics().getCount()) - 1;
+        return selectRank(Math.max(index, 0));
+    }
+
+    /**
+     * Returns the value with the specified rank among the non NA values of this column.
+     *
+     * @param rank rank of the value (0-based)
+     * @return value with the specified rank
+     */
+    private T selectRank(int rank) {
+        ColumnStatistics statistics = getStatistics();
+        int count = statistics.getCount();
+        if (count == 0) {
+            throw new IllegalArgumentException("empty value arrays are not allowed for quantile calculations");
+        }
+        int naCount = statistics.getNACount();
+        if (sortedValues != null || statistics.isSorted()) {
+            T[] values = getSortedValues();
+            return NumberUtil.convert(values[naCount + rank], getValueType().getType());
+        }
+        int size = size();
+        if (storage.isFloatingPoint()) {
+            double[] values = new double[count];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (!storage.isNA(i)) {
+                    values[n++] = storage.getDouble(i);
+                }
+            }
+            return NumberUtil.convert(QuickSelect.select(values, n, rank), getValueType().getType());
+        }
+        long[] values = new long[count];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (!storage.isNA(i)) {
+                values[n++] = storage.getLong(i);
+            }
+        }
+        return NumberUtil.convert(QuickSelect.select(values, n, rank), getValueType().getType());
+    }
 
+    /**
+     * Creates a {@link QuantileSketch} containing all non NA values of this column.
+     * Sketches of different columns can be merged to estimate quantiles of the combined values.
+     *
+     * @return quantile sketch
+     */
+    public QuantileSketch createQuantileSketch() {
+        QuantileSketch sketch = new QuantileSketch();
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            if (!storage.isNA(i)) {
+                sketch.add(storage.getDouble(i));
+            }
+        }
+        return sketch;
     }
 
     /**
@@ -106,22 +309,11 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
      * @return mean of all values
      */
     public Double mean() {
-        int naCount = 0;
-        double sum = 0d;
-        int count = 0;
-        int size = size();
-        for (int i = 0; i < size; i++) {
-            if (isNA(i)) {
-                naCount++;
-                continue;
-            }
-            count++;
-            sum += get(i).doubleValue();
+        ColumnStatistics statistics = getStatistics();
+        if (statistics.getNACount() > 0) {
+            log.warn("mean() ignored {} NA", statistics.getNACount());
         }
-        if (naCount > 0) {
-            log.warn("mean() ignored {} NA", naCount);
-        }
-        return sum / count;
+        return statistics.getMean();
     }
 
     /**
@@ -130,20 +322,11 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
      * @return minimum of all values
      */
     public T min() {
-        double min = Double.MAX_VALUE;
-        int naCount = 0;
-        int size = size();
-        for (int i = 0; i < size; i++) {
-            if (isNA(i)) {
-                naCount++;
-                continue;
-            }
-            min = Math.min(min, get(i).doubleValue());
-        }
-        if (naCount > 0) {
-            log.warn("min() ignored {} NA", naCount);
+        ColumnStatistics statistics = getStatistics();
+        if (statistics.getNACount() > 0) {
+            log.warn("min() ignored {} NA", statistics.getNACount());
         }
-        return NumberUtil.convert(min, getValueType().getType());
+        return NumberUtil.convert(statistics.getMin(), getValueType().getType());
     }
 
     /**
@@ -152,20 +335,11 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
      * @return maximum of all values
      */
     public T max() {
-        double max = Double.NEGATIVE_INFINITY;
-        int naCount = 0;
-        int size = size();
-        for (int i = 0; i < size; i++) {
-            if (isNA(i)) {
-                naCount++;
-                continue;
-            }
-            max = Math.max(max, get(i).doubleValue());
+        ColumnStatistics statistics = getStatistics();
+        if (statistics.getNACount() > 0) {
+            log.warn("max() ignored {} NA", statistics.getNACount());
         }
-        if (naCount > 0) {
-            log.warn("max() ignored {} NA", naCount);
-        }
-        return NumberUtil.convert(max, getValueType().getType());
+        return NumberUtil.convert(statistics.getMax(), getValueType().getType());
     }
 
     /**
@@ -174,20 +348,11 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
      * @return sum of all values
      */
     public T sum() {
-        int naCount = 0;
-        double sum = 0;
-        int size = size();
-        for (int i = 0; i < size; i++) {
-            if (isNA(i)) {
-                naCount++;
-                continue;
-            }
-            sum += get(i).doubleValue();
+        ColumnStatistics statistics = getStatistics();
+        if (statistics.getNACount() > 0) {
+            log.warn("sum() ignored {} NA", statistics.getNACount());
         }
-        if (naCount > 0) {
-            log.warn("sum() ignored {} NA", naCount);
-        }
-        return NumberUtil.convert(sum, getValueType().getType());
+        return NumberUtil.convert(statistics.getSum(), getValueType().getType());
     }
 
 
@@ -204,7 +369,7 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
         int size = size();
         for (int i = 0; i < size; i++) {
             if (!isNA(i) && !column.isNA(i)) {
-                doSet(i, NumberUtil.add(get(i), column.get(i), getValueType().getType()));
+                storage.setDouble(i, storage.getDouble(i) + column.getDouble(i));
             } else {
                 naCount++;
             }
@@ -212,13 +377,26 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
         if (naCount > 0) {
             log.warn("add() ignored {} NA", naCount);
         }
+        invalidateStatistics();
         notifyDataFrameColumnChanged();
         return getThis();
     }
 
+    /**
+     * Returns the values of this column in ascending order.
+     * The sorted values are cached until the column is modified and must not be changed.
+     * Values are only sorted if the column is not already in ascending order.
+     *
+     * @return sorted values
+     */
     protected T[] getSortedValues() {
-        T[] sortedValues = toArray();
-        Arrays.sort(sortedValues, getValueType().getComparator());
+        if (sortedValues == null) {
+            T[] values = toArray();
+            if (!getStatistics().isSorted()) {
+                Arrays.sort(values, getValueType().getComparator());
+            }
+            sortedValues = values;
+        }
         return sortedValues;
     }
 
@@ -239,7 +417,7 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
         int size = size();
         for (int i = 0; i < size; i++) {
             if (!isNA(i) && !column.isNA(i)) {
-                doSet(i, NumberUtil.subtract(get(i), column.get(i), getValueType().getType()));
+                storage.setDouble(i, storage.getDouble(i) - column.getDouble(i));
             } else {
                 naCount++;
             }
@@ -247,6 +425,7 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
         if (naCount > 0) {
             log.warn("subtract() ignored {} NA", naCount);
         }
+        invalidateStatistics();
         notifyDataFrameColumnChanged();
         return getThis();
     }
@@ -267,7 +446,7 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
         int size = size();
         for (int i = 0; i < size; i++) {
             if (!isNA(i) && !column.isNA(i)) {
-                doSet(i, NumberUtil.multiply(get(i), column.get(i), getValueType().getType()));
+                storage.setDouble(i, storage.getDouble(i) * column.getDouble(i));
             } else {
                 naCount++;
             }
@@ -275,6 +454,7 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
         if (naCount > 0) {
             log.warn("multiply() ignored {} NA", naCount);
         }
+        invalidateStatistics();
         notifyDataFrameColumnChanged();
         return getThis();
     }
@@ -295,7 +475,7 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
         int size = size();
         for (int i = 0; i < size; i++) {
             if (!isNA(i) && !column.isNA(i)) {
-                doSet(i, NumberUtil.divide(get(i), column.get(i), getValueType().getType()));
+                storage.setDouble(i, storage.getDouble(i) / column.getDouble(i));
             } else {
                 naCount++;
             }
@@ -303,6 +483,7 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
         if (naCount > 0) {
             log.warn("divide() ignored {} NA", naCount);
         }
+        invalidateStatistics();
         notifyDataFrameColumnChanged();
         return getThis();
     }
@@ -317,11 +498,12 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
      * @return <tt>self</tt> for method chaining
      */
     public C add(Number value) {
+        double doubleValue = value == null ? 0 : value.doubleValue();
         int naCount = 0;
         int size = size();
         for (int i = 0; i < size; i++) {
             if (!isNA(i) && value != null) {
-                doSet(i, NumberUtil.add(get(i), value, getValueType().getType()));
+                storage.setDouble(i, storage.getDouble(i) + doubleValue);
             } else {
                 naCount++;
             }
@@ -329,6 +511,7 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
         if (naCount > 0) {
             log.warn("add() ignored {} NA", naCount);
         }
+        invalidateStatistics();
         notifyDataFrameColumnChanged();
         return getThis();
     }
@@ -342,11 +525,12 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
      * @return <tt>self</tt> for method chaining
      */
     public C subtract(Number value) {
+        double doubleValue = value == null ? 0 : value.doubleValue();
         int naCount = 0;
         int size = size();
         for (int i = 0; i < size; i++) {
             if (!isNA(i) && value != null) {
-                doSet(i, NumberUtil.subtract(get(i), value, getValueType().getType()));
+                storage.setDouble(i, storage.getDouble(i) - doubleValue);
             } else {
                 naCount++;
             }
@@ -354,6 +538,7 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
         if (naCount > 0) {
             log.warn("subtract() ignored {} NA", naCount);
         }
+        invalidateStatistics();
         notifyDataFrameColumnChanged();
         return getThis();
     }
@@ -368,11 +553,12 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
      * @return <tt>self</tt> for method chaining
      */
     public C multiply(Number value) {
+        double doubleValue = value == null ? 0 : value.doubleValue();
         int naCount = 0;
         int size = size();
         for (int i = 0; i < size; i++) {
             if (!isNA(i) && value != null) {
-                doSet(i, NumberUtil.multiply(get(i), value, getValueType().getType()));
+                storage.setDouble(i, storage.getDouble(i) * doubleValue);
             } else {
                 naCount++;
             }
@@ -380,6 +566,7 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
         if (naCount > 0) {
             log.warn("multiply() ignored {} NA", naCount);
         }
+        invalidateStatistics();
         notifyDataFrameColumnChanged();
         return getThis();
     }
@@ -393,11 +580,12 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
      * @return <tt>self</tt> for method chaining
      */
     public C divide(Number value) {
+        double doubleValue = value == null ? 0 : value.doubleValue();
         int naCount = 0;
         int size = size();
         for (int i = 0; i < size; i++) {
             if (!isNA(i) && value != null) {
-                doSet(i, NumberUtil.divide(get(i), value, getValueType().getType()));
+                storage.setDouble(i, storage.getDouble(i) / doubleValue);
             } else {
                 naCount++;
             }
@@ -405,17 +593,38 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
         if (naCount > 0) {
             log.warn("divide() ignored {} NA", naCount);
         }
+        invalidateStatistics();
         notifyDataFrameColumnChanged();
         return getThis();
     }
 
+    @Override
+    public C setCapacity(int capacity) {
+        if (capacity < size) {
+            throw new DataFrameRuntimeException("capacity can not be lower than current size");
+        }
+        storage.setCapacity(capacity);
+        return getThis();
+    }
+
     @Override
     protected boolean doAppend(T t) {
-        if (t != null
-                && t.getClass() != getValueType().getType()) {
-            t = NumberUtil.convert(t, getValueType().getType());
+        storage.ensureCapacity(size + 1);
+        int index = size++;
+        if (t == null) {
+            storage.setNA(index, true);
+        } else {
+            storeValue(index, t);
         }
-        return super.doAppend(t);
+        sortedValues = null;
+        if (statistics != null) {
+            if (t == null) {
+                statistics.addNA();
+            } else {
+                statistics.add(storage.getDouble(index));
+            }
+        }
+        return true;
     }
 
     @Override
@@ -425,6 +634,144 @@ public abstract class NumberColumn<T extends Number, C extends NumberColumn<T, C
 
     @Override
     protected void setValue(int index, T value) {
-        values[index] = NumberUtil.convert(value, getValueType().getType());
+        storeValue(index, value);
+        invalidateStatistics();
+    }
+
+    private void storeValue(int index, Number value) {
+        storage.setNA(index, false);
+        if (value instanceof Long || value instanceof Integer
+                || value instanceof Short || value instanceof Byte) {
+            storage.setLong(index, value.longValue());
+        } else {
+            storage.setDouble(index, value.doubleValue());
+        }
+    }
+
+    @Override
+    public boolean isNA(int index) {
+        return index >= size || storage.isNA(index);
+    }
+
+    @Override
+    protected void doSetNA(int index) {
+        storage.setNA(index, true);
+        storage.setLong(index, 0);
+        invalidateStatistics();
+    }
+
+    /**
+     * Sorts the values in ascending order, NA values are moved to the beginning.
+     * The values are sorted directly in the primitive storage.
+     */
+    @Override
+    protected void doSort() {
+        if (statistics != null && statistics.isSorted()) {
+            return;
+        }
+        ColumnStatistics previous = statistics;
+        T[] previousSortedValues = sortedValues;
+        int write = size - 1;
+        for (int i = size - 1; i >= 0; i--) {
+            if (!storage.isNA(i)) {
+                if (i != write) {
+                    storage.move(i, write);
+                }
+                write--;
+            }
+        }
+        int naCount = write + 1;
+        for (int i = 0; i < naCount; i++) {
+            doSetNA(i);
+        }
+        storage.sort(naCount, size, IndexSorter.isParallel(size - naCount));
+        statistics = previous;
+        sortedValues = previousSortedValues;
+        if (statistics != null) {
+            statistics.setSorted(true);
+        }
+    }
+
+    @Override
+    protected void doSort(Comparator<T> comparator) {
+        T[] sorted = toArray();
+        if (IndexSorter.isParallel(sorted.length)) {
+            Arrays.parallelSort(sorted, comparator);
+        } else {
+            Arrays.sort(sorted, comparator);
+        }
+        for (int i = 0; i < sorted.length; i++) {
+            doSet(i, sorted[i]);
+        }
+    }
+
+    /**
+     * Gathers the primitive values at the specified indices into a new storage.
+     *
+     * @param rows indices of the copied values
+     * @return copy of the values
+     */
+    @Override
+    protected C doCopy(int[] rows) {
+        C copy = copyEmpty();
+        NumberColumn<T, C> target = copy;
+        NumberStorage gathered = createStorage(Math.max(rows.length, INIT_SIZE), storage.getMode());
+        gather(storage, gathered, rows);
+        target.storage.release();
+        target.storage = gathered;
+        target.size = rows.length;
+        return copy;
+    }
+
+    private static void gather(NumberStorage source, NumberStorage target, int[] rows) {
+        boolean floatingPoint = source.isFloatingPoint();
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            if (source.isNA(row)) {
+                target.setNA(i, true);
+            } else if (floatingPoint) {
+                target.setDouble(i, source.getDouble(row));
+            } else {
+                target.setLong(i, source.getLong(row));
+            }
+        }
+    }
+
+    /**
+     * Gathers the primitive values into a new storage in the specified order.
+     *
+     * @param order source index for each target index
+     */
+    @Override
+    protected void doReorder(int[] order) {
+        NumberStorage previous = storage;
+        NumberStorage target = createStorage(Math.max(size, INIT_SIZE), previous.getMode());
+        gather(previous, target, order);
+        storage = target;
+        previous.release();
+        invalidateStatistics();
+    }
+
+    @Override
+    protected void doReverse() {
+        for (int i = 0; i < size / 2; i++) {
+            storage.swap(i, size - i - 1);
+        }
+        if (statistics != null && size > 1) {
+            statistics.setSorted(false);
+        }
+    }
+
+    /**
+     * Removes all values from this column.
+     * Off-heap memory of the previous storage is released.
+     */
+    @Override
+    public void clear() {
+        NumberStorage previous = storage;
+        storage = createStorage(INIT_SIZE, previous.getMode());
+        size = 0;
+        invalidateStatistics();
+        previous.release();
     }
 }
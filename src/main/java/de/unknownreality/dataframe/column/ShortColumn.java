@@ -24,6 +24,11 @@
 
 package de.unknownreality.dataframe.column;
 
+import de.unknownreality.dataframe.column.storage.NumberStorage;
+import de.unknownreality.dataframe.column.storage.StorageMode;
+import de.unknownreality.dataframe.column.storage.ChunkedShortStorage;
+import de.unknownreality.dataframe.column.storage.DirectShortStorage;
+import de.unknownreality.dataframe.column.storage.ShortArrayStorage;
 import de.unknownreality.dataframe.common.Row;
 import de.unknownreality.dataframe.type.impl.ShortType;
 
@@ -35,19 +40,24 @@ public class ShortColumn extends NumberColumn<Short, ShortColumn> {
     private final ShortType valueType = new ShortType();
 
     public ShortColumn() {
-        super(Short.class);
+        this(null);
     }
 
     public ShortColumn(String name) {
-        super(name, Short.class);
+        super(name, new ShortArrayStorage(INIT_SIZE), 0);
     }
 
     public ShortColumn(String name, Short[] values) {
-        super(name, values);
+        this(name, values, values.length);
     }
 
     public ShortColumn(String name, Short[] values, int size) {
-        super(name, values, size);
+        super(name, new ShortArrayStorage(Math.max(size, INIT_SIZE)), 0);
+        appendValues(values, size);
+    }
+
+    protected ShortColumn(String name, NumberStorage storage, int size) {
+        super(name, storage, size);
     }
 
 
@@ -61,11 +71,42 @@ public class ShortColumn extends NumberColumn<Short, ShortColumn> {
         return this;
     }
 
+    /**
+     * Returns the value at the specified index as <tt>short</tt> without boxing.
+     * The result for NA values is undefined, use {@link #isNA(int)} to check for NA values.
+     *
+     * @param index index of the value
+     * @return primitive value
+     */
+    public short getShort(int index) {
+        return (short) getLong(index);
+    }
+
+    @Override
+    public Short get(int index) {
+        return isNA(index) ? null : getShort(index);
+    }
+
+    @Override
+    protected NumberStorage createStorage(int capacity, StorageMode mode) {
+        switch (mode) {
+            case OFF_HEAP:
+                return new DirectShortStorage(capacity);
+            case CHUNKED:
+                return new ChunkedShortStorage(capacity);
+            default:
+                return new ShortArrayStorage(capacity);
+        }
+    }
+
     @Override
     public ShortColumn copy() {
-        Short[] copyValues = new Short[values.length];
-        toArray(copyValues);
-        return new ShortColumn(getName(), copyValues, size());
+        return new ShortColumn(getName(), getStorage().copy(), size());
+    }
+
+    @Override
+    protected ShortColumn doCopy(int from, int to) {
+        return new ShortColumn(getName(), getStorage().slice(from, to), to - from);
     }
     @Override
     public <H> Short getValueFromRow(Row<?, H> row, H headerName) {
@@ -79,6 +120,6 @@ public class ShortColumn extends NumberColumn<Short, ShortColumn> {
 
     @Override
     public ShortColumn copyEmpty() {
-        return new ShortColumn(getName());
+        return new ShortColumn(getName()).setStorageMode(getStorageMode());
     }
 }
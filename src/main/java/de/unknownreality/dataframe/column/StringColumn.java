@@ -65,9 +65,7 @@ public class StringColumn extends BasicColumn<String, StringColumn> {
 
     @Override
     public StringColumn copy() {
-        String[] copyValues = new String[values.length];
-        toArray(copyValues);
-        return new StringColumn(getName(), copyValues, size());
+        return copy(0, size());
     }
 
     @Override
@@ -0,0 +1,411 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.column;
+
+import de.unknownreality.dataframe.DataFrameRuntimeException;
+import de.unknownreality.dataframe.sort.IndexSorter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * String column that stores all values UTF-8 encoded in one contiguous byte arena.
+ * Each row references its bytes by start offset and length, NA values have length <tt>-1</tt>.
+ * <tt>String</tt> objects are only created by {@link #get(int)}.
+ * <p>
+ * Comparisons, hashing and equality checks work on the encoded bytes.
+ * Values are sorted by their unsigned UTF-8 bytes, which corresponds to the unicode code point order.
+ * </p>
+ * <p>
+ * Replacing a value appends the new bytes to the arena. The arena is compacted once more than half of it is unused.
+ * </p>
+ */
+public class Utf8StringColumn extends StringColumn {
+    private static final int NA_LENGTH = -1;
+    private static final int INIT_ARENA_SIZE = INIT_SIZE * 16;
+
+    private byte[] arena;
+    private int arenaSize;
+    private int unusedBytes;
+    private int[] starts;
+    private int[] lengths;
+
+    public Utf8StringColumn() {
+        this(null);
+    }
+
+    public Utf8StringColumn(String name) {
+        this(name, new byte[INIT_ARENA_SIZE], 0, new int[INIT_SIZE], new int[INIT_SIZE], 0);
+    }
+
+    public Utf8StringColumn(String name, String[] values) {
+        this(name, values, values.length);
+    }
+
+    public Utf8StringColumn(String name, String[] values, int size) {
+        this(name, new byte[INIT_ARENA_SIZE], 0,
+                new int[Math.max(size, INIT_SIZE)], new int[Math.max(size, INIT_SIZE)], 0);
+        for (int i = 0; i < size; i++) {
+            doAppend(values[i]);
+        }
+    }
+
+    private Utf8StringColumn(String name, byte[] arena, int arenaSize, int[] starts, int[] lengths, int size) {
+        // values are stored in the byte arena, the object value array is not used
+        super(name, null, size);
+        this.arena = arena;
+        this.arenaSize = arenaSize;
+        this.starts = starts;
+        this.lengths = lengths;
+    }
+
+    private static byte[] encode(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String get(int index) {
+        if (isNA(index)) {
+            return null;
+        }
+        return new String(arena, starts[index], lengths[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of UTF-8 bytes of the value at the specified index.
+     * Returns <tt>-1</tt> for NA values.
+     *
+     * @param index index of the value
+     * @return number of bytes
+     */
+    public int getByteLength(int index) {
+        return isNA(index) ? NA_LENGTH : lengths[index];
+    }
+
+    /**
+     * Returns a hash code computed from the UTF-8 bytes of the value at the specified index.
+     * Equal values have equal hash codes.
+     *
+     * @param index index of the value
+     * @return hash code of the value
+     */
+    public int valueHashCode(int index) {
+        if (isNA(index)) {
+            return 0;
+        }
+        int hash = 1;
+        int end = starts[index] + lengths[index];
+        for (int i = starts[index]; i < end; i++) {
+            hash = 31 * hash + arena[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Compares the values at two indices by their unsigned UTF-8 bytes.
+     * NA values are lower than all other values.
+     *
+     * @param a first index
+     * @param b second index
+     * @return comparison result
+     */
+    public int compareValues(int a, int b) {
+        boolean naA = isNA(a);
+        boolean naB = isNA(b);
+        if (naA || naB) {
+            return naA == naB ? 0 : (naA ? -1 : 1);
+        }
+        return compareBytes(starts[a], lengths[a], starts[b], lengths[b]);
+    }
+
+    private int compareBytes(int startA, int lengthA, int startB, int lengthB) {
+        int length = Math.min(lengthA, lengthB);
+        for (int i = 0; i < length; i++) {
+            int c = (arena[startA + i] & 0xff) - (arena[startB + i] & 0xff);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the values at two indices are equal.
+     * The UTF-8 bytes are compared, no <tt>String</tt> objects are created.
+     *
+     * @param a first index
+     * @param b second index
+     * @return <tt>true</tt> if both values are equal
+     */
+    public boolean valueEquals(int a, int b) {
+        return compareValues(a, b) == 0;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the value at the specified index equals a string.
+     * ASCII strings are compared without encoding them.
+     *
+     * @param index index of the value
+     * @param value string value
+     * @return <tt>true</tt> if the value is equal
+     */
+    public boolean valueEquals(int index, String value) {
+        if (value == null || isNA(index)) {
+            return value == null && isNA(index);
+        }
+        int length = lengths[index];
+        int start = starts[index];
+        if (value.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                byte[] bytes = encode(value);
+                return compareBytes(start, length, bytes) == 0;
+            }
+            if (i >= length || arena[start + i] != c) {
+                return false;
+            }
+        }
+        return value.length() == length;
+    }
+
+    private int compareBytes(int start, int length, byte[] bytes) {
+        int min = Math.min(length, bytes.length);
+        for (int i = 0; i < min; i++) {
+            int c = (arena[start + i] & 0xff) - (bytes[i] & 0xff);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return length - bytes.length;
+    }
+
+    private void ensureArenaCapacity(int additional) {
+        if (arenaSize + additional > arena.length) {
+            long newSize = Math.max((long) arenaSize + additional, (long) (arena.length * GROW_FACTOR));
+            if (newSize > Integer.MAX_VALUE - 8) {
+                if ((long) arenaSize + additional > Integer.MAX_VALUE - 8) {
+                    throw new DataFrameRuntimeException("string arena size limit exceeded");
+                }
+                newSize = Integer.MAX_VALUE - 8;
+            }
+            arena = Arrays.copyOf(arena, (int) newSize);
+        }
+    }
+
+    private void store(int index, String value) {
+        byte[] bytes = encode(value);
+        ensureArenaCapacity(bytes.length);
+        System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+        starts[index] = arenaSize;
+        lengths[index] = bytes.length;
+        arenaSize += bytes.length;
+    }
+
+    @Override
+    protected void setValue(int index, String value) {
+        if (lengths[index] > 0) {
+            unusedBytes += lengths[index];
+        }
+        store(index, value);
+        if (unusedBytes > arenaSize / 2) {
+            compact();
+        }
+    }
+
+    @Override
+    public boolean isNA(int index) {
+        return index >= size || lengths[index] == NA_LENGTH;
+    }
+
+    @Override
+    protected void doSetNA(int index) {
+        if (lengths[index] > 0) {
+            unusedBytes += lengths[index];
+        }
+        starts[index] = 0;
+        lengths[index] = NA_LENGTH;
+    }
+
+    @Override
+    protected boolean doAppend(String value) {
+        if (size >= starts.length) {
+            int capacity = Math.max(starts.length + 1, (int) ((double) starts.length * GROW_FACTOR));
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        int index = size++;
+        if (value == null) {
+            starts[index] = 0;
+            lengths[index] = NA_LENGTH;
+        } else {
+            store(index, value);
+        }
+        return true;
+    }
+
+    /**
+     * Rewrites the byte arena so that it only contains the bytes of the current values in row order.
+     *
+     * @return <tt>self</tt> for method chaining
+     */
+    public Utf8StringColumn compact() {
+        byte[] compacted = new byte[Math.max(INIT_ARENA_SIZE, arenaSize - unusedBytes)];
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            if (lengths[i] == NA_LENGTH) {
+                continue;
+            }
+            System.arraycopy(arena, starts[i], compacted, position, lengths[i]);
+            starts[i] = position;
+            position += lengths[i];
+        }
+        arena = compacted;
+        arenaSize = position;
+        unusedBytes = 0;
+        return this;
+    }
+
+    @Override
+    public Utf8StringColumn setCapacity(int capacity) {
+        if (capacity < size) {
+            throw new DataFrameRuntimeException("capacity can not be lower than current size");
+        }
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        return this;
+    }
+
+    @Override
+    public boolean contains(String o) {
+        for (int i = 0; i < size; i++) {
+            if (valueEquals(i, o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a set containing all values in this column.
+     * Duplicates are detected on the UTF-8 bytes, each distinct value is materialized once.
+     *
+     * @return set of values in this column
+     */
+    @Override
+    public Set<String> uniq() {
+        int[] table = new int[Integer.highestOneBit(Math.max(size, 1) * 2) << 1];
+        Arrays.fill(table, -1);
+        int mask = table.length - 1;
+        Set<String> u = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            if (lengths[i] == NA_LENGTH) {
+                continue;
+            }
+            int slot = valueHashCode(i) & mask;
+            while (table[slot] != -1 && !valueEquals(table[slot], i)) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] == -1) {
+                table[slot] = i;
+                u.add(get(i));
+            }
+        }
+        return u;
+    }
+
+    /**
+     * Sorts the values by their UTF-8 bytes, NA values first.
+     * Only the offsets are rearranged, the byte arena is not changed.
+     */
+    @Override
+    protected void doSort() {
+        int[] order = IndexSorter.argsort(size, this::compareValues);
+        int[] sortedStarts = new int[starts.length];
+        int[] sortedLengths = new int[lengths.length];
+        for (int i = 0; i < size; i++) {
+            sortedStarts[i] = starts[order[i]];
+            sortedLengths[i] = lengths[order[i]];
+        }
+        starts = sortedStarts;
+        lengths = sortedLengths;
+    }
+
+    @Override
+    protected void doSort(Comparator<String> comparator) {
+        String[] sorted = toArray();
+        if (IndexSorter.isParallel(sorted.length)) {
+            Arrays.parallelSort(sorted, comparator);
+        } else {
+            Arrays.sort(sorted, comparator);
+        }
+        for (int i = 0; i < sorted.length; i++) {
+            doSet(i, sorted[i]);
+        }
+    }
+
+    @Override
+    protected void doReverse() {
+        for (int i = 0; i < size / 2; i++) {
+            int j = size - i - 1;
+            int temp = starts[i];
+            starts[i] = starts[j];
+            starts[j] = temp;
+            temp = lengths[i];
+            lengths[i] = lengths[j];
+            lengths[j] = temp;
+        }
+    }
+
+    @Override
+    public void clear() {
+        arena = new byte[INIT_ARENA_SIZE];
+        arenaSize = 0;
+        unusedBytes = 0;
+        starts = new int[INIT_SIZE];
+        lengths = new int[INIT_SIZE];
+        size = 0;
+    }
+
+    @Override
+    protected Utf8StringColumn getThis() {
+        return this;
+    }
+
+    @Override
+    public Utf8StringColumn copy() {
+        Utf8StringColumn copy = new Utf8StringColumn(getName(), Arrays.copyOf(arena, arenaSize), arenaSize,
+                Arrays.copyOf(starts, starts.length), Arrays.copyOf(lengths, lengths.length), size);
+        copy.unusedBytes = unusedBytes;
+        return unusedBytes > 0 ? copy.compact() : copy;
+    }
+
+    @Override
+    public Utf8StringColumn copyEmpty() {
+        return new Utf8StringColumn(getName());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.column.storage;
+
+import java.util.Arrays;
+
+/**
+ * {@link ChunkedNumberStorage} for <tt>int</tt> values
+ */
+public class ChunkedIntStorage extends ChunkedNumberStorage {
+    private int[][] chunks = new int[0][];
+
+    public ChunkedIntStorage(int capacity) {
+        super();
+        setCapacity(capacity);
+    }
+
+    private ChunkedIntStorage(ChunkedIntStorage other) {
+        super(other);
+        this.chunks = Arrays.copyOf(other.chunks, getChunkCount());
+    }
+
+    @Override
+    protected void resizeChunkTable(int chunkCount) {
+        chunks = Arrays.copyOf(chunks, chunkCount);
+    }
+
+    @Override
+    protected void allocateChunk(int chunk) {
+        chunks[chunk] = new int[CHUNK_SIZE];
+    }
+
+    @Override
+    protected void linkChunk(int chunk, ChunkedNumberStorage source, int sourceChunk) {
+        chunks[chunk] = ((ChunkedIntStorage) source).chunks[sourceChunk];
+    }
+
+    @Override
+    protected void copyChunk(int chunk) {
+        chunks[chunk] = chunks[chunk].clone();
+    }
+
+    @Override
+    public double getDouble(int index) {
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    @Override
+    public long getLong(int index) {
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        beforeWrite(index);
+        chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = (int) value;
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        beforeWrite(index);
+        chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = (int) value;
+    }
+
+    @Override
+    protected void swapValues(int a, int b) {
+        beforeWrite(a);
+        beforeWrite(b);
+        int value = chunks[a >>> CHUNK_SHIFT][a & CHUNK_MASK];
+        chunks[a >>> CHUNK_SHIFT][a & CHUNK_MASK] = chunks[b >>> CHUNK_SHIFT][b & CHUNK_MASK];
+        chunks[b >>> CHUNK_SHIFT][b & CHUNK_MASK] = value;
+    }
+
+    @Override
+    protected void moveValue(int from, int to) {
+        beforeWrite(to);
+        chunks[to >>> CHUNK_SHIFT][to & CHUNK_MASK] = chunks[from >>> CHUNK_SHIFT][from & CHUNK_MASK];
+    }
+
+    @Override
+    public boolean isFloatingPoint() {
+        return false;
+    }
+
+    /**
+     * Sorts the values in the range <tt>[from, to)</tt> in ascending order.
+     * The range is copied to a temporary array for sorting.
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     */
+    @Override
+    public void sort(int from, int to, boolean parallel) {
+        int[] values = new int[to - from];
+        for (int i = from; i < to; i++) {
+            values[i - from] = chunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK];
+        }
+        if (parallel) {
+            Arrays.parallelSort(values);
+        } else {
+            Arrays.sort(values);
+        }
+        for (int i = from; i < to; i++) {
+            beforeWrite(i);
+            chunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK] = values[i - from];
+        }
+    }
+
+    @Override
+    public ChunkedIntStorage copy() {
+        return new ChunkedIntStorage(this);
+    }
+
+    @Override
+    protected ChunkedIntStorage create(int capacity) {
+        return new ChunkedIntStorage(capacity);
+    }
+}
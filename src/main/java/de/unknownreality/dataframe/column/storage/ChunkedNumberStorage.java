@@ -0,0 +1,220 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.column.storage;
+
+import java.util.Arrays;
+
+/**
+ * {@link NumberStorage} that keeps the values in a table of fixed size chunks.
+ * <p>
+ * Growing the storage only allocates new chunks, existing values are never copied.
+ * Chunks can be shared between storages ({@link #copy()}, {@link #append(int, NumberStorage, int)}).
+ * A shared chunk is copied before it is modified for the first time (copy-on-write).
+ * Values are addressed by chunk and offset, which allows more than {@link Integer#MAX_VALUE} values
+ * once the column API supports long indices.
+ * </p>
+ */
+public abstract class ChunkedNumberStorage extends NumberStorage {
+    public static final int CHUNK_SHIFT = 13;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    protected static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int NA_WORDS = CHUNK_SIZE >>> 6;
+
+    private long[][] naChunks = new long[0][];
+    private boolean[] shared = new boolean[0];
+    private int chunkCount = 0;
+
+    protected ChunkedNumberStorage() {
+        super(0);
+    }
+
+    protected ChunkedNumberStorage(ChunkedNumberStorage other) {
+        super(0);
+        this.chunkCount = other.chunkCount;
+        this.naChunks = new long[chunkCount][];
+        for (int i = 0; i < chunkCount; i++) {
+            naChunks[i] = other.naChunks[i].clone();
+        }
+        this.shared = new boolean[chunkCount];
+        Arrays.fill(shared, true);
+        Arrays.fill(other.shared, 0, chunkCount, true);
+    }
+
+    private static int chunkCount(int capacity) {
+        return (capacity + CHUNK_MASK) >>> CHUNK_SHIFT;
+    }
+
+    /**
+     * Returns the number of chunks in this storage
+     *
+     * @return number of chunks
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * Resizes the chunk table. New slots are left empty.
+     *
+     * @param chunkCount new number of chunks
+     */
+    protected abstract void resizeChunkTable(int chunkCount);
+
+    /**
+     * Allocates a new empty chunk at the specified slot
+     *
+     * @param chunk chunk slot
+     */
+    protected abstract void allocateChunk(int chunk);
+
+    /**
+     * Uses a chunk of another storage of the same type at the specified slot
+     *
+     * @param chunk       chunk slot
+     * @param source      source storage
+     * @param sourceChunk chunk slot in the source storage
+     */
+    protected abstract void linkChunk(int chunk, ChunkedNumberStorage source, int sourceChunk);
+
+    /**
+     * Replaces the chunk at the specified slot with a private copy
+     *
+     * @param chunk chunk slot
+     */
+    protected abstract void copyChunk(int chunk);
+
+    /**
+     * Must be called before a value is modified.
+     * Copies the chunk containing the value if it is shared with another storage.
+     *
+     * @param index index of the value
+     */
+    protected final void beforeWrite(int index) {
+        int chunk = index >>> CHUNK_SHIFT;
+        if (shared[chunk]) {
+            copyChunk(chunk);
+            shared[chunk] = false;
+        }
+    }
+
+    @Override
+    public StorageMode getMode() {
+        return StorageMode.CHUNKED;
+    }
+
+    @Override
+    public int capacity() {
+        return chunkCount << CHUNK_SHIFT;
+    }
+
+    @Override
+    protected void resizeValues(int capacity) {
+        int count = chunkCount(capacity);
+        resizeChunkTable(count);
+        naChunks = Arrays.copyOf(naChunks, count);
+        shared = Arrays.copyOf(shared, count);
+        for (int i = chunkCount; i < count; i++) {
+            allocateChunk(i);
+            naChunks[i] = new long[NA_WORDS];
+        }
+        chunkCount = count;
+    }
+
+    @Override
+    public void setCapacity(int capacity) {
+        resizeValues(capacity);
+    }
+
+    /**
+     * Grows the storage by whole chunks, no over-allocation is required.
+     *
+     * @param minCapacity required capacity
+     */
+    @Override
+    public void ensureCapacity(int minCapacity) {
+        if (capacity() < minCapacity) {
+            resizeValues(minCapacity);
+        }
+    }
+
+    @Override
+    public boolean isNA(int index) {
+        return (naChunks[index >>> CHUNK_SHIFT][(index & CHUNK_MASK) >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public void setNA(int index, boolean na) {
+        long[] words = naChunks[index >>> CHUNK_SHIFT];
+        int word = (index & CHUNK_MASK) >>> 6;
+        if (na) {
+            words[word] |= 1L << index;
+        } else {
+            words[word] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * If <tt>from</tt> is a multiple of {@link #CHUNK_SIZE}, the chunks are shared with the slice.
+     */
+    @Override
+    public NumberStorage slice(int from, int to) {
+        if ((from & CHUNK_MASK) != 0 || from == to) {
+            return super.slice(from, to);
+        }
+        ChunkedNumberStorage slice = (ChunkedNumberStorage) create(0);
+        slice.linkChunks(0, this, from >>> CHUNK_SHIFT, to - from);
+        return slice;
+    }
+
+    /**
+     * {@inheritDoc}
+     * If both storages have the same type and <tt>size</tt> is a multiple of {@link #CHUNK_SIZE},
+     * the chunks of the source are linked instead of copying the values.
+     */
+    @Override
+    public void append(int size, NumberStorage source, int length) {
+        if (source.getClass() != getClass() || (size & CHUNK_MASK) != 0 || length == 0) {
+            super.append(size, source, length);
+            return;
+        }
+        linkChunks(size >>> CHUNK_SHIFT, (ChunkedNumberStorage) source, 0, length);
+    }
+
+    private void linkChunks(int first, ChunkedNumberStorage source, int sourceFirst, int length) {
+        int linked = chunkCount(length);
+        int count = first + linked;
+        resizeChunkTable(count);
+        naChunks = Arrays.copyOf(naChunks, count);
+        shared = Arrays.copyOf(shared, count);
+        for (int i = 0; i < linked; i++) {
+            linkChunk(first + i, source, sourceFirst + i);
+            naChunks[first + i] = source.naChunks[sourceFirst + i].clone();
+            shared[first + i] = true;
+            source.shared[sourceFirst + i] = true;
+        }
+        chunkCount = count;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.column.storage;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * {@link DirectNumberStorage} for <tt>float</tt> values
+ */
+public class DirectFloatStorage extends DirectNumberStorage {
+
+    public DirectFloatStorage(int capacity) {
+        super(capacity, Float.BYTES);
+    }
+
+    private DirectFloatStorage(DirectFloatStorage other) {
+        super(other);
+    }
+
+    @Override
+    public double getDouble(int index) {
+        return buffer.getFloat(index << 2);
+    }
+
+    @Override
+    public long getLong(int index) {
+        return (long) buffer.getFloat(index << 2);
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        buffer.putFloat(index << 2, (float) value);
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        buffer.putFloat(index << 2, (float) value);
+    }
+
+    @Override
+    public boolean isFloatingPoint() {
+        return true;
+    }
+
+    /**
+     * Sorts the values in the range <tt>[from, to)</tt> in ascending order.
+     * The range is copied to a temporary heap array for sorting.
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     */
+    @Override
+    public void sort(int from, int to, boolean parallel) {
+        float[] values = new float[to - from];
+        FloatBuffer view = buffer.asFloatBuffer();
+        view.position(from);
+        view.get(values);
+        if (parallel) {
+            Arrays.parallelSort(values);
+            orderZeros(values, 0, values.length);
+        } else {
+            Arrays.sort(values);
+        }
+        view.position(from);
+        view.put(values);
+    }
+
+    @Override
+    public DirectFloatStorage copy() {
+        return new DirectFloatStorage(this);
+    }
+
+    @Override
+    protected DirectFloatStorage create(int capacity) {
+        return new DirectFloatStorage(capacity);
+    }
+}
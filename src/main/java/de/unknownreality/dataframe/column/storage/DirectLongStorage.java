@@ -0,0 +1,99 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.column.storage;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * {@link DirectNumberStorage} for <tt>long</tt> values
+ */
+public class DirectLongStorage extends DirectNumberStorage {
+
+    public DirectLongStorage(int capacity) {
+        super(capacity, Long.BYTES);
+    }
+
+    private DirectLongStorage(DirectLongStorage other) {
+        super(other);
+    }
+
+    @Override
+    public double getDouble(int index) {
+        return buffer.getLong(index << 3);
+    }
+
+    @Override
+    public long getLong(int index) {
+        return buffer.getLong(index << 3);
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        buffer.putLong(index << 3, (long) value);
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        buffer.putLong(index << 3, value);
+    }
+
+    @Override
+    public boolean isFloatingPoint() {
+        return false;
+    }
+
+    /**
+     * Sorts the values in the range <tt>[from, to)</tt> in ascending order.
+     * The range is copied to a temporary heap array for sorting.
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     */
+    @Override
+    public void sort(int from, int to, boolean parallel) {
+        long[] values = new long[to - from];
+        LongBuffer view = buffer.asLongBuffer();
+        view.position(from);
+        view.get(values);
+        if (parallel) {
+            Arrays.parallelSort(values);
+        } else {
+            Arrays.sort(values);
+        }
+        view.position(from);
+        view.put(values);
+    }
+
+    @Override
+    public DirectLongStorage copy() {
+        return new DirectLongStorage(this);
+    }
+
+    @Override
+    protected DirectLongStorage create(int capacity) {
+        return new DirectLongStorage(capacity);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.column.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * {@link NumberStorage} that keeps the values in a direct {@link ByteBuffer} outside of the java heap.
+ * The memory is released by {@link #release()}.
+ */
+public abstract class DirectNumberStorage extends NumberStorage {
+    private final int elementSize;
+    protected ByteBuffer buffer;
+
+    protected DirectNumberStorage(int capacity, int elementSize) {
+        super(capacity);
+        this.elementSize = elementSize;
+        this.buffer = allocate(capacity);
+    }
+
+    protected DirectNumberStorage(DirectNumberStorage other) {
+        super(other);
+        this.elementSize = other.elementSize;
+        this.buffer = allocate(other.capacity());
+        copyBytes(other.buffer, buffer, buffer.capacity());
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * elementSize).order(ByteOrder.nativeOrder());
+    }
+
+    private static void copyBytes(ByteBuffer source, ByteBuffer target, int length) {
+        ByteBuffer src = source.duplicate();
+        src.position(0).limit(length);
+        ByteBuffer dst = target.duplicate();
+        dst.position(0);
+        dst.put(src);
+    }
+
+    @Override
+    public StorageMode getMode() {
+        return StorageMode.OFF_HEAP;
+    }
+
+    @Override
+    public int capacity() {
+        return buffer.capacity() / elementSize;
+    }
+
+    @Override
+    protected void resizeValues(int capacity) {
+        ByteBuffer resized = allocate(capacity);
+        copyBytes(buffer, resized, Math.min(buffer.capacity(), resized.capacity()));
+        DirectBuffers.release(buffer);
+        buffer = resized;
+    }
+
+    private long getBits(int index) {
+        int position = index * elementSize;
+        switch (elementSize) {
+            case Long.BYTES:
+                return buffer.getLong(position);
+            case Integer.BYTES:
+                return buffer.getInt(position);
+            case Short.BYTES:
+                return buffer.getShort(position);
+            default:
+                return buffer.get(position);
+        }
+    }
+
+    private void setBits(int index, long bits) {
+        int position = index * elementSize;
+        switch (elementSize) {
+            case Long.BYTES:
+                buffer.putLong(position, bits);
+                break;
+            case Integer.BYTES:
+                buffer.putInt(position, (int) bits);
+                break;
+            case Short.BYTES:
+                buffer.putShort(position, (short) bits);
+                break;
+            default:
+                buffer.put(position, (byte) bits);
+        }
+    }
+
+    @Override
+    protected void swapValues(int a, int b) {
+        long bits = getBits(a);
+        setBits(a, getBits(b));
+        setBits(b, bits);
+    }
+
+    @Override
+    protected void moveValue(int from, int to) {
+        setBits(to, getBits(from));
+    }
+
+    @Override
+    public void release() {
+        DirectBuffers.release(buffer);
+        buffer = null;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.column.storage;
+
+import java.util.Arrays;
+
+/**
+ * {@link NumberStorage} backed by a <tt>double[]</tt> array.
+ * Copies and slices share the array until one of the storages is modified.
+ */
+public class DoubleArrayStorage extends NumberStorage {
+    private double[] values;
+    private int offset;
+    private int length;
+    private boolean shared;
+
+    public DoubleArrayStorage(int capacity) {
+        super(capacity);
+        this.values = new double[capacity];
+        this.offset = 0;
+        this.length = capacity;
+    }
+
+    private DoubleArrayStorage(DoubleArrayStorage other, int from, int to) {
+        super(other, from);
+        this.values = other.values;
+        this.offset = other.offset + from;
+        this.length = to - from;
+        this.shared = true;
+        other.shared = true;
+    }
+
+    private void beforeWrite() {
+        if (shared) {
+            values = Arrays.copyOfRange(values, offset, offset + length);
+            offset = 0;
+            shared = false;
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return length;
+    }
+
+    @Override
+    public double getDouble(int index) {
+        return values[offset + index];
+    }
+
+    @Override
+    public long getLong(int index) {
+        return (long) values[offset + index];
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        beforeWrite();
+        values[offset + index] = value;
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        beforeWrite();
+        values[offset + index] = (double) value;
+    }
+
+    @Override
+    public boolean isFloatingPoint() {
+        return true;
+    }
+
+    @Override
+    public void sort(int from, int to, boolean parallel) {
+        beforeWrite();
+        if (parallel) {
+            Arrays.parallelSort(values, offset + from, offset + to);
+            orderZeros(values, offset + from, offset + to);
+        } else {
+            Arrays.sort(values, offset + from, offset + to);
+        }
+    }
+
+    @Override
+    public DoubleArrayStorage copy() {
+        return slice(0, length);
+    }
+
+    @Override
+    public DoubleArrayStorage slice(int from, int to) {
+        return new DoubleArrayStorage(this, from, to);
+    }
+
+    @Override
+    protected DoubleArrayStorage create(int capacity) {
+        return new DoubleArrayStorage(capacity);
+    }
+
+    @Override
+    protected void resizeValues(int capacity) {
+        values = Arrays.copyOfRange(values, offset, offset + capacity);
+        offset = 0;
+        length = capacity;
+        shared = false;
+    }
+
+    @Override
+    protected void swapValues(int a, int b) {
+        beforeWrite();
+        double temp = values[offset + a];
+        values[offset + a] = values[offset + b];
+        values[offset + b] = temp;
+    }
+
+    @Override
+    protected void moveValue(int from, int to) {
+        beforeWrite();
+        values[offset + to] = values[offset + from];
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.column.storage;
+
+import java.util.Arrays;
+
+/**
+ * Storage for the values of a {@link de.unknownreality.dataframe.column.NumberColumn}.
+ * <p>
+ * Values are stored as primitives. NA values are tracked in a separate validity bitmap,
+ * the primitive value at a NA position is undefined.
+ * All values can be read and written as <tt>double</tt> or <tt>long</tt>,
+ * implementations convert them to their own primitive type using the java primitive casts.
+ * </p>
+ */
+public abstract class NumberStorage {
+    public static final double GROW_FACTOR = 1.6d;
+
+    private long[] naBits;
+    private int naOffset = 0;
+    private boolean naShared = false;
+
+    protected NumberStorage(int capacity) {
+        this.naBits = new long[wordCount(capacity)];
+    }
+
+    protected NumberStorage(NumberStorage other) {
+        this.naBits = copyBits(other.naBits, other.naOffset, other.capacity());
+    }
+
+    /**
+     * Creates a storage that shares the NA bitmap of another storage, starting at index <tt>from</tt>.
+     * The bitmap is copied before it is modified by either storage.
+     *
+     * @param other storage to share the bitmap with
+     * @param from  first shared index
+     */
+    protected NumberStorage(NumberStorage other, int from) {
+        this.naBits = other.naBits;
+        this.naOffset = other.naOffset + from;
+        this.naShared = true;
+        other.naShared = true;
+    }
+
+    private static int wordCount(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    private static long[] copyBits(long[] bits, int offset, int length) {
+        long[] result = new long[wordCount(length)];
+        int word = offset >>> 6;
+        int shift = offset & 63;
+        for (int i = 0; i < result.length && word + i < bits.length; i++) {
+            long value = bits[word + i] >>> shift;
+            if (shift != 0 && word + i + 1 < bits.length) {
+                value |= bits[word + i + 1] << (64 - shift);
+            }
+            result[i] = value;
+        }
+        if ((length & 63) != 0) {
+            result[result.length - 1] &= (1L << length) - 1;
+        }
+        return result;
+    }
+
+    private static void copyValues(NumberStorage source, int sourceFrom, NumberStorage target, int targetFrom, int length) {
+        boolean floatingPoint = source.isFloatingPoint();
+        for (int i = 0; i < length; i++) {
+            int sourceIndex = sourceFrom + i;
+            int targetIndex = targetFrom + i;
+            if (source.isNA(sourceIndex)) {
+                target.setNA(targetIndex, true);
+                continue;
+            }
+            target.setNA(targetIndex, false);
+            if (floatingPoint) {
+                target.setDouble(targetIndex, source.getDouble(sourceIndex));
+            } else {
+                target.setLong(targetIndex, source.getLong(sourceIndex));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of values that can be stored without resizing
+     *
+     * @return capacity of this storage
+     */
+    public abstract int capacity();
+
+    /**
+     * Returns the value at a specified index as <tt>double</tt>
+     *
+     * @param index index of the value
+     * @return value as double
+     */
+    public abstract double getDouble(int index);
+
+    /**
+     * Returns the value at a specified index as <tt>long</tt>
+     *
+     * @param index index of the value
+     * @return value as long
+     */
+    public abstract long getLong(int index);
+
+    /**
+     * Sets the value at a specified index.
+     * The value is cast to the primitive type of this storage.
+     *
+     * @param index index of the value
+     * @param value new value
+     */
+    public abstract void setDouble(int index, double value);
+
+    /**
+     * Sets the value at a specified index.
+     * The value is cast to the primitive type of this storage.
+     *
+     * @param index index of the value
+     * @param value new value
+     */
+    public abstract void setLong(int index, long value);
+
+    /**
+     * Returns <tt>true</tt> if the values in this storage are floating point numbers
+     *
+     * @return <tt>true</tt> for float and double storages
+     */
+    public abstract boolean isFloatingPoint();
+
+    /**
+     * Orders negative zeros before positive zeros in a sorted range.
+     * {@link Arrays#parallelSort(double[], int, int)} does not keep this order in Java 8.
+     *
+     * @param values sorted values
+     * @param from   first index (inclusive)
+     * @param to     last index (exclusive)
+     */
+    protected static void orderZeros(double[] values, int from, int to) {
+        int start = from;
+        while (start < to && !(values[start] == 0d)) {
+            start++;
+        }
+        int end = start;
+        int negativeZeros = 0;
+        while (end < to && values[end] == 0d) {
+            if (Double.doubleToRawLongBits(values[end]) != 0L) {
+                negativeZeros++;
+            }
+            end++;
+        }
+        Arrays.fill(values, start, start + negativeZeros, -0d);
+        Arrays.fill(values, start + negativeZeros, end, 0d);
+    }
+
+    /**
+     * Orders negative zeros before positive zeros in a sorted range.
+     * {@link Arrays#parallelSort(float[], int, int)} does not keep this order in Java 8.
+     *
+     * @param values sorted values
+     * @param from   first index (inclusive)
+     * @param to     last index (exclusive)
+     */
+    protected static void orderZeros(float[] values, int from, int to) {
+        int start = from;
+        while (start < to && !(values[start] == 0f)) {
+            start++;
+        }
+        int end = start;
+        int negativeZeros = 0;
+        while (end < to && values[end] == 0f) {
+            if (Float.floatToRawIntBits(values[end]) != 0) {
+                negativeZeros++;
+            }
+            end++;
+        }
+        Arrays.fill(values, start, start + negativeZeros, -0f);
+        Arrays.fill(values, start + negativeZeros, end, 0f);
+    }
+
+    /**
+     * Sorts the values in the range <tt>[from, to)</tt> in ascending order.
+     * The range must not contain NA values.
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     */
+    public void sort(int from, int to) {
+        sort(from, to, false);
+    }
+
+    /**
+     * Sorts the values in the range <tt>[from, to)</tt> in ascending order.
+     * The range must not contain NA values.
+     *
+     * @param from     first index (inclusive)
+     * @param to       last index (exclusive)
+     * @param parallel sort using the common fork/join pool
+     */
+    public abstract void sort(int from, int to, boolean parallel);
+
+    /**
+     * Returns a copy of this storage.
+     * Storages may share memory with the copy until one of them is modified (copy-on-write).
+     *
+     * @return copy of this storage
+     */
+    public abstract NumberStorage copy();
+
+    /**
+     * Creates a new empty storage of the same type
+     *
+     * @param capacity initial capacity
+     * @return new storage
+     */
+    protected abstract NumberStorage create(int capacity);
+
+    /**
+     * Returns a storage containing the values and NA states in the range <tt>[from, to)</tt>.
+     * Storages may share memory with the slice until one of them is modified (copy-on-write),
+     * the default implementation copies the values.
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     * @return storage containing the range
+     */
+    public NumberStorage slice(int from, int to) {
+        NumberStorage slice = create(to - from);
+        copyValues(this, from, slice, 0, to - from);
+        return slice;
+    }
+
+    /**
+     * Returns the storage mode of this storage
+     *
+     * @return storage mode
+     */
+    public StorageMode getMode() {
+        return StorageMode.HEAP;
+    }
+
+    /**
+     * Releases memory held outside of the java heap.
+     * The storage must not be used afterwards.
+     * Heap storages are left to the garbage collector.
+     */
+    public void release() {
+    }
+
+    protected abstract void resizeValues(int capacity);
+
+    protected abstract void swapValues(int a, int b);
+
+    protected abstract void moveValue(int from, int to);
+
+    /**
+     * Changes the capacity of this storage.
+     * Values at indices lower than the new capacity are kept.
+     *
+     * @param capacity new capacity
+     */
+    public void setCapacity(int capacity) {
+        int previous = capacity();
+        resizeValues(capacity);
+        if (naShared || naOffset != 0) {
+            naBits = Arrays.copyOf(copyBits(naBits, naOffset, Math.min(previous, capacity)), wordCount(capacity));
+            naOffset = 0;
+            naShared = false;
+        } else {
+            naBits = Arrays.copyOf(naBits, wordCount(capacity));
+        }
+    }
+
+    /**
+     * Grows this storage if its capacity is lower than <tt>minCapacity</tt>.
+     * The capacity is increased by at least {@link #GROW_FACTOR} to amortize the copy costs.
+     *
+     * @param minCapacity required capacity
+     */
+    public void ensureCapacity(int minCapacity) {
+        int capacity = capacity();
+        if (capacity < minCapacity) {
+            setCapacity(Math.max(minCapacity, (int) ((double) capacity * GROW_FACTOR)));
+        }
+    }
+
+    /**
+     * Copies the first <tt>length</tt> values and NA states of another storage
+     * to this storage, starting at index <tt>size</tt>.
+     * This storage is grown if required.
+     *
+     * @param size   index of the first copied value in this storage
+     * @param source source storage
+     * @param length number of values to copy
+     */
+    public void append(int size, NumberStorage source, int length) {
+        ensureCapacity(size + length);
+        copyValues(source, 0, this, size, length);
+    }
+
+    /**
+     * Swaps two values including their NA state
+     *
+     * @param a first index
+     * @param b second index
+     */
+    public void swap(int a, int b) {
+        swapValues(a, b);
+        boolean naA = isNA(a);
+        setNA(a, isNA(b));
+        setNA(b, naA);
+    }
+
+    /**
+     * Copies the value and NA state from one index to another
+     *
+     * @param from source index
+     * @param to   target index
+     */
+    public void move(int from, int to) {
+        moveValue(from, to);
+        setNA(to, isNA(from));
+    }
+
+    /**
+     * Returns <tt>true</tt> if the value at the specified index is NA
+     *
+     * @param index index of the value
+     * @return <tt>true</tt> if NA
+     */
+    public boolean isNA(int index) {
+        int bit = naOffset + index;
+        return (naBits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Sets the NA state of a value
+     *
+     * @param index index of the value
+     * @param na    <tt>true</tt> if the value is NA
+     */
+    public void setNA(int index, boolean na) {
+        if (naShared) {
+            naBits = copyBits(naBits, naOffset, capacity());
+            naOffset = 0;
+            naShared = false;
+        }
+        if (na) {
+            naBits[index >>> 6] |= 1L << index;
+        } else {
+            naBits[index >>> 6] &= ~(1L << index);
+        }
+    }
+}
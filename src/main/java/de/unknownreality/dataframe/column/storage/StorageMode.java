@@ -0,0 +1,48 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.column.storage;
+
+/**
+ * Storage modes for the values of number columns
+ */
+public enum StorageMode {
+    /**
+     * Values are stored in primitive arrays on the java heap
+     */
+    HEAP,
+
+    /**
+     * Values are stored in fixed size chunks on the java heap.
+     * Appending values never copies existing chunks and chunks are shared between copies until they are modified.
+     */
+    CHUNKED,
+
+    /**
+     * Values are stored in direct byte buffers outside of the java heap.
+     * The memory is released when the column is cleared ({@link de.unknownreality.dataframe.DataFrame#clear()},
+     * {@link de.unknownreality.dataframe.DataFrame#close()}) or when the buffer is garbage collected.
+     */
+    OFF_HEAP
+}
@@ -0,0 +1,259 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.common.math;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable streaming sketch for approximate quantiles (KLL sketch).
+ * <p>
+ * Values are kept in a hierarchy of compactors. Level <tt>h</tt> holds values with weight <tt>2^h</tt>,
+ * full levels are sorted and every second value is promoted to the next level.
+ * The memory usage is <tt>O(k)</tt>, independent of the number of values.
+ * The rank error is about <tt>1.7 / k</tt>, the default <tt>k = 200</tt> gives a rank error below 1%.
+ * Sketches with the same <tt>k</tt> can be merged, e.g. to combine the sketches of partitions or groups.
+ * Minimum and maximum are exact.
+ * </p>
+ */
+public class QuantileSketch {
+    public static final int DEFAULT_K = 200;
+    private static final double CAPACITY_DECAY = 2d / 3d;
+
+    private final int k;
+    private double[][] levels = new double[0][];
+    private int[] levelSizes = new int[0];
+    private int[] capacities = new int[0];
+    private int levelCount = 0;
+    private int retained = 0;
+    private int totalCapacity = 0;
+    private long count = 0;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private boolean promoteOdd = false;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    public QuantileSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("k must be at least 8");
+        }
+        this.k = k;
+        addLevel();
+    }
+
+    private void addLevel() {
+        if (levelCount == levels.length) {
+            int length = Math.max(4, levelCount * 2);
+            levels = Arrays.copyOf(levels, length);
+            levelSizes = Arrays.copyOf(levelSizes, length);
+            capacities = Arrays.copyOf(capacities, length);
+        }
+        levels[levelCount] = new double[8];
+        levelSizes[levelCount] = 0;
+        levelCount++;
+        // capacities depend on the distance to the top level
+        totalCapacity = 0;
+        double capacity = k;
+        for (int level = levelCount - 1; level >= 0; level--) {
+            capacities[level] = Math.max(2, (int) Math.ceil(capacity));
+            totalCapacity += capacities[level];
+            capacity *= CAPACITY_DECAY;
+        }
+    }
+
+    private void append(int level, double value) {
+        double[] values = levels[level];
+        int size = levelSizes[level];
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            levels[level] = values;
+        }
+        values[size] = value;
+        levelSizes[level] = size + 1;
+        retained++;
+    }
+
+    /**
+     * Adds a value to this sketch. <tt>NaN</tt> values are ignored.
+     *
+     * @param value value
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        count++;
+        append(0, value);
+        if (levelSizes[0] >= capacities[0]) {
+            compress();
+        }
+    }
+
+    /**
+     * Merges the values of another sketch into this sketch.
+     * The other sketch is not modified.
+     *
+     * @param other other sketch
+     * @return <tt>self</tt> for method chaining
+     */
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return this;
+        }
+        while (levelCount < other.levelCount) {
+            addLevel();
+        }
+        for (int level = 0; level < other.levelCount; level++) {
+            double[] values = other.levels[level];
+            int size = other.levelSizes[level];
+            for (int i = 0; i < size; i++) {
+                append(level, values[i]);
+            }
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        compress();
+        return this;
+    }
+
+    private void compress() {
+        while (retained > totalCapacity) {
+            for (int level = 0; level < levelCount; level++) {
+                if (levelSizes[level] >= capacities[level]) {
+                    compact(level);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void compact(int level) {
+        if (level + 1 == levelCount) {
+            addLevel();
+        }
+        double[] values = levels[level];
+        int size = levelSizes[level];
+        Arrays.sort(values, 0, size);
+        int start = size % 2;
+        int offset = promoteOdd ? 1 : 0;
+        promoteOdd = !promoteOdd;
+        for (int i = start + offset; i < size; i += 2) {
+            append(level + 1, values[i]);
+        }
+        levelSizes[level] = start;
+        retained -= size - start;
+    }
+
+    /**
+     * Returns the number of values added to this sketch
+     *
+     * @return number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the approximate quantile.
+     * Returns <tt>NaN</tt> if the sketch is empty.
+     *
+     * @param quantile quantile in the range <tt>[0, 1]</tt>
+     * @return approximate quantile
+     */
+    public double getQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("quantile must be in the range [0, 1]");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (quantile == 0) {
+            return min;
+        }
+        if (quantile == 1) {
+            return max;
+        }
+        // sort each level and merge the sorted levels by value
+        double[][] sorted = new double[levelCount][];
+        int[] positions = new int[levelCount];
+        long totalWeight = 0;
+        for (int level = 0; level < levelCount; level++) {
+            sorted[level] = Arrays.copyOf(levels[level], levelSizes[level]);
+            Arrays.sort(sorted[level]);
+            totalWeight += (long) levelSizes[level] << level;
+        }
+        double target = quantile * totalWeight;
+        long cumulative = 0;
+        while (true) {
+            int next = -1;
+            for (int level = 0; level < levelCount; level++) {
+                if (positions[level] < sorted[level].length
+                        && (next == -1 || sorted[level][positions[level]] < sorted[next][positions[next]])) {
+                    next = level;
+                }
+            }
+            if (next == -1) {
+                break;
+            }
+            double value = sorted[next][positions[next]++];
+            cumulative += 1L << next;
+            if (cumulative >= target) {
+                return value;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the approximate median
+     *
+     * @return approximate median
+     */
+    public double median() {
+        return getQuantile(0.5);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.common.math;
+
+import java.util.Arrays;
+
+/**
+ * Selection of the k-th smallest value in primitive arrays in expected linear time.
+ * <p>
+ * Uses quickselect with median-of-three pivots. If the recursion depth exceeds <tt>2 * log2(n)</tt>
+ * the remaining range is sorted (introselect), which bounds the worst case to <tt>O(n log n)</tt>.
+ * The arrays are partially reordered.
+ * </p>
+ */
+public final class QuickSelect {
+    private QuickSelect() {
+    }
+
+    private static int depthLimit(int length) {
+        return 2 * (32 - Integer.numberOfLeadingZeros(Math.max(length, 1)));
+    }
+
+    /**
+     * Returns the k-th smallest value (0-based) of the first <tt>length</tt> values in an array
+     *
+     * @param values values, the array is reordered
+     * @param length number of values
+     * @param k      rank of the selected value
+     * @return k-th smallest value
+     */
+    public static double select(double[] values, int length, int k) {
+        if (k < 0 || k >= length) {
+            throw new IllegalArgumentException(String.format("rank %d out of range [0, %d)", k, length));
+        }
+        int left = 0;
+        int right = length - 1;
+        int depth = depthLimit(length);
+        while (right > left) {
+            if (depth-- == 0) {
+                Arrays.sort(values, left, right + 1);
+                return values[k];
+            }
+            int mid = (left + right) >>> 1;
+            if (Double.compare(values[mid], values[left]) < 0) swap(values, left, mid);
+            if (Double.compare(values[right], values[left]) < 0) swap(values, left, right);
+            if (Double.compare(values[right], values[mid]) < 0) swap(values, mid, right);
+            double pivot = values[mid];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (Double.compare(values[i], pivot) < 0) i++;
+                while (Double.compare(values[j], pivot) > 0) j--;
+                if (i <= j) {
+                    swap(values, i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return values[k];
+            }
+        }
+        return values[k];
+    }
+
+    /**
+     * Returns the k-th smallest value (0-based) of the first <tt>length</tt> values in an array
+     *
+     * @param values values, the array is reordered
+     * @param length number of values
+     * @param k      rank of the selected value
+     * @return k-th smallest value
+     */
+    public static long select(long[] values, int length, int k) {
+        if (k < 0 || k >= length) {
+            throw new IllegalArgumentException(String.format("rank %d out of range [0, %d)", k, length));
+        }
+        int left = 0;
+        int right = length - 1;
+        int depth = depthLimit(length);
+        while (right > left) {
+            if (depth-- == 0) {
+                Arrays.sort(values, left, right + 1);
+                return values[k];
+            }
+            int mid = (left + right) >>> 1;
+            if (values[mid] < values[left]) swap(values, left, mid);
+            if (values[right] < values[left]) swap(values, left, right);
+            if (values[right] < values[mid]) swap(values, mid, right);
+            long pivot = values[mid];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) i++;
+                while (values[j] > pivot) j--;
+                if (i <= j) {
+                    swap(values, i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return values[k];
+            }
+        }
+        return values[k];
+    }
+
+    private static void swap(double[] values, int a, int b) {
+        double temp = values[a];
+        values[a] = values[b];
+        values[b] = temp;
+    }
+
+    private static void swap(long[] values, int a, int b) {
+        long temp = values[a];
+        values[a] = values[b];
+        values[b] = temp;
+    }
+}
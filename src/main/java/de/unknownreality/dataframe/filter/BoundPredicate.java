@@ -0,0 +1,132 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.filter;
+
+/**
+ * A {@link FilterPredicate} bound to the columns of a data frame.
+ * <p>
+ * Columns, types and comparison values are resolved once when the predicate is bound.
+ * Rows are identified by their index, no {@link de.unknownreality.dataframe.DataRow} objects are created.
+ * Bound predicates are only valid as long as the data frame is not modified.
+ * </p>
+ */
+@FunctionalInterface
+public interface BoundPredicate {
+
+    /**
+     * Returns <tt>true</tt> if the row at the specified index is valid for this predicate
+     *
+     * @param row row index
+     * @return <tt>true</tt> if the row is valid
+     */
+    boolean test(int row);
+
+    /**
+     * Removes all rows that are not valid for this predicate from a selection vector.
+     * The valid rows are moved to the start of the selection vector, their order is kept.
+     *
+     * @param rows  selection vector (row indices)
+     * @param count number of rows in the selection vector
+     * @return number of valid rows
+     */
+    default int select(int[] rows, int count) {
+        int selected = 0;
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            if (test(row)) {
+                rows[selected++] = row;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Returns a predicate that is valid for all rows
+     *
+     * @return predicate valid for all rows
+     */
+    static BoundPredicate all() {
+        return new BoundPredicate() {
+            @Override
+            public boolean test(int row) {
+                return true;
+            }
+
+            @Override
+            public int select(int[] rows, int count) {
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Returns a predicate that is valid if all input predicates are valid.
+     * Selection vectors are refined by one predicate after another.
+     *
+     * @param predicates input predicates
+     * @return <tt>AND</tt> predicate
+     */
+    static BoundPredicate and(BoundPredicate... predicates) {
+        return new BoundPredicate() {
+            @Override
+            public boolean test(int row) {
+                for (BoundPredicate predicate : predicates) {
+                    if (!predicate.test(row)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public int select(int[] rows, int count) {
+                for (BoundPredicate predicate : predicates) {
+                    if (count == 0) {
+                        break;
+                    }
+                    count = predicate.select(rows, count);
+                }
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Returns a predicate that is valid if at least one input predicate is valid
+     *
+     * @param predicates input predicates
+     * @return <tt>OR</tt> predicate
+     */
+    static BoundPredicate or(BoundPredicate... predicates) {
+        return row -> {
+            for (BoundPredicate predicate : predicates) {
+                if (predicate.test(row)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+}
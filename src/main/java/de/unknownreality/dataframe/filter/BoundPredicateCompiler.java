@@ -0,0 +1,395 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.filter;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameColumn;
+import de.unknownreality.dataframe.column.NumberColumn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles a {@link FilterPredicate} tree bound to a data frame into a single specialized {@link BoundPredicate}.
+ * <p>
+ * Nested <tt>AND</tt> and <tt>OR</tt> predicates are flattened, double negations are removed and
+ * predicates with two or three children are combined without iterating over an array.
+ * Lower and upper bounds on the same number column within a conjunction (e.g. {@link FilterPredicate#btwn})
+ * are fused into a single range test that reads each value once.
+ * Leaf predicates are bound using {@link FilterPredicate#bind(DataFrame)}, which converts comparison values
+ * to the column type and selects a primitive comparison for each operation.
+ * </p>
+ * <p>
+ * If adaptive ordering is enabled and the data frame has at least {@link #getAdaptiveThreshold()} rows,
+ * the children of conjunctions and disjunctions are evaluated on an evenly spaced sample of rows.
+ * Conjunctions test the children with the lowest cost per rejected row first,
+ * disjunctions the children with the lowest cost per accepted row.
+ * The order of the children does not change the result of the predicate.
+ * </p>
+ */
+public class BoundPredicateCompiler {
+    private static final int SAMPLE_SIZE = 1024;
+
+    private static volatile boolean adaptive = true;
+    private static volatile int adaptiveThreshold = 1 << 14;
+
+    private BoundPredicateCompiler() {
+    }
+
+    /**
+     * Compiles a predicate for the columns of a data frame.
+     * The compiled predicate is only valid as long as the data frame is not modified.
+     *
+     * @param predicate filter predicate
+     * @param dataFrame data frame
+     * @return compiled predicate
+     */
+    public static BoundPredicate compile(FilterPredicate predicate, DataFrame dataFrame) {
+        if (predicate instanceof AndPredicate) {
+            List<FilterPredicate> children = new ArrayList<>();
+            flattenAnd((AndPredicate) predicate, children);
+            return compileAnd(children, dataFrame);
+        }
+        if (predicate instanceof OrPredicate) {
+            List<FilterPredicate> children = new ArrayList<>();
+            flattenOr((OrPredicate) predicate, children);
+            return or(reorder(compileAll(children, dataFrame), dataFrame, false));
+        }
+        if (predicate instanceof NotPredicate) {
+            FilterPredicate child = ((NotPredicate) predicate).getPredicate();
+            if (child instanceof NotPredicate) {
+                return compile(((NotPredicate) child).getPredicate(), dataFrame);
+            }
+            BoundPredicate bound = compile(child, dataFrame);
+            return row -> !bound.test(row);
+        }
+        return predicate.bind(dataFrame);
+    }
+
+    private static void flattenAnd(AndPredicate predicate, List<FilterPredicate> children) {
+        for (FilterPredicate child : predicate.getPredicates()) {
+            if (child instanceof AndPredicate) {
+                flattenAnd((AndPredicate) child, children);
+            } else {
+                children.add(child);
+            }
+        }
+    }
+
+    private static void flattenOr(OrPredicate predicate, List<FilterPredicate> children) {
+        for (FilterPredicate child : predicate.getPredicates()) {
+            if (child instanceof OrPredicate) {
+                flattenOr((OrPredicate) child, children);
+            } else {
+                children.add(child);
+            }
+        }
+    }
+
+    private static List<BoundPredicate> compileAll(List<FilterPredicate> predicates, DataFrame dataFrame) {
+        List<BoundPredicate> compiled = new ArrayList<>(predicates.size());
+        for (FilterPredicate predicate : predicates) {
+            compiled.add(compile(predicate, dataFrame));
+        }
+        return compiled;
+    }
+
+    /**
+     * Compiles the children of a conjunction.
+     * Range bounds on number columns are collected, the first bound of a column determines
+     * the position of the fused range test.
+     */
+    private static BoundPredicate compileAnd(List<FilterPredicate> children, DataFrame dataFrame) {
+        List<Object> parts = new ArrayList<>(children.size());
+        Map<String, NumberRange> ranges = new HashMap<>();
+        for (FilterPredicate child : children) {
+            NumberRange range = null;
+            if (isRangeBound(child)) {
+                ComparePredicate compare = (ComparePredicate) child;
+                DataFrameColumn<?, ?> column = FilterPredicate.getColumn(dataFrame, compare.getHeaderName());
+                Object value = column instanceof NumberColumn ? compare.parseColumnValue(column) : null;
+                if (value instanceof Number) {
+                    range = ranges.get(compare.getHeaderName());
+                    if (range != null && range.add(compare.getOperation(), (Number) value)) {
+                        continue;
+                    }
+                    range = new NumberRange((NumberColumn<?, ?>) column);
+                    range.add(compare.getOperation(), (Number) value);
+                    ranges.put(compare.getHeaderName(), range);
+                    parts.add(range);
+                    continue;
+                }
+            }
+            parts.add(child);
+        }
+        List<BoundPredicate> compiled = new ArrayList<>(parts.size());
+        for (Object part : parts) {
+            compiled.add(part instanceof NumberRange
+                    ? ((NumberRange) part).compile()
+                    : compile((FilterPredicate) part, dataFrame));
+        }
+        return and(reorder(compiled, dataFrame, true));
+    }
+
+    /**
+     * Enables or disables the adaptive ordering of conjunctions and disjunctions.
+     *
+     * @param enabled <tt>true</tt> if children should be ordered by their sampled cost and selectivity
+     */
+    public static void setAdaptive(boolean enabled) {
+        adaptive = enabled;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the adaptive ordering of conjunctions and disjunctions is enabled.
+     *
+     * @return <tt>true</tt> if adaptive ordering is enabled
+     */
+    public static boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Sets the minimum number of rows a data frame must contain before predicates are sampled and reordered.
+     *
+     * @param threshold minimum number of rows
+     */
+    public static void setAdaptiveThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("adaptive threshold must not be negative");
+        }
+        adaptiveThreshold = threshold;
+    }
+
+    /**
+     * Returns the minimum number of rows a data frame must contain before predicates are sampled and reordered.
+     *
+     * @return minimum number of rows
+     */
+    public static int getAdaptiveThreshold() {
+        return adaptiveThreshold;
+    }
+
+    private static List<BoundPredicate> reorder(List<BoundPredicate> predicates, DataFrame dataFrame, boolean conjunction) {
+        int size = dataFrame.size();
+        if (!adaptive || predicates.size() < 2 || size == 0 || size < adaptiveThreshold) {
+            return predicates;
+        }
+        int[] order = order(predicates, sample(size, SAMPLE_SIZE), conjunction);
+        List<BoundPredicate> ordered = new ArrayList<>(order.length);
+        for (int i : order) {
+            ordered.add(predicates.get(i));
+        }
+        return ordered;
+    }
+
+    /**
+     * Returns evenly spaced row indices of a data frame.
+     *
+     * @param size       number of rows
+     * @param sampleSize maximum number of sampled rows
+     * @return sampled row indices
+     */
+    static int[] sample(int size, int sampleSize) {
+        int count = Math.min(size, sampleSize);
+        int[] rows = new int[count];
+        long step = ((long) size << 16) / count;
+        for (int i = 0; i < count; i++) {
+            rows[i] = (int) ((i * step + (step >> 1)) >> 16);
+        }
+        return rows;
+    }
+
+    /**
+     * Orders predicates by their cost on sampled rows.
+     * Each predicate is evaluated once to warm up and count the accepted rows and a second time to measure its cost.
+     * Ties keep the original order.
+     *
+     * @param predicates  bound predicates
+     * @param rows        sampled rows
+     * @param conjunction <tt>true</tt> if the predicates are combined with <tt>AND</tt>
+     * @return indices of the predicates in evaluation order
+     */
+    static int[] order(List<? extends BoundPredicate> predicates, int[] rows, boolean conjunction) {
+        int n = predicates.size();
+        double[] rank = new double[n];
+        for (int i = 0; i < n; i++) {
+            BoundPredicate predicate = predicates.get(i);
+            int accepted = 0;
+            for (int row : rows) {
+                if (predicate.test(row)) {
+                    accepted++;
+                }
+            }
+            long start = System.nanoTime();
+            for (int row : rows) {
+                predicate.test(row);
+            }
+            double cost = (System.nanoTime() - start + 1.0) / rows.length;
+            int decided = conjunction ? rows.length - accepted : accepted;
+            rank[i] = cost * (rows.length + 2) / (decided + 1);
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> rank[i]));
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    private static boolean isRangeBound(FilterPredicate predicate) {
+        if (predicate.getClass() != ComparePredicate.class) {
+            return false;
+        }
+        ComparePredicate.Operation operation = ((ComparePredicate) predicate).getOperation();
+        return operation == ComparePredicate.Operation.GT || operation == ComparePredicate.Operation.GE
+                || operation == ComparePredicate.Operation.LT || operation == ComparePredicate.Operation.LE;
+    }
+
+    private static BoundPredicate and(List<BoundPredicate> predicates) {
+        switch (predicates.size()) {
+            case 0:
+                return BoundPredicate.all();
+            case 1:
+                return predicates.get(0);
+            case 2:
+                return and(predicates.get(0), predicates.get(1));
+            default:
+                return BoundPredicate.and(predicates.toArray(new BoundPredicate[0]));
+        }
+    }
+
+    private static BoundPredicate and(BoundPredicate p1, BoundPredicate p2) {
+        return new BoundPredicate() {
+            @Override
+            public boolean test(int row) {
+                return p1.test(row) && p2.test(row);
+            }
+
+            @Override
+            public int select(int[] rows, int count) {
+                count = p1.select(rows, count);
+                return count == 0 ? 0 : p2.select(rows, count);
+            }
+        };
+    }
+
+    private static BoundPredicate or(List<BoundPredicate> predicates) {
+        switch (predicates.size()) {
+            case 1:
+                return predicates.get(0);
+            case 2: {
+                BoundPredicate p1 = predicates.get(0);
+                BoundPredicate p2 = predicates.get(1);
+                return row -> p1.test(row) || p2.test(row);
+            }
+            case 3: {
+                BoundPredicate p1 = predicates.get(0);
+                BoundPredicate p2 = predicates.get(1);
+                BoundPredicate p3 = predicates.get(2);
+                return row -> p1.test(row) || p2.test(row) || p3.test(row);
+            }
+            default:
+                return BoundPredicate.or(predicates.toArray(new BoundPredicate[0]));
+        }
+    }
+
+    /**
+     * Lower and upper bound on a number column.
+     * Bounds are compared using {@link Double#compare(double, double)} or {@link Long#compare(long, long)},
+     * a bound is valid if the comparison result is at least <tt>lowerMin</tt> or at most <tt>upperMax</tt>.
+     */
+    private static class NumberRange {
+        private final NumberColumn<?, ?> column;
+        private ComparePredicate.Operation lowerOperation;
+        private Number lower;
+        private ComparePredicate.Operation upperOperation;
+        private Number upper;
+
+        NumberRange(NumberColumn<?, ?> column) {
+            this.column = column;
+        }
+
+        boolean add(ComparePredicate.Operation operation, Number value) {
+            boolean lowerBound = operation == ComparePredicate.Operation.GT || operation == ComparePredicate.Operation.GE;
+            if (lowerBound && lower == null) {
+                lowerOperation = operation;
+                lower = value;
+                return true;
+            }
+            if (!lowerBound && upper == null) {
+                upperOperation = operation;
+                upper = value;
+                return true;
+            }
+            return false;
+        }
+
+        BoundPredicate compile() {
+            boolean floatingPoint = column.isFloatingPoint();
+            if (upper == null) {
+                return floatingPoint
+                        ? ComparePredicate.bindDouble(column, lowerOperation, lower.doubleValue())
+                        : ComparePredicate.bindLong(column, lowerOperation, lower.longValue());
+            }
+            if (lower == null) {
+                return floatingPoint
+                        ? ComparePredicate.bindDouble(column, upperOperation, upper.doubleValue())
+                        : ComparePredicate.bindLong(column, upperOperation, upper.longValue());
+            }
+            int lowerMin = lowerOperation == ComparePredicate.Operation.GT ? 1 : 0;
+            int upperMax = upperOperation == ComparePredicate.Operation.LT ? -1 : 0;
+            NumberColumn<?, ?> column = this.column;
+            if (floatingPoint) {
+                double low = lower.doubleValue();
+                double high = upper.doubleValue();
+                return row -> {
+                    if (column.isNA(row)) {
+                        return false;
+                    }
+                    double value = column.getDouble(row);
+                    return Double.compare(value, low) >= lowerMin && Double.compare(value, high) <= upperMax;
+                };
+            }
+            long low = lower.longValue();
+            long high = upper.longValue();
+            return row -> {
+                if (column.isNA(row)) {
+                    return false;
+                }
+                long value = column.getLong(row);
+                return Long.compare(value, low) >= lowerMin && Long.compare(value, high) <= upperMax;
+            };
+        }
+    }
+}
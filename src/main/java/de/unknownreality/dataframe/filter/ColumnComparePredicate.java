@@ -24,6 +24,9 @@
 
 package de.unknownreality.dataframe.filter;
 
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameColumn;
+import de.unknownreality.dataframe.column.NumberColumn;
 import de.unknownreality.dataframe.common.NumberUtil;
 import de.unknownreality.dataframe.common.Row;
 import de.unknownreality.dataframe.type.ValueType;
@@ -74,6 +77,54 @@ public class ColumnComparePredicate extends ComparePredicate {
         return super.compare(type, row.get(getHeaderName()), convertedB);
     }
 
+    /**
+     * Binds this predicate to two columns of a data frame.
+     * Number columns of the same type are compared without boxing.
+     *
+     * @param dataFrame data frame
+     * @return predicate bound to the data frame
+     */
+    @Override
+    public BoundPredicate bind(DataFrame dataFrame) {
+        DataFrameColumn<?, ?> columnA = getColumn(dataFrame, getHeaderName());
+        DataFrameColumn<?, ?> columnB = getColumn(dataFrame, headerB);
+        ValueType<?> type = columnA.getValueType();
+        ValueType<?> typeB = columnB.getValueType();
+        Operation operation = getOperation();
+        boolean bothNAResult = isValid(operation, 0);
+        boolean naResult = operation == Operation.NE;
+        if (columnA instanceof NumberColumn && columnB instanceof NumberColumn && type.getType() == typeB.getType()) {
+            NumberColumn<?, ?> numberA = (NumberColumn<?, ?>) columnA;
+            NumberColumn<?, ?> numberB = (NumberColumn<?, ?>) columnB;
+            boolean floatingPoint = numberA.isFloatingPoint();
+            return row -> {
+                boolean naA = numberA.isNA(row);
+                boolean naB = numberB.isNA(row);
+                if (naA || naB) {
+                    return naA && naB ? bothNAResult : naResult;
+                }
+                int c = floatingPoint
+                        ? Double.compare(numberA.getDouble(row), numberB.getDouble(row))
+                        : Long.compare(numberA.getLong(row), numberB.getLong(row));
+                return isValid(operation, c);
+            };
+        }
+        boolean sameType = type.getType().isAssignableFrom(typeB.getType());
+        return row -> {
+            Object valueB = columnB.get(row);
+            if (!sameType) {
+                try {
+                    valueB = convertValue(type, valueB);
+                } catch (ParseException e) {
+                    throw new DataFrameFilterRuntimeException(
+                            String.format("error converting filter value '%s' to '%s' in column '%s'",
+                                    valueB, type.getType().getCanonicalName(), headerB));
+                }
+            }
+            return compare(type, columnA.get(row), valueB);
+        };
+    }
+
     @SuppressWarnings("unchecked")
     protected <T> T convertValue(ValueType<T> type, Object value) throws ParseException {
         if (value == null) {
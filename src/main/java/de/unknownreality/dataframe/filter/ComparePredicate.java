@@ -24,13 +24,20 @@
 
 package de.unknownreality.dataframe.filter;
 
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameColumn;
 import de.unknownreality.dataframe.DataFrameRuntimeException;
+import de.unknownreality.dataframe.DataRow;
 import de.unknownreality.dataframe.Values;
+import de.unknownreality.dataframe.column.DictionaryStringColumn;
+import de.unknownreality.dataframe.column.NumberColumn;
+import de.unknownreality.dataframe.column.Utf8StringColumn;
 import de.unknownreality.dataframe.common.NumberUtil;
 import de.unknownreality.dataframe.common.Row;
 import de.unknownreality.dataframe.type.ValueType;
 
 import java.text.ParseException;
+import java.util.Comparator;
 
 /**
  * Created by Alex on 09.03.2016.
@@ -90,7 +97,7 @@ public class ComparePredicate extends FilterPredicate {
 
     private final String headerName;
     private final Object value;
-    private Object parsedValue;
+    private volatile Object parsedValue;
     private final Operation operation;
 
     /**
@@ -127,6 +134,18 @@ public class ComparePredicate extends FilterPredicate {
      */
     @Override
     public boolean valid(Row<?, String> row) {
+        if ((operation == Operation.EQ || operation == Operation.NE)
+                && row instanceof DataRow && !Values.NA.isNA(value)) {
+            DataRow dataRow = (DataRow) row;
+            DataFrameColumn<?, ?> column = dataRow.getDataFrame().getColumn(headerName);
+            if (column instanceof DictionaryStringColumn && dataRow.isVersionValid()) {
+                return compareCode((DictionaryStringColumn) column, dataRow.getIndex());
+            }
+            if (column instanceof Utf8StringColumn && dataRow.isVersionValid()) {
+                boolean equal = ((Utf8StringColumn) column).valueEquals(dataRow.getIndex(), String.valueOf(value));
+                return operation == Operation.EQ ? equal : !equal;
+            }
+        }
         ValueType<?> type = row.getType(headerName);
         Object v;
         try {
@@ -141,6 +160,15 @@ public class ComparePredicate extends FilterPredicate {
     }
 
 
+    /**
+     * Converts the comparison value to the type of a column.
+     * The last converted value is cached, concurrent calls may convert the value more than once.
+     *
+     * @param type column type
+     * @param <T>  type of the converted value
+     * @return converted value
+     * @throws ParseException if the value can not be converted
+     */
     @SuppressWarnings("unchecked")
     protected <T> T convertValue(ValueType<T> type) throws ParseException {
         if (value == null) {
@@ -149,22 +177,183 @@ public class ComparePredicate extends FilterPredicate {
         if (type.getType().isAssignableFrom(value.getClass())) {
             return (T) value;
         }
-        if (this.parsedValue != null && type.getType().isAssignableFrom(parsedValue.getClass())) {
-            return (T) parsedValue;
+        Object cached = parsedValue;
+        if (cached != null && type.getType().isAssignableFrom(cached.getClass())) {
+            return (T) cached;
+        }
+        cached = parseValue(type);
+        parsedValue = cached;
+        return (T) cached;
+    }
+
+    /**
+     * Converts the comparison value to the type of a column
+     *
+     * @param type column type
+     * @param <T>  type of the converted value
+     * @return converted value
+     * @throws ParseException if the value can not be converted
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T parseValue(ValueType<T> type) throws ParseException {
+        if (value == null) {
+            return null;
+        }
+        if (type.getType().isAssignableFrom(value.getClass())) {
+            return (T) value;
         }
         if (Number.class.isAssignableFrom(type.getType())) {
             Class<? extends Number> cl = (Class<? extends Number>) type.getType();
             if (Number.class.isAssignableFrom(value.getClass())) {
-                parsedValue = NumberUtil.convert((Number) value, cl);
-                return (T) parsedValue;
+                return (T) NumberUtil.convert((Number) value, cl);
             }
         }
         if (Values.NA.isNA(value)) {
-            parsedValue = null;
             return null;
         }
-        parsedValue = type.parse(String.valueOf(value));
-        return (T) parsedValue;
+        return type.parse(String.valueOf(value));
+    }
+
+    /**
+     * Binds this predicate to a column of a data frame.
+     * The comparison value is converted once. Number columns are compared without boxing,
+     * dictionary encoded and UTF-8 columns are compared without decoding the values for <tt>==</tt> and <tt>!=</tt>.
+     *
+     * @param dataFrame data frame
+     * @return predicate bound to the data frame
+     */
+    @Override
+    public BoundPredicate bind(DataFrame dataFrame) {
+        DataFrameColumn<?, ?> column = getColumn(dataFrame, headerName);
+        ValueType<?> type = column.getValueType();
+        Object predicateValue = parseColumnValue(column);
+        boolean naResult = operation == Operation.NE;
+        if (Values.NA.isNA(predicateValue)) {
+            boolean bothNAResult = isValid(operation, 0);
+            return row -> Values.NA.isNA(column.get(row)) ? bothNAResult : naResult;
+        }
+        boolean equality = operation == Operation.EQ || operation == Operation.NE;
+        if (equality && !Values.NA.isNA(value) && column instanceof DictionaryStringColumn) {
+            DictionaryStringColumn dictionaryColumn = (DictionaryStringColumn) column;
+            int code = dictionaryColumn.getCode(String.valueOf(value));
+            boolean eq = operation == Operation.EQ;
+            return row -> (code != DictionaryStringColumn.NA_CODE && dictionaryColumn.getCode(row) == code) == eq;
+        }
+        if (equality && !Values.NA.isNA(value) && column instanceof Utf8StringColumn) {
+            Utf8StringColumn utf8Column = (Utf8StringColumn) column;
+            String stringValue = String.valueOf(value);
+            boolean eq = operation == Operation.EQ;
+            return row -> utf8Column.valueEquals(row, stringValue) == eq;
+        }
+        if (column instanceof NumberColumn && predicateValue instanceof Number) {
+            NumberColumn<?, ?> numberColumn = (NumberColumn<?, ?>) column;
+            if (numberColumn.isFloatingPoint()) {
+                return bindDouble(numberColumn, operation, ((Number) predicateValue).doubleValue());
+            }
+            return bindLong(numberColumn, operation, ((Number) predicateValue).longValue());
+        }
+        @SuppressWarnings("unchecked")
+        Comparator<Object> comparator = ((ValueType<Object>) type).getComparator();
+        return row -> {
+            Object rowValue = column.get(row);
+            if (Values.NA.isNA(rowValue)) {
+                return naResult;
+            }
+            if (operation == Operation.EQ && rowValue.equals(predicateValue)) {
+                return true;
+            }
+            return isValid(operation, comparator.compare(rowValue, predicateValue));
+        };
+    }
+
+    /**
+     * Converts the comparison value to the type of a column of a bound predicate
+     *
+     * @param column column
+     * @return converted value
+     * @throws DataFrameFilterRuntimeException if the value can not be converted
+     */
+    protected Object parseColumnValue(DataFrameColumn<?, ?> column) {
+        ValueType<?> type = column.getValueType();
+        try {
+            return parseValue(type);
+        } catch (ParseException e) {
+            throw new DataFrameFilterRuntimeException(
+                    String.format("error converting filter value '%s' to '%s' in column '%s'",
+                            value, type.getType().getCanonicalName(), headerName));
+        }
+    }
+
+    /**
+     * Returns a bound predicate that compares the <tt>long</tt> values of a number column with a constant.
+     * A separate predicate is created for each operation, rows are not tested against the operation.
+     * NA values are only valid for {@link Operation#NE}.
+     *
+     * @param column    number column
+     * @param operation compare operation
+     * @param value     value for comparison
+     * @return bound predicate
+     */
+    static BoundPredicate bindLong(NumberColumn<?, ?> column, Operation operation, long value) {
+        switch (operation) {
+            case GT:
+                return row -> !column.isNA(row) && column.getLong(row) > value;
+            case GE:
+                return row -> !column.isNA(row) && column.getLong(row) >= value;
+            case LT:
+                return row -> !column.isNA(row) && column.getLong(row) < value;
+            case LE:
+                return row -> !column.isNA(row) && column.getLong(row) <= value;
+            case EQ:
+                return row -> !column.isNA(row) && column.getLong(row) == value;
+            case NE:
+                return row -> column.isNA(row) || column.getLong(row) != value;
+            default:
+                throw new DataFrameRuntimeException(String.format("unknown operation: %s", operation.str));
+        }
+    }
+
+    /**
+     * Returns a bound predicate that compares the <tt>double</tt> values of a number column with a constant.
+     * Values are compared using {@link Double#compare(double, double)}.
+     * NA values are only valid for {@link Operation#NE}.
+     *
+     * @param column    number column
+     * @param operation compare operation
+     * @param value     value for comparison
+     * @return bound predicate
+     */
+    static BoundPredicate bindDouble(NumberColumn<?, ?> column, Operation operation, double value) {
+        switch (operation) {
+            case GT:
+                return row -> !column.isNA(row) && Double.compare(column.getDouble(row), value) > 0;
+            case GE:
+                return row -> !column.isNA(row) && Double.compare(column.getDouble(row), value) >= 0;
+            case LT:
+                return row -> !column.isNA(row) && Double.compare(column.getDouble(row), value) < 0;
+            case LE:
+                return row -> !column.isNA(row) && Double.compare(column.getDouble(row), value) <= 0;
+            case EQ:
+                return row -> !column.isNA(row) && Double.compare(column.getDouble(row), value) == 0;
+            case NE:
+                return row -> column.isNA(row) || Double.compare(column.getDouble(row), value) != 0;
+            default:
+                throw new DataFrameRuntimeException(String.format("unknown operation: %s", operation.str));
+        }
+    }
+
+    /**
+     * Compares the dictionary code of a row value with the code of the predicate value.
+     * The string values are not compared.
+     *
+     * @param column   dictionary encoded column
+     * @param rowIndex index of the row
+     * @return <tt>true</tt> if the row is valid
+     */
+    protected boolean compareCode(DictionaryStringColumn column, int rowIndex) {
+        int code = column.getCode(String.valueOf(value));
+        boolean equal = code != DictionaryStringColumn.NA_CODE && column.getCode(rowIndex) == code;
+        return operation == Operation.EQ ? equal : !equal;
     }
 
     protected <T> boolean compare(ValueType<?> type, Object rowValue, Object predicateValue) {
@@ -204,6 +393,11 @@ public class ComparePredicate extends FilterPredicate {
         }
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return headerName + " " + operation + " " + value;
@@ -24,6 +24,8 @@
 
 package de.unknownreality.dataframe.filter;
 
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameColumn;
 import de.unknownreality.dataframe.common.Row;
 import de.unknownreality.dataframe.filter.compile.PredicateCompiler;
 
@@ -48,6 +50,60 @@ public abstract class FilterPredicate {
      */
     public abstract boolean valid(Row<?, String> row);
 
+    /**
+     * Binds this predicate to the columns of a data frame.
+     * The default implementation tests the {@link de.unknownreality.dataframe.DataRow rows} of the data frame
+     * using {@link #valid(Row)}, predicates should override this method to access the columns directly.
+     *
+     * @param dataFrame data frame
+     * @return predicate bound to the data frame
+     */
+    public BoundPredicate bind(DataFrame dataFrame) {
+        return row -> valid(dataFrame.getRow(row));
+    }
+
+    /**
+     * Returns <tt>true</tt> if the {@link #bind(DataFrame) bound predicate} can be evaluated by multiple threads.
+     * Only thread-safe predicates are evaluated in parallel by the {@link PredicateEvaluator}.
+     * The default implementation returns <tt>false</tt>, because {@link #valid(Row)} is not required to be thread-safe.
+     *
+     * @return <tt>true</tt> if this predicate is thread-safe
+     */
+    public boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * Returns a column of a data frame used by a bound predicate
+     *
+     * @param dataFrame data frame
+     * @param name      column name
+     * @return column
+     * @throws DataFrameFilterRuntimeException if the column is not found
+     */
+    protected static DataFrameColumn<?, ?> getColumn(DataFrame dataFrame, String name) {
+        DataFrameColumn<?, ?> column = dataFrame.getColumn(name);
+        if (column == null) {
+            throw new DataFrameFilterRuntimeException(String.format("filter column not found: '%s'", name));
+        }
+        return column;
+    }
+
+    /**
+     * Binds all predicates to the columns of a data frame
+     *
+     * @param dataFrame  data frame
+     * @param predicates predicates
+     * @return bound predicates
+     */
+    protected static BoundPredicate[] bindAll(DataFrame dataFrame, FilterPredicate... predicates) {
+        BoundPredicate[] bound = new BoundPredicate[predicates.length];
+        for (int i = 0; i < predicates.length; i++) {
+            bound[i] = predicates[i].bind(dataFrame);
+        }
+        return bound;
+    }
+
     /**
      * Returns a string representation for this predicate
      *
@@ -67,6 +123,16 @@ public abstract class FilterPredicate {
                 return true;
             }
 
+            @Override
+            public BoundPredicate bind(DataFrame dataFrame) {
+                return BoundPredicate.all();
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return true;
+            }
+
             @Override
             public String toString() {
                 return "";
@@ -138,17 +204,7 @@ public abstract class FilterPredicate {
      * @return Returns the negates result of the input predicate
      */
     public static FilterPredicate not(final FilterPredicate filterPredicate) {
-        return new FilterPredicate() {
-            @Override
-            public boolean valid(Row<?, String> row) {
-                return !filterPredicate.valid(row);
-            }
-
-            @Override
-            public String toString() {
-                return "!(" + filterPredicate.toString() + ")";
-            }
-        };
+        return new NotPredicate(filterPredicate);
     }
 
 
@@ -167,6 +223,18 @@ public abstract class FilterPredicate {
                 return p1.valid(row) != p2.valid(row);
             }
 
+            @Override
+            public BoundPredicate bind(DataFrame dataFrame) {
+                BoundPredicate b1 = p1.bind(dataFrame);
+                BoundPredicate b2 = p2.bind(dataFrame);
+                return row -> b1.test(row) != b2.test(row);
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return p1.isThreadSafe() && p2.isThreadSafe();
+            }
+
             @Override
             public String toString() {
                 return "(" + p1.toString() + ") != (" + p2.toString() + ")";
@@ -189,6 +257,18 @@ public abstract class FilterPredicate {
                 return p1.valid(row) == p2.valid(row);
             }
 
+            @Override
+            public BoundPredicate bind(DataFrame dataFrame) {
+                BoundPredicate b1 = p1.bind(dataFrame);
+                BoundPredicate b2 = p2.bind(dataFrame);
+                return row -> b1.test(row) == b2.test(row);
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return p1.isThreadSafe() && p2.isThreadSafe();
+            }
+
             @Override
             public String toString() {
                 return "(" + p1.toString() + ") == (" + p2.toString() + ")";
@@ -205,29 +285,7 @@ public abstract class FilterPredicate {
      * @return <tt>true</tt> if all input predicates return  <tt>true</tt>
      */
     public static FilterPredicate and(final FilterPredicate... predicates) {
-        return new FilterPredicate() {
-            @Override
-            public boolean valid(Row<?, String> row) {
-                for (FilterPredicate predicate : predicates) {
-                    if (!predicate.valid(row)) {
-                        return false;
-                    }
-                }
-                return true;
-            }
-
-            @Override
-            public String toString() {
-                StringBuilder sb = new StringBuilder();
-                for (int i = 0; i < predicates.length; i++) {
-                    sb.append("(").append(predicates[i]).append(")");
-                    if (i < predicates.length - 1) {
-                        sb.append(" AND ");
-                    }
-                }
-                return sb.toString();
-            }
-        };
+        return new AndPredicate(predicates);
     }
 
     /**
@@ -238,29 +296,7 @@ public abstract class FilterPredicate {
      * @return <tt>true</tt> if at least one input predicate returns <tt>true</tt>
      */
     public static FilterPredicate or(final FilterPredicate... predicates) {
-        return new FilterPredicate() {
-            @Override
-            public boolean valid(Row<?, String> row) {
-                for (FilterPredicate predicate : predicates) {
-                    if (predicate.valid(row)) {
-                        return true;
-                    }
-                }
-                return false;
-            }
-
-            @Override
-            public String toString() {
-                StringBuilder sb = new StringBuilder();
-                for (int i = 0; i < predicates.length; i++) {
-                    sb.append("(").append(predicates[i]).append(")");
-                    if (i < predicates.length - 1) {
-                        sb.append(" OR ");
-                    }
-                }
-                return sb.toString();
-            }
-        };
+        return new OrPredicate(predicates);
     }
 
 
@@ -273,17 +309,7 @@ public abstract class FilterPredicate {
      * @return <tt>true</tt> if both input predicates return  <tt>true</tt>
      */
     public static FilterPredicate and(final FilterPredicate p1, final FilterPredicate p2) {
-        return new FilterPredicate() {
-            @Override
-            public boolean valid(Row<?, String> row) {
-                return p1.valid(row) && p2.valid(row);
-            }
-
-            @Override
-            public String toString() {
-                return "(" + p1.toString() + ") AND (" + p2.toString() + ")";
-            }
-        };
+        return new AndPredicate(p1, p2);
     }
 
     /**
@@ -295,17 +321,7 @@ public abstract class FilterPredicate {
      * @return <tt>true</tt> if at least one input predicate returns <tt>true</tt>
      */
     public static FilterPredicate or(final FilterPredicate p1, final FilterPredicate p2) {
-        return new FilterPredicate() {
-            @Override
-            public boolean valid(Row<?, String> row) {
-                return p1.valid(row) || p2.valid(row);
-            }
-
-            @Override
-            public String toString() {
-                return "(" + p1.toString() + ") OR (" + p2.toString() + ")";
-            }
-        };
+        return new OrPredicate(p1, p2);
     }
 
     /**
@@ -325,6 +341,18 @@ public abstract class FilterPredicate {
                 return (p1v && !p2v) || (p2v && !p1v);
             }
 
+            @Override
+            public BoundPredicate bind(DataFrame dataFrame) {
+                BoundPredicate b1 = p1.bind(dataFrame);
+                BoundPredicate b2 = p2.bind(dataFrame);
+                return row -> b1.test(row) != b2.test(row);
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return p1.isThreadSafe() && p2.isThreadSafe();
+            }
+
             @Override
             public String toString() {
                 return "(" + p1.toString() + ") XOR (" + p2.toString() + ")";
@@ -349,6 +377,18 @@ public abstract class FilterPredicate {
                 return !p1v && !p2v;
             }
 
+            @Override
+            public BoundPredicate bind(DataFrame dataFrame) {
+                BoundPredicate b1 = p1.bind(dataFrame);
+                BoundPredicate b2 = p2.bind(dataFrame);
+                return row -> !b1.test(row) && !b2.test(row);
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return p1.isThreadSafe() && p2.isThreadSafe();
+            }
+
             @Override
             public String toString() {
                 return "(" + p1.toString() + ") NOR (" + p2.toString() + ")";
@@ -538,17 +578,7 @@ public abstract class FilterPredicate {
      * @return <tt>'in'</tt> predicate.
      */
     public static FilterPredicate in(final String name, final Set<Object> values) {
-        return new FilterPredicate() {
-            @Override
-            public boolean valid(Row<?, String> row) {
-                return values.contains(row.get(name));
-            }
-
-            @Override
-            public String toString() {
-                return name + " in " + values.toString();
-            }
-        };
+        return new InPredicate(name, values);
     }
 
     /**
@@ -609,8 +639,16 @@ public abstract class FilterPredicate {
         return new MatchPredicate(name, patternString);
     }
 
+    /**
+     * Compiles a predicate string.
+     * Compiled predicates are cached, see {@link PredicateCompiler#getCache()}.
+     *
+     * @param predicateString predicate string
+     * @return compiled predicate
+     * @throws de.unknownreality.dataframe.filter.compile.PredicateCompilerException if the predicate string can not be compiled
+     */
     public static FilterPredicate compile(String predicateString){
-        return PredicateCompiler.compile(predicateString);
+        return PredicateCompiler.getCache().get(predicateString);
     }
 
 }
@@ -0,0 +1,133 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.filter;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameColumn;
+import de.unknownreality.dataframe.Values;
+import de.unknownreality.dataframe.column.DictionaryStringColumn;
+import de.unknownreality.dataframe.column.NumberColumn;
+import de.unknownreality.dataframe.common.Row;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Predicate that checks whether the row column value is contained in a set of comparison values.
+ * <p><code>comparison_values.contains(row.getValue(name))</code></p>
+ */
+public class InPredicate extends FilterPredicate {
+    private final String headerName;
+    private final Set<Object> values;
+
+    /**
+     * Creates an <tt>in</tt> predicate for a row column name and a set of comparison values
+     *
+     * @param headerName row column name
+     * @param values     values for comparison
+     */
+    public InPredicate(String headerName, Set<Object> values) {
+        this.headerName = headerName;
+        this.values = values;
+    }
+
+    public String getHeaderName() {
+        return headerName;
+    }
+
+    public Set<Object> getValues() {
+        return Collections.unmodifiableSet(values);
+    }
+
+    @Override
+    public boolean valid(Row<?, String> row) {
+        return values.contains(row.get(headerName));
+    }
+
+    /**
+     * Binds this predicate to a column of a data frame.
+     * Dictionary encoded columns are tested by their codes.
+     * If all comparison values have the type of a number column, the values are tested using a sorted primitive array.
+     *
+     * @param dataFrame data frame
+     * @return predicate bound to the data frame
+     */
+    @Override
+    public BoundPredicate bind(DataFrame dataFrame) {
+        DataFrameColumn<?, ?> column = getColumn(dataFrame, headerName);
+        boolean naResult = values.contains(Values.NA);
+        if (column instanceof DictionaryStringColumn) {
+            DictionaryStringColumn dictionaryColumn = (DictionaryStringColumn) column;
+            boolean[] validCodes = new boolean[dictionaryColumn.getDictionarySize()];
+            for (int code = 0; code < validCodes.length; code++) {
+                validCodes[code] = values.contains(dictionaryColumn.getDictionaryValue(code));
+            }
+            return row -> {
+                int code = dictionaryColumn.getCode(row);
+                return code == DictionaryStringColumn.NA_CODE ? naResult : validCodes[code];
+            };
+        }
+        if (column instanceof NumberColumn && hasOnlyType(column.getValueType().getType())) {
+            NumberColumn<?, ?> numberColumn = (NumberColumn<?, ?>) column;
+            if (numberColumn.isFloatingPoint()) {
+                double[] sorted = values.stream()
+                        .filter(v -> v instanceof Number)
+                        .mapToDouble(v -> ((Number) v).doubleValue())
+                        .sorted().toArray();
+                return row -> numberColumn.isNA(row)
+                        ? naResult
+                        : Arrays.binarySearch(sorted, numberColumn.getDouble(row)) >= 0;
+            }
+            long[] sorted = values.stream()
+                    .filter(v -> v instanceof Number)
+                    .mapToLong(v -> ((Number) v).longValue())
+                    .sorted().toArray();
+            return row -> numberColumn.isNA(row)
+                    ? naResult
+                    : Arrays.binarySearch(sorted, numberColumn.getLong(row)) >= 0;
+        }
+        return row -> values.contains(column.isNA(row) ? Values.NA : column.get(row));
+    }
+
+    private boolean hasOnlyType(Class<?> type) {
+        for (Object value : values) {
+            if (value != Values.NA && (value == null || value.getClass() != type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return headerName + " in " + values.toString();
+    }
+}
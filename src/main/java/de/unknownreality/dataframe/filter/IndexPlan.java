@@ -0,0 +1,439 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.filter;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameColumn;
+import de.unknownreality.dataframe.Values;
+import de.unknownreality.dataframe.index.Index;
+import de.unknownreality.dataframe.index.Indices;
+import de.unknownreality.dataframe.index.RangeIndex;
+import de.unknownreality.dataframe.index.interval.IntervalIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plan for evaluating a {@link FilterPredicate} using the {@link Indices} of a data frame.
+ * <p>
+ * The conjuncts of the predicate are matched against the available indices:
+ * </p>
+ * <ul>
+ * <li><tt>==</tt> and <tt>in</tt> predicates covering all columns of a {@link Index#isKeyIndex() key index}
+ * are answered by index lookups and removed from the residual predicate</li>
+ * <li><tt>&gt;</tt>, <tt>&gt;=</tt>, <tt>&lt;</tt>, <tt>&lt;=</tt> and <tt>==</tt> predicates on the first
+ * column of a {@link RangeIndex} are answered by a range lookup</li>
+ * <li><tt>start &lt;= x AND end &gt;= x</tt> on the columns of an {@link IntervalIndex} is answered by a stab query</li>
+ * </ul>
+ * <p>
+ * The candidate rows of all used indices are intersected. <tt>OR</tt> predicates use the union of
+ * the candidate rows of their children if every child can be answered by an index.
+ * The residual predicate is only evaluated for the candidate rows.
+ * If no index matches, the predicate is evaluated for all rows.
+ * </p>
+ */
+public class IndexPlan {
+    private static final int MAX_KEY_LOOKUPS = 1024;
+
+    private final int[] candidates;
+    private final FilterPredicate residual;
+    private final List<String> indexNames;
+
+    private IndexPlan(int[] candidates, FilterPredicate residual, List<String> indexNames) {
+        this.candidates = candidates;
+        this.residual = residual;
+        this.indexNames = indexNames;
+    }
+
+    /**
+     * Creates a plan for a predicate using the indices of a data frame
+     *
+     * @param dataFrame data frame
+     * @param indices   indices of the data frame, may be <tt>null</tt>
+     * @param predicate filter predicate
+     * @return plan for the predicate
+     */
+    public static IndexPlan create(DataFrame dataFrame, Indices indices, FilterPredicate predicate) {
+        if (indices == null || indices.indicesCount() == 0) {
+            return fullScan(predicate);
+        }
+        if (predicate instanceof OrPredicate) {
+            return createOr(dataFrame, indices, (OrPredicate) predicate);
+        }
+        List<FilterPredicate> conjuncts = new ArrayList<>();
+        if (predicate instanceof AndPredicate) {
+            flattenAnd((AndPredicate) predicate, conjuncts);
+        } else {
+            conjuncts.add(predicate);
+        }
+        boolean[] answered = new boolean[conjuncts.size()];
+        int[] candidates = null;
+        List<String> indexNames = new ArrayList<>();
+        for (Index index : indices.getIndices()) {
+            int[] rows = null;
+            if (index.isKeyIndex()) {
+                rows = findKeys(dataFrame, index, conjuncts, answered);
+            }
+            if (rows == null && index instanceof RangeIndex) {
+                rows = findRange(dataFrame, (RangeIndex) index, conjuncts);
+            }
+            if (rows == null && index instanceof IntervalIndex) {
+                rows = findStab(dataFrame, (IntervalIndex) index, conjuncts);
+            }
+            if (rows != null) {
+                candidates = candidates == null ? rows : intersect(candidates, rows);
+                indexNames.add(index.getName());
+            }
+        }
+        if (candidates == null) {
+            return fullScan(predicate);
+        }
+        List<FilterPredicate> residual = new ArrayList<>();
+        for (int i = 0; i < conjuncts.size(); i++) {
+            if (!answered[i]) {
+                residual.add(conjuncts.get(i));
+            }
+        }
+        return new IndexPlan(candidates, toPredicate(residual), indexNames);
+    }
+
+    private static IndexPlan createOr(DataFrame dataFrame, Indices indices, OrPredicate predicate) {
+        int[] candidates = new int[0];
+        List<String> indexNames = new ArrayList<>();
+        for (FilterPredicate child : predicate.getPredicates()) {
+            IndexPlan childPlan = create(dataFrame, indices, child);
+            if (childPlan.isFullScan()) {
+                return fullScan(predicate);
+            }
+            candidates = union(candidates, childPlan.candidates);
+            for (String name : childPlan.indexNames) {
+                if (!indexNames.contains(name)) {
+                    indexNames.add(name);
+                }
+            }
+        }
+        return new IndexPlan(candidates, predicate, indexNames);
+    }
+
+    private static IndexPlan fullScan(FilterPredicate predicate) {
+        return new IndexPlan(null, predicate, Collections.emptyList());
+    }
+
+    private static void flattenAnd(AndPredicate predicate, List<FilterPredicate> conjuncts) {
+        for (FilterPredicate child : predicate.getPredicates()) {
+            if (child instanceof AndPredicate) {
+                flattenAnd((AndPredicate) child, conjuncts);
+            } else {
+                conjuncts.add(child);
+            }
+        }
+    }
+
+    private static FilterPredicate toPredicate(List<FilterPredicate> conjuncts) {
+        if (conjuncts.isEmpty()) {
+            return FilterPredicate.EMPTY_FILTER;
+        }
+        if (conjuncts.size() == 1) {
+            return conjuncts.get(0);
+        }
+        return FilterPredicate.and(conjuncts.toArray(new FilterPredicate[0]));
+    }
+
+    /**
+     * Returns the comparison value of a predicate converted to the type of a column,
+     * or <tt>null</tt> if the predicate is not a plain compare predicate on the column
+     */
+    private static Object compareValue(DataFrame dataFrame, FilterPredicate predicate, String columnName,
+                                       ComparePredicate.Operation... operations) {
+        if (predicate.getClass() != ComparePredicate.class) {
+            return null;
+        }
+        ComparePredicate compare = (ComparePredicate) predicate;
+        if (!compare.getHeaderName().equals(columnName) || !Arrays.asList(operations).contains(compare.getOperation())) {
+            return null;
+        }
+        DataFrameColumn<?, ?> column = dataFrame.getColumn(columnName);
+        if (column == null) {
+            return null;
+        }
+        Object value = compare.parseColumnValue(column);
+        if (Values.NA.isNA(value) || value.getClass() != column.getValueType().getType()) {
+            return null;
+        }
+        return value;
+    }
+
+    private static int[] findKeys(DataFrame dataFrame, Index index, List<FilterPredicate> conjuncts, boolean[] answered) {
+        List<DataFrameColumn<?, ?>> columns = index.getColumns();
+        List<Collection<?>> keys = new ArrayList<>(columns.size());
+        int[] used = new int[columns.size()];
+        long lookups = 1;
+        for (int c = 0; c < columns.size(); c++) {
+            String name = columns.get(c).getName();
+            Collection<?> columnKeys = null;
+            for (int i = 0; i < conjuncts.size() && columnKeys == null; i++) {
+                columnKeys = keyValues(dataFrame, conjuncts.get(i), name);
+                used[c] = i;
+            }
+            if (columnKeys == null) {
+                return null;
+            }
+            lookups *= columnKeys.size();
+            if (lookups > MAX_KEY_LOOKUPS) {
+                return null;
+            }
+            keys.add(columnKeys);
+        }
+        List<Integer> rows = new ArrayList<>();
+        findKeys(index, keys, new Object[keys.size()], 0, rows);
+        for (int i : used) {
+            answered[i] = true;
+        }
+        return toSortedRows(rows);
+    }
+
+    /**
+     * Returns the values of a <tt>==</tt> or <tt>in</tt> predicate on a column,
+     * or <tt>null</tt> if the predicate can not be answered by a key lookup
+     */
+    private static Collection<?> keyValues(DataFrame dataFrame, FilterPredicate predicate, String columnName) {
+        Object value = compareValue(dataFrame, predicate, columnName, ComparePredicate.Operation.EQ);
+        if (value != null) {
+            return Collections.singletonList(value);
+        }
+        if (predicate instanceof InPredicate) {
+            InPredicate in = (InPredicate) predicate;
+            DataFrameColumn<?, ?> column = dataFrame.getColumn(columnName);
+            if (column != null && in.getHeaderName().equals(columnName)) {
+                // values of another type are never equal to a column value
+                Class<?> type = column.getValueType().getType();
+                List<Object> values = new ArrayList<>(in.getValues().size());
+                for (Object v : in.getValues()) {
+                    if (v == null || v == Values.NA) {
+                        // NA rows are not looked up using indices
+                        return null;
+                    }
+                    if (v.getClass() == type) {
+                        values.add(v);
+                    }
+                }
+                return values;
+            }
+        }
+        return null;
+    }
+
+    private static void findKeys(Index index, List<Collection<?>> keys, Object[] values, int column, List<Integer> rows) {
+        if (column == values.length) {
+            rows.addAll(index.find(values.clone()));
+            return;
+        }
+        for (Object key : keys.get(column)) {
+            values[column] = key;
+            findKeys(index, keys, values, column + 1, rows);
+        }
+    }
+
+    private static int[] findRange(DataFrame dataFrame, RangeIndex index, List<FilterPredicate> conjuncts) {
+        String name = index.getColumns().get(0).getName();
+        Object low = null;
+        Object high = null;
+        boolean lowInclusive = false;
+        boolean highInclusive = false;
+        for (FilterPredicate conjunct : conjuncts) {
+            Object value = compareValue(dataFrame, conjunct, name,
+                    ComparePredicate.Operation.GT, ComparePredicate.Operation.GE,
+                    ComparePredicate.Operation.LT, ComparePredicate.Operation.LE,
+                    ComparePredicate.Operation.EQ);
+            if (value == null) {
+                continue;
+            }
+            ComparePredicate.Operation operation = ((ComparePredicate) conjunct).getOperation();
+            if (low == null && operation != ComparePredicate.Operation.LT && operation != ComparePredicate.Operation.LE) {
+                low = value;
+                lowInclusive = operation != ComparePredicate.Operation.GT;
+            }
+            if (high == null && operation != ComparePredicate.Operation.GT && operation != ComparePredicate.Operation.GE) {
+                high = value;
+                highInclusive = operation != ComparePredicate.Operation.LT;
+            }
+        }
+        if (low == null && high == null) {
+            return null;
+        }
+        return toSortedRows(index.findRange(low, lowInclusive, high, highInclusive));
+    }
+
+    private static int[] findStab(DataFrame dataFrame, IntervalIndex index, List<FilterPredicate> conjuncts) {
+        List<DataFrameColumn<?, ?>> columns = index.getColumns();
+        String startName = columns.get(0).getName();
+        String endName = columns.get(1).getName();
+        for (FilterPredicate startConjunct : conjuncts) {
+            Object start = compareValue(dataFrame, startConjunct, startName, ComparePredicate.Operation.LE);
+            if (!(start instanceof Number)) {
+                continue;
+            }
+            for (FilterPredicate endConjunct : conjuncts) {
+                Object end = compareValue(dataFrame, endConjunct, endName, ComparePredicate.Operation.GE);
+                if (end instanceof Number && ((Number) start).doubleValue() == ((Number) end).doubleValue()) {
+                    return toSortedRows(index.find(start));
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int[] toSortedRows(Collection<Integer> rows) {
+        int[] result = new int[rows.size()];
+        int i = 0;
+        for (Integer row : rows) {
+            result[i++] = row;
+        }
+        Arrays.sort(result);
+        int count = 0;
+        for (i = 0; i < result.length; i++) {
+            if (count == 0 || result[count - 1] != result[i]) {
+                result[count++] = result[i];
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            int value;
+            if (j == b.length || (i < a.length && a[i] <= b[j])) {
+                value = a[i++];
+            } else {
+                value = b[j++];
+            }
+            if (count == 0 || result[count - 1] != value) {
+                result[count++] = value;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns <tt>true</tt> if no index is used and the predicate is evaluated for all rows
+     *
+     * @return <tt>true</tt> for a full scan
+     */
+    public boolean isFullScan() {
+        return candidates == null;
+    }
+
+    /**
+     * Returns the candidate rows found using the indices in ascending order,
+     * or <tt>null</tt> for a full scan
+     *
+     * @return candidate rows
+     */
+    public int[] getCandidates() {
+        return candidates == null ? null : candidates.clone();
+    }
+
+    /**
+     * Returns the predicate evaluated for the candidate rows
+     *
+     * @return residual predicate
+     */
+    public FilterPredicate getResidual() {
+        return residual;
+    }
+
+    /**
+     * Returns the names of the indices used by this plan
+     *
+     * @return index names
+     */
+    public List<String> getIndexNames() {
+        return Collections.unmodifiableList(indexNames);
+    }
+
+    /**
+     * Returns the indices of all rows of a data frame that are valid for the planned predicate
+     *
+     * @param dataFrame data frame the plan was created for
+     * @return selection vector with the indices of all valid rows
+     */
+    public int[] select(DataFrame dataFrame) {
+        if (candidates == null) {
+            return PredicateEvaluator.select(dataFrame, residual);
+        }
+        return PredicateEvaluator.select(dataFrame, residual, candidates);
+    }
+
+    /**
+     * Returns the index of the first row of a data frame that is valid for the planned predicate
+     *
+     * @param dataFrame data frame the plan was created for
+     * @return index of the first valid row or <tt>-1</tt> if no row is valid
+     */
+    public int selectFirst(DataFrame dataFrame) {
+        if (candidates == null) {
+            return PredicateEvaluator.selectFirst(dataFrame, residual);
+        }
+        BoundPredicate bound = BoundPredicateCompiler.compile(residual, dataFrame);
+        for (int row : candidates) {
+            if (bound.test(row)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        if (candidates == null) {
+            return "scan: " + residual;
+        }
+        return "index " + indexNames + " (" + candidates.length + " rows): " + residual;
+    }
+}
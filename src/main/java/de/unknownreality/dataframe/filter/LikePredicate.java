@@ -24,8 +24,12 @@
 
 package de.unknownreality.dataframe.filter;
 
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameColumn;
 import de.unknownreality.dataframe.Values;
+import de.unknownreality.dataframe.column.DictionaryStringColumn;
 import de.unknownreality.dataframe.common.Row;
+import de.unknownreality.dataframe.type.ValueType;
 
 import java.util.function.BiFunction;
 import java.util.regex.Pattern;
@@ -55,22 +59,23 @@ public class LikePredicate extends FilterPredicate {
     private final String query;
     private final String headerName;
     private final Type type;
-    private BiFunction<String, String, Boolean> compareFunction;
-    private String format;
-    private Pattern containsPattern;
+    private final BiFunction<String, String, Boolean> compareFunction;
+    private final String format;
 
     public LikePredicate(String headerName, String query) {
-        this.type = findQueryType(query);
-        this.query = removeQueryChars(query, type).toLowerCase();
-        this.headerName = headerName;
-        setup();
+        this(headerName, query, findQueryType(query), true);
     }
 
     public LikePredicate(String headerName, String query, Type type) {
+        this(headerName, query, type, false);
+    }
+
+    private LikePredicate(String headerName, String query, Type type, boolean removeQueryChars) {
         this.headerName = headerName;
-        this.query = query.toLowerCase();
         this.type = type;
-        setup();
+        this.query = (removeQueryChars ? removeQueryChars(query, type) : query).toLowerCase();
+        this.compareFunction = createCompareFunction(type, this.query);
+        this.format = getFormat(type);
     }
 
 
@@ -181,24 +186,30 @@ public class LikePredicate extends FilterPredicate {
         return Pattern.compile(sb.toString());
     }
 
-    private void setup() {
-        switch (this.type) {
+    private static BiFunction<String, String, Boolean> createCompareFunction(Type type, String query) {
+        switch (type) {
             case Contains:
-                this.containsPattern = createContainsPattern(query);
-                this.compareFunction = (q, v) -> compareContains(v, containsPattern);
-                this.format = CONTAINS_FORMAT;
-                break;
+                Pattern containsPattern = createContainsPattern(query);
+                return (q, v) -> compareContains(v, containsPattern);
             case EndsWith:
-                this.compareFunction = ENDS_WITH_FN;
-                this.format = ENDS_WITH_FORMAT;
-                break;
+                return ENDS_WITH_FN;
             case StartsWith:
-                this.compareFunction = STARTS_WITH_FN;
-                this.format = STARTS_WITH_FORMAT;
-                break;
+                return STARTS_WITH_FN;
+            default:
+                return EQUALS_FN;
+        }
+    }
+
+    private static String getFormat(Type type) {
+        switch (type) {
+            case Contains:
+                return CONTAINS_FORMAT;
+            case EndsWith:
+                return ENDS_WITH_FORMAT;
+            case StartsWith:
+                return STARTS_WITH_FORMAT;
             default:
-                this.compareFunction = EQUALS_FN;
-                this.format = EQUALS_FORMAT;
+                return EQUALS_FORMAT;
         }
     }
 
@@ -214,6 +225,46 @@ public class LikePredicate extends FilterPredicate {
         return compareFunction.apply(query, value);
     }
 
+    /**
+     * Binds this predicate to a column of a data frame.
+     * If the dictionary of a dictionary encoded column is not larger than the column,
+     * each dictionary value is compared once and rows are tested by their codes.
+     *
+     * @param dataFrame data frame
+     * @return predicate bound to the data frame
+     */
+    @Override
+    public BoundPredicate bind(DataFrame dataFrame) {
+        DataFrameColumn<?, ?> column = getColumn(dataFrame, headerName);
+        ValueType<?> valueType = column.getValueType();
+        if (column instanceof DictionaryStringColumn
+                && ((DictionaryStringColumn) column).getDictionarySize() <= column.size()) {
+            DictionaryStringColumn dictionaryColumn = (DictionaryStringColumn) column;
+            boolean[] validCodes = new boolean[dictionaryColumn.getDictionarySize()];
+            for (int code = 0; code < validCodes.length; code++) {
+                String value = dictionaryColumn.getDictionaryValue(code);
+                validCodes[code] = !Values.NA.isNA(value)
+                        && compareFunction.apply(query, valueType.toStringRaw(value).toLowerCase());
+            }
+            return row -> {
+                int code = dictionaryColumn.getCode(row);
+                return code != DictionaryStringColumn.NA_CODE && validCodes[code];
+            };
+        }
+        return row -> {
+            Object v = column.get(row);
+            if (Values.NA.isNA(v)) {
+                return false;
+            }
+            return compareFunction.apply(query, valueType.toStringRaw(v).toLowerCase());
+        };
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return String.format(format, headerName, query);
@@ -24,7 +24,12 @@
 
 package de.unknownreality.dataframe.filter;
 
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameColumn;
+import de.unknownreality.dataframe.Values;
+import de.unknownreality.dataframe.column.DictionaryStringColumn;
 import de.unknownreality.dataframe.common.Row;
+import de.unknownreality.dataframe.type.ValueType;
 
 import java.util.regex.Pattern;
 
@@ -67,6 +72,39 @@ public class MatchPredicate extends FilterPredicate {
         return pattern.matcher(row.toString(headerName)).matches();
     }
 
+    /**
+     * Binds this predicate to a column of a data frame.
+     * If the dictionary of a dictionary encoded column is not larger than the column,
+     * the pattern is matched once for each dictionary value and rows are tested by their codes.
+     *
+     * @param dataFrame data frame
+     * @return predicate bound to the data frame
+     */
+    @Override
+    public BoundPredicate bind(DataFrame dataFrame) {
+        DataFrameColumn<?, ?> column = getColumn(dataFrame, headerName);
+        ValueType<?> valueType = column.getValueType();
+        if (column instanceof DictionaryStringColumn
+                && ((DictionaryStringColumn) column).getDictionarySize() <= column.size()) {
+            DictionaryStringColumn dictionaryColumn = (DictionaryStringColumn) column;
+            boolean[] validCodes = new boolean[dictionaryColumn.getDictionarySize()];
+            for (int code = 0; code < validCodes.length; code++) {
+                validCodes[code] = pattern.matcher(valueType.toStringRaw(dictionaryColumn.getDictionaryValue(code))).matches();
+            }
+            boolean naResult = pattern.matcher(valueType.toStringRaw(Values.NA)).matches();
+            return row -> {
+                int code = dictionaryColumn.getCode(row);
+                return code == DictionaryStringColumn.NA_CODE ? naResult : validCodes[code];
+            };
+        }
+        return row -> pattern.matcher(valueType.toStringRaw(column.isNA(row) ? Values.NA : column.get(row))).matches();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return headerName + " =~ /" + pattern.toString() + "/";
@@ -0,0 +1,75 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.filter;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.common.Row;
+
+/**
+ * Predicate that negates the result of a child predicate.
+ * <p><code>!p.valid(row)</code></p>
+ */
+public class NotPredicate extends FilterPredicate {
+    private final FilterPredicate predicate;
+
+    /**
+     * Creates a predicate that negates a child predicate
+     *
+     * @param predicate child predicate
+     */
+    public NotPredicate(FilterPredicate predicate) {
+        this.predicate = predicate;
+    }
+
+    /**
+     * Returns the negated child predicate
+     *
+     * @return child predicate
+     */
+    public FilterPredicate getPredicate() {
+        return predicate;
+    }
+
+    @Override
+    public boolean valid(Row<?, String> row) {
+        return !predicate.valid(row);
+    }
+
+    @Override
+    public BoundPredicate bind(DataFrame dataFrame) {
+        BoundPredicate p = predicate.bind(dataFrame);
+        return row -> !p.test(row);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return predicate.isThreadSafe();
+    }
+
+    @Override
+    public String toString() {
+        return "!(" + predicate.toString() + ")";
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.filter;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.common.Row;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Predicate that is valid if at least one child predicate is valid.
+ * <p><code>p1.valid(row) OR p2.valid(row) OR ... OR pn.valid(row)</code></p>
+ */
+public class OrPredicate extends FilterPredicate {
+    private final FilterPredicate[] predicates;
+
+    /**
+     * Creates an <tt>OR</tt> predicate for the specified child predicates
+     *
+     * @param predicates child predicates
+     */
+    public OrPredicate(FilterPredicate... predicates) {
+        this.predicates = predicates;
+    }
+
+    /**
+     * Returns the child predicates in the order they are evaluated
+     *
+     * @return child predicates
+     */
+    public List<FilterPredicate> getPredicates() {
+        return Collections.unmodifiableList(Arrays.asList(predicates));
+    }
+
+    @Override
+    public boolean valid(Row<?, String> row) {
+        for (FilterPredicate predicate : predicates) {
+            if (predicate.valid(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public BoundPredicate bind(DataFrame dataFrame) {
+        return BoundPredicate.or(bindAll(dataFrame, predicates));
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        for (FilterPredicate predicate : predicates) {
+            if (!predicate.isThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < predicates.length; i++) {
+            sb.append("(").append(predicates[i]).append(")");
+            if (i < predicates.length - 1) {
+                sb.append(" OR ");
+            }
+        }
+        return sb.toString();
+    }
+}
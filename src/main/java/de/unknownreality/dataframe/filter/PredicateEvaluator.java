@@ -0,0 +1,232 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.filter;
+
+import de.unknownreality.dataframe.DataFrame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evaluates {@link FilterPredicate filter predicates} column by column.
+ * <p>
+ * The predicate is {@link BoundPredicateCompiler#compile(FilterPredicate, DataFrame) compiled} for the data frame once.
+ * The result is a selection vector containing the indices of all valid rows in ascending order.
+ * </p>
+ * <p>
+ * Bound predicates are immutable. If a predicate is {@link FilterPredicate#isThreadSafe() thread-safe},
+ * data frames with at least {@link #getParallelThreshold()} rows are split into row ranges that are evaluated
+ * by the {@link #setExecutor(Executor, int) configured executor}. Other predicates, e.g. custom predicates
+ * that only implement {@link FilterPredicate#valid(de.unknownreality.dataframe.common.Row)}, are evaluated by the calling thread.
+ * The data frame must not be modified during the evaluation.
+ * </p>
+ */
+public class PredicateEvaluator {
+    private static final int MIN_PARALLEL_RANGE = 4096;
+    private static final int RANGES_PER_TASK = 4;
+
+    private static volatile int parallelThreshold = 1 << 16;
+    private static volatile Executor executor = ForkJoinPool.commonPool();
+    private static volatile int parallelism = ForkJoinPool.getCommonPoolParallelism();
+
+    private PredicateEvaluator() {
+    }
+
+    /**
+     * Returns the indices of all rows of a data frame that are valid for a predicate
+     *
+     * @param dataFrame data frame
+     * @param predicate filter predicate
+     * @return selection vector with the indices of all valid rows
+     */
+    public static int[] select(DataFrame dataFrame, FilterPredicate predicate) {
+        int size = dataFrame.size();
+        if (isParallel(size) && predicate.isThreadSafe()) {
+            return select(dataFrame, predicate, executor, parallelism);
+        }
+        return selectRange(BoundPredicateCompiler.compile(predicate, dataFrame), 0, size);
+    }
+
+    /**
+     * Returns the indices of all rows of a data frame that are valid for a predicate.
+     * The rows are split into ranges that are evaluated by an executor.
+     * The selection vectors of the ranges are concatenated in row order.
+     * Predicates that are not {@link FilterPredicate#isThreadSafe() thread-safe} are evaluated by the calling thread.
+     *
+     * @param dataFrame   data frame
+     * @param predicate   filter predicate
+     * @param executor    executor evaluating the row ranges
+     * @param parallelism number of threads used by the executor
+     * @return selection vector with the indices of all valid rows
+     */
+    public static int[] select(DataFrame dataFrame, FilterPredicate predicate, Executor executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new DataFrameFilterRuntimeException("parallelism must be at least 1");
+        }
+        int size = dataFrame.size();
+        BoundPredicate bound = BoundPredicateCompiler.compile(predicate, dataFrame);
+        int ranges = Math.min(parallelism * RANGES_PER_TASK, size / MIN_PARALLEL_RANGE);
+        if (ranges < 2 || !predicate.isThreadSafe()) {
+            return selectRange(bound, 0, size);
+        }
+        List<CompletableFuture<int[]>> futures = new ArrayList<>(ranges);
+        for (int i = 0; i < ranges; i++) {
+            int from = (int) ((long) size * i / ranges);
+            int to = (int) ((long) size * (i + 1) / ranges);
+            futures.add(CompletableFuture.supplyAsync(() -> selectRange(bound, from, to), executor));
+        }
+        int[][] selections = new int[ranges][];
+        int count = 0;
+        for (int i = 0; i < ranges; i++) {
+            selections[i] = join(futures.get(i));
+            count += selections[i].length;
+        }
+        int[] rows = new int[count];
+        int offset = 0;
+        for (int[] selection : selections) {
+            System.arraycopy(selection, 0, rows, offset, selection.length);
+            offset += selection.length;
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the rows of a selection vector that are valid for a predicate.
+     * The input selection vector is not modified.
+     *
+     * @param dataFrame data frame
+     * @param predicate filter predicate
+     * @param rows      selection vector (row indices)
+     * @return selection vector with the indices of all valid rows
+     */
+    public static int[] select(DataFrame dataFrame, FilterPredicate predicate, int[] rows) {
+        int[] selected = rows.clone();
+        int count = BoundPredicateCompiler.compile(predicate, dataFrame).select(selected, selected.length);
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    private static int[] selectRange(BoundPredicate bound, int from, int to) {
+        int length = to - from;
+        int[] rows = new int[length];
+        for (int i = 0; i < length; i++) {
+            rows[i] = from + i;
+        }
+        int count = bound.select(rows, length);
+        return count == length ? rows : Arrays.copyOf(rows, count);
+    }
+
+    private static int[] join(CompletableFuture<int[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DataFrameFilterRuntimeException("error evaluating filter predicate", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the index of the first row of a data frame that is valid for a predicate
+     *
+     * @param dataFrame data frame
+     * @param predicate filter predicate
+     * @return index of the first valid row or <tt>-1</tt> if no row is valid
+     */
+    public static int selectFirst(DataFrame dataFrame, FilterPredicate predicate) {
+        int size = dataFrame.size();
+        BoundPredicate bound = BoundPredicateCompiler.compile(predicate, dataFrame);
+        for (int row = 0; row < size; row++) {
+            if (bound.test(row)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sets the minimum number of rows for parallel predicate evaluation.
+     * Use {@link Integer#MAX_VALUE} to disable parallel evaluation.
+     *
+     * @param threshold minimum number of rows
+     */
+    public static void setParallelThreshold(int threshold) {
+        if (threshold < 2) {
+            throw new DataFrameFilterRuntimeException("parallel filter threshold must be at least 2");
+        }
+        parallelThreshold = threshold;
+    }
+
+    /**
+     * Returns the minimum number of rows for parallel predicate evaluation
+     *
+     * @return minimum number of rows
+     */
+    public static int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the executor used for parallel predicate evaluation.
+     * The default is the common {@link ForkJoinPool}.
+     *
+     * @param executor    executor evaluating the row ranges
+     * @param parallelism number of threads used by the executor
+     */
+    public static void setExecutor(Executor executor, int parallelism) {
+        if (executor == null) {
+            throw new DataFrameFilterRuntimeException("executor must not be null");
+        }
+        if (parallelism < 1) {
+            throw new DataFrameFilterRuntimeException("parallelism must be at least 1");
+        }
+        PredicateEvaluator.executor = executor;
+        PredicateEvaluator.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the executor used for parallel predicate evaluation
+     *
+     * @return executor
+     */
+    public static Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns <tt>true</tt> if a data frame of the specified size is filtered in parallel
+     *
+     * @param size number of rows
+     * @return <tt>true</tt> if the predicate is evaluated in parallel
+     */
+    public static boolean isParallel(int size) {
+        return size >= parallelThreshold && parallelism > 1;
+    }
+}
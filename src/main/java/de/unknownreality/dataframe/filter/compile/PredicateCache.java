@@ -0,0 +1,210 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.filter.compile;
+
+import de.unknownreality.dataframe.filter.FilterPredicate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded least recently used cache for compiled predicate strings.
+ * <p>
+ * Predicate strings are {@link #normalize(String) normalized} before they are used as keys,
+ * strings that only differ in surrounding or repeated spaces share a cache entry.
+ * Compiled predicates are immutable and may be shared between threads.
+ * Strings that can not be compiled are not cached.
+ * </p>
+ * <p>
+ * The cache is thread-safe. Predicate strings are compiled outside of the cache lock,
+ * concurrent misses for the same string may compile it more than once.
+ * </p>
+ */
+public class PredicateCache {
+    public static final int DEFAULT_MAX_SIZE = 512;
+
+    private final Map<String, FilterPredicate> predicates = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private int maxSize;
+
+    /**
+     * Creates a cache with the {@link #DEFAULT_MAX_SIZE default size}
+     */
+    public PredicateCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache that holds at most <tt>maxSize</tt> predicates.
+     * A size of <tt>0</tt> disables the cache.
+     *
+     * @param maxSize maximum number of cached predicates
+     */
+    public PredicateCache(int maxSize) {
+        if (maxSize < 0) {
+            throw new PredicateCompilerException("predicate cache size must not be negative");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the compiled predicate for a predicate string.
+     * The string is compiled using {@link PredicateCompiler#compile(String)} if it is not cached.
+     *
+     * @param predicateString predicate string
+     * @return compiled predicate
+     * @throws PredicateCompilerException if the predicate string can not be compiled
+     */
+    public FilterPredicate get(String predicateString) {
+        String key = normalize(predicateString);
+        FilterPredicate predicate;
+        synchronized (predicates) {
+            predicate = predicates.get(key);
+        }
+        if (predicate != null) {
+            hits.incrementAndGet();
+            return predicate;
+        }
+        misses.incrementAndGet();
+        predicate = PredicateCompiler.compile(key);
+        synchronized (predicates) {
+            if (maxSize > 0) {
+                predicates.put(key, predicate);
+                evict();
+            }
+        }
+        return predicate;
+    }
+
+    private void evict() {
+        while (predicates.size() > maxSize) {
+            predicates.remove(predicates.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Sets the maximum number of cached predicates.
+     * The least recently used predicates are removed if the cache is larger than the new size.
+     *
+     * @param maxSize maximum number of cached predicates
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new PredicateCompilerException("predicate cache size must not be negative");
+        }
+        synchronized (predicates) {
+            this.maxSize = maxSize;
+            evict();
+        }
+    }
+
+    /**
+     * Returns the maximum number of cached predicates
+     *
+     * @return maximum number of cached predicates
+     */
+    public int getMaxSize() {
+        synchronized (predicates) {
+            return maxSize;
+        }
+    }
+
+    /**
+     * Returns the number of cached predicates
+     *
+     * @return number of cached predicates
+     */
+    public int size() {
+        synchronized (predicates) {
+            return predicates.size();
+        }
+    }
+
+    /**
+     * Returns the number of predicate strings found in the cache
+     *
+     * @return number of cache hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of predicate strings that were compiled
+     *
+     * @return number of cache misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Removes all cached predicates and resets the hit and miss counters
+     */
+    public void clear() {
+        synchronized (predicates) {
+            predicates.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * Normalizes a predicate string.
+     * Leading and trailing whitespace is removed and repeated spaces outside of quoted values
+     * and regular expressions are replaced by a single space.
+     * Spaces are skipped by the predicate lexer, so the normalized string compiles to the same predicate.
+     *
+     * @param predicateString predicate string
+     * @return normalized predicate string
+     */
+    public static String normalize(String predicateString) {
+        String trimmed = predicateString.trim();
+        StringBuilder sb = null;
+        char quote = 0;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (quote != 0) {
+                if (c == quote && trimmed.charAt(i - 1) != '\\') {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '/') {
+                quote = c;
+            } else if (c == ' ' && trimmed.charAt(i - 1) == ' ') {
+                if (sb == null) {
+                    sb = new StringBuilder(trimmed.length());
+                    sb.append(trimmed, 0, i);
+                }
+                continue;
+            }
+            if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? trimmed : sb.toString();
+    }
+}
@@ -36,7 +36,25 @@ import org.antlr.v4.runtime.ConsoleErrorListener;
  * Created by Alex on 18.05.2017.
  */
 public class PredicateCompiler {
+    private static final PredicateCache CACHE = new PredicateCache();
 
+    /**
+     * Returns the cache used by {@link FilterPredicate#compile(String)}
+     *
+     * @return predicate cache
+     */
+    public static PredicateCache getCache() {
+        return CACHE;
+    }
+
+    /**
+     * Compiles a predicate string. The result is not cached.
+     *
+     * @param predicateString predicate string
+     * @return compiled predicate
+     * @throws PredicateCompilerException if the predicate string can not be compiled
+     * @see FilterPredicate#compile(String)
+     */
     public static FilterPredicate compile(String predicateString){
         predicateString = predicateString.trim();
         if(predicateString.isEmpty()){
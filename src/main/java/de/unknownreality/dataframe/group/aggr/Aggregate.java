@@ -75,6 +75,18 @@ public class Aggregate {
         return group -> group.getNumberColumn(colName).getQuantile(quantile);
     }
 
+    /**
+     * Estimates a quantile using a {@link de.unknownreality.dataframe.common.math.QuantileSketch}.
+     * Uses constant memory per group, the rank error is below 1%.
+     *
+     * @param colName  name of the number column
+     * @param quantile quantile in the range <tt>[0, 1]</tt>
+     * @return aggregate function
+     */
+    public static AggregateFunction<Double> approximateQuantile(final String colName, double quantile) {
+        return group -> group.getNumberColumn(colName).createQuantileSketch().getQuantile(quantile);
+    }
+
 
     public static AggregateFunction<Integer> naCount(String column) {
         return group -> {
@@ -28,6 +28,7 @@ import de.unknownreality.dataframe.DataFrame;
 import de.unknownreality.dataframe.DataFrameColumn;
 import de.unknownreality.dataframe.DataFrameHeader;
 import de.unknownreality.dataframe.DefaultDataFrame;
+import de.unknownreality.dataframe.column.DictionaryStringColumn;
 import de.unknownreality.dataframe.group.DataGroup;
 import de.unknownreality.dataframe.group.DataGrouping;
 import de.unknownreality.dataframe.group.GroupUtil;
@@ -56,15 +57,19 @@ public class TreeGroupUtil implements GroupUtil {
         df.getColumns().toArray(dfColumns);
         int[] groupColumnIndices = new int[columns.length];
         ValueType<?>[] groupColumnTypes = new ValueType[columns.length];
+        DictionaryStringColumn[] codeColumns = new DictionaryStringColumn[columns.length];
         for (int i = 0; i < columns.length; i++) {
             groupColumnIndices[i] = header.getIndex(columns[i]);
             groupColumnTypes[i] = header.getValueType(i);
+            if (dfColumns[groupColumnIndices[i]] instanceof DictionaryStringColumn) {
+                codeColumns[i] = (DictionaryStringColumn) dfColumns[groupColumnIndices[i]];
+            }
         }
         Object[] groupValues = new Object[columns.length];
         for (int i = 0; i < df.size(); i++) {
             addRec(groupList, root, 0,
                     columns, groupColumnTypes,
-                    groupColumnIndices, groupValues, header, df, i);
+                    groupColumnIndices, codeColumns, groupValues, header, df, i);
         }
         root.clear();
         return new DataGrouping(groupList, createGroupColumns(df, columns));
@@ -72,7 +77,7 @@ public class TreeGroupUtil implements GroupUtil {
 
     private void addRec(List<DataGroup> groups, GroupNode node, int index,
                         String[] groupColumns, ValueType<?>[] valueTypes,
-                        int[] groupColumnIndices,
+                        int[] groupColumnIndices, DictionaryStringColumn[] codeColumns,
                         Object[] groupValues, DataFrameHeader header,
                         DataFrame df, int rowIndex) {
         if (index == groupColumns.length) {
@@ -91,14 +96,16 @@ public class TreeGroupUtil implements GroupUtil {
         }
         Object value = df.getValue(groupColumnIndices[index], rowIndex);
         groupValues[index] = value;
+        // dictionary encoded columns are grouped by their int codes
+        Object key = codeColumns[index] == null ? value : (Object) codeColumns[index].getCode(rowIndex);
         GroupNode child;
-        if ((child = node.getChild(value)) == null) {
-            child = new GroupNode(value);
+        if ((child = node.getChild(key)) == null) {
+            child = new GroupNode(key);
             node.addChild(child);
         }
         addRec(groups, child, index + 1,
                 groupColumns, valueTypes,
-                groupColumnIndices, groupValues, header, df, rowIndex);
+                groupColumnIndices, codeColumns, groupValues, header, df, rowIndex);
     }
 
     private static DataFrameColumn<?, ?>[] createGroupColumns(DataFrame df, String... columns) {
@@ -24,6 +24,7 @@
 
 package de.unknownreality.dataframe.index;
 
+import de.unknownreality.dataframe.DataFrame;
 import de.unknownreality.dataframe.DataFrameColumn;
 import de.unknownreality.dataframe.DataRow;
 
@@ -49,6 +50,19 @@ public interface Index {
      */
     void remove(DataRow dataRow);
 
+    /**
+     * Clears this index and adds all rows of a data frame in one pass.
+     * Implementations may read the index columns directly instead of creating a {@link DataRow} for each row.
+     *
+     * @param dataFrame data frame containing the index columns
+     */
+    default void build(DataFrame dataFrame) {
+        clear();
+        for (DataRow row : dataFrame) {
+            update(row);
+        }
+    }
+
     /**
      * Returns the row number for values used in this index
      *
@@ -100,4 +114,15 @@ public interface Index {
 
     void replaceColumn(DataFrameColumn<?, ?> existing, DataFrameColumn<?, ?> replacement);
 
+    /**
+     * Returns <tt>true</tt> if {@link #find(Object...)} returns exactly the rows whose index column values
+     * are equal to the specified values.
+     * Only such indices are used to answer <tt>==</tt> and <tt>in</tt> filter predicates.
+     *
+     * @return <tt>true</tt> if this index supports exact key lookups
+     */
+    default boolean isKeyIndex() {
+        return false;
+    }
+
 }
@@ -28,18 +28,32 @@ import de.unknownreality.dataframe.DataFrame;
 import de.unknownreality.dataframe.DataFrameColumn;
 import de.unknownreality.dataframe.DataFrameRuntimeException;
 import de.unknownreality.dataframe.DataRow;
+import de.unknownreality.dataframe.column.NumberColumn;
+import de.unknownreality.dataframe.index.interval.IntervalIndex;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Created by Alex on 27.05.2016.
+ * <p>
+ * In lazy mode, row updates are not applied immediately. The updated rows are recorded and applied to all indices
+ * in ascending row order before the next lookup. A unique constraint violation is then reported by the lookup,
+ * the violating row with the lowest row number is skipped and the remaining rows stay pending.
+ * </p>
  */
 public class Indices {
     public static final String PRIMARY_KEY_NAME = "%primary_key%";
+    private static final int PARALLEL_BUILD_THRESHOLD = 1 << 16;
+    // non-unique indices are rebuilt if at least 1/8 of the rows are pending
+    private static final int BULK_UPDATE_RATIO = 8;
 
     private final Map<String, Index> indexMap = new HashMap<>();
     private final Map<DataFrameColumn<?, ?>, List<Index>> columnIndexMap = new WeakHashMap<>();
     private final DataFrame dataFrame;
+    private final BitSet dirtyRows = new BitSet();
+    private boolean lazy;
     /**
      * Creates an index for a data frame
      *
@@ -77,11 +91,7 @@ public class Indices {
         }
         columnIndexMap.remove(existing);
         columnIndexMap.put(replacement, existingIndices);
-        for (DataRow row : dataFrame) {
-            for (Index idx : existingIndices) {
-                idx.update(row);
-            }
-        }
+        build(existingIndices);
     }
 
     /**
@@ -102,7 +112,19 @@ public class Indices {
                 }
                 dfColumns[i] = dfCol;
             }
-            if (!invalid) {
+            if (invalid) {
+                continue;
+            }
+            if (entry.getValue() instanceof SortedIndex) {
+                dataFrame.addIndex(((SortedIndex) entry.getValue()).copy(dfColumns));
+            } else if (entry.getValue() instanceof PrimitiveHashIndex && PrimitiveHashIndex.isSupported(dfColumns)) {
+                dataFrame.addIndex(((PrimitiveHashIndex) entry.getValue()).copy((NumberColumn<?, ?>) dfColumns[0]));
+            } else if (entry.getValue() instanceof IntervalIndex
+                    && dfColumns[0] instanceof NumberColumn && dfColumns[1] instanceof NumberColumn) {
+                dataFrame.addIndex(IntervalIndex.create(entry.getKey(),
+                        (NumberColumn<?, ?>) dfColumns[0], (NumberColumn<?, ?>) dfColumns[1],
+                        ((IntervalIndex) entry.getValue()).getMode()));
+            } else {
                 dataFrame.addIndex(entry.getKey(), dfColumns);
             }
         }
@@ -117,20 +139,170 @@ public class Indices {
         if(indicesCount() == 0){
             return;
         }
+        if (lazy) {
+            dirtyRows.set(dataRow.getIndex());
+            return;
+        }
         for (Index index : indexMap.values()) {
             index.update(dataRow);
         }
     }
 
     /**
-     * Updates all rows in all available indices
+     * Updates a row of the data frame in all available indices
+     *
+     * @param rowIndex index of the row to update
+     */
+    public void update(int rowIndex) {
+        update(rowIndex, rowIndex + 1);
+    }
+
+    /**
+     * Updates a range of rows of the data frame in all available indices
+     *
+     * @param from index of the first row to update
+     * @param to   index after the last row to update
+     */
+    public void update(int from, int to) {
+        if (indicesCount() == 0) {
+            return;
+        }
+        if (lazy) {
+            dirtyRows.set(from, to);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            DataRow row = dataFrame.getRow(i);
+            for (Index index : indexMap.values()) {
+                index.update(row);
+            }
+        }
+    }
+
+    /**
+     * Enables or disables lazy index maintenance.
+     * Pending row updates are applied when lazy maintenance is disabled.
+     *
+     * @param lazy <tt>true</tt> if row updates should be applied before the next lookup
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+        if (!lazy) {
+            applyPendingUpdates();
+        }
+    }
+
+    /**
+     * Returns <tt>true</tt> if lazy index maintenance is enabled
+     *
+     * @return <tt>true</tt> if lazy index maintenance is enabled
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Returns the number of rows with pending updates
+     *
+     * @return number of pending rows
+     */
+    public int pendingRowCount() {
+        return dirtyRows.cardinality();
+    }
+
+    /**
+     * Applies all pending row updates.
+     * If the pending rows are a large part of the data frame, non-unique indices are rebuilt using
+     * {@link Index#build(DataFrame)}. Otherwise all pending rows are removed from the indices first and added
+     * again in ascending row order, so unique indices are checked against the values after all pending updates.
+     * If a row violates a unique index, the exception is thrown and this row and all following rows remain pending.
+     * Lookups keep failing until the duplicated values are resolved.
+     */
+    public void applyPendingUpdates() {
+        if (dirtyRows.isEmpty()) {
+            return;
+        }
+        int size = dataFrame.size();
+        if (dirtyRows.length() > size) {
+            dirtyRows.clear(size, dirtyRows.length());
+        }
+        Collection<Index> rowIndices = indexMap.values();
+        if ((long) dirtyRows.cardinality() * BULK_UPDATE_RATIO >= size) {
+            List<Index> rebuild = new ArrayList<>(indexMap.size());
+            List<Index> unique = new ArrayList<>(indexMap.size());
+            for (Index index : indexMap.values()) {
+                if (index.isUnique()) {
+                    unique.add(index);
+                } else {
+                    rebuild.add(index);
+                }
+            }
+            build(rebuild);
+            if (unique.isEmpty()) {
+                dirtyRows.clear();
+                return;
+            }
+            rowIndices = unique;
+        }
+        for (int i = dirtyRows.nextSetBit(0); i >= 0; i = dirtyRows.nextSetBit(i + 1)) {
+            DataRow row = dataFrame.getRow(i);
+            for (Index index : rowIndices) {
+                index.remove(row);
+            }
+        }
+        for (int i = dirtyRows.nextSetBit(0); i >= 0; i = dirtyRows.nextSetBit(i + 1)) {
+            DataRow row = dataFrame.getRow(i);
+            for (Index index : rowIndices) {
+                index.update(row);
+            }
+            dirtyRows.clear(i);
+        }
+    }
+
+    /**
+     * Updates all rows in all available indices.
+     * Each index is rebuilt in one pass using {@link Index#build(DataFrame)},
+     * indices of large data frames are built in parallel.
      */
     public void updateAllRows(){
+        dirtyRows.clear();
         if(indicesCount() == 0){
             return;
         }
-        for(DataRow row : dataFrame){
-            update(row);
+        build(indexMap.values());
+    }
+
+    /**
+     * Rebuilds indices from the columns of the data frame.
+     * If building an index fails, the error of the first failed index in iteration order is thrown.
+     *
+     * @param indices indices to rebuild
+     */
+    private void build(Collection<Index> indices) {
+        if (indices.size() < 2 || dataFrame.size() < PARALLEL_BUILD_THRESHOLD) {
+            for (Index index : indices) {
+                index.build(dataFrame);
+            }
+            return;
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>(indices.size());
+        for (Index index : indices) {
+            futures.add(CompletableFuture.runAsync(() -> index.build(dataFrame)));
+        }
+        RuntimeException error = null;
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (error == null) {
+                    error = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new DataFrameRuntimeException("error building index", e.getCause());
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
         }
     }
 
@@ -145,9 +317,33 @@ public class Indices {
         if (!indexMap.containsKey(name)) {
             throw new DataFrameRuntimeException(String.format("index not found'%s'", name));
         }
+        applyPendingUpdates();
         return indexMap.get(name).find(values);
     }
 
+    /**
+     * Returns the row numbers of a {@link RangeIndex} whose values in the first index column are within a range.
+     * A <tt>null</tt> bound is unbounded.
+     *
+     * @param name          name of the index
+     * @param low           lower bound or <tt>null</tt>
+     * @param lowInclusive  <tt>true</tt> if the lower bound is included
+     * @param high          upper bound or <tt>null</tt>
+     * @param highInclusive <tt>true</tt> if the upper bound is included
+     * @return row numbers within the range
+     */
+    public Collection<Integer> findRange(String name, Object low, boolean lowInclusive, Object high, boolean highInclusive) {
+        Index index = indexMap.get(name);
+        if (index == null) {
+            throw new DataFrameRuntimeException(String.format("index not found'%s'", name));
+        }
+        if (!(index instanceof RangeIndex)) {
+            throw new DataFrameRuntimeException(String.format("index does not support range queries '%s'", name));
+        }
+        applyPendingUpdates();
+        return ((RangeIndex) index).findRange(low, lowInclusive, high, highInclusive);
+    }
+
     /**
      * Returns the first found row number for a index and a set of values for the index
      * If no row is found, null is returned
@@ -172,6 +368,11 @@ public class Indices {
         if (primaryKey == null) {
             throw new DataFrameRuntimeException("no primaryKey found");
         }
+        applyPendingUpdates();
+        if (primaryKey instanceof PrimitiveHashIndex && values.length == 1) {
+            int row = ((PrimitiveHashIndex) primaryKey).findFirst(values[0]);
+            return row == -1 ? null : row;
+        }
         Collection<Integer> indices = primaryKey.find(values);
         if (indices.isEmpty()) {
             return null;
@@ -217,9 +418,18 @@ public class Indices {
             List<Index> indexList = columnIndexMap.computeIfAbsent(column, k -> new ArrayList<>());
             indexList.add(index);
         }
-        for (DataRow row : dataFrame) {
-            index.update(row);
-        }
+        index.build(dataFrame);
+    }
+
+    /**
+     * Returns all indices.
+     * Pending row updates are applied before the indices are returned.
+     *
+     * @return unmodifiable collection of indices
+     */
+    public Collection<Index> getIndices() {
+        applyPendingUpdates();
+        return Collections.unmodifiableCollection(indexMap.values());
     }
 
     /**
@@ -231,7 +441,8 @@ public class Indices {
     }
 
     /**
-     * sets the primary key using one or more columns
+     * sets the primary key using one or more columns.
+     * A {@link PrimitiveHashIndex} is used for a single integral number column.
      *
      * @param columns columns the index is based on
      */
@@ -239,6 +450,10 @@ public class Indices {
         if (indexMap.containsKey(PRIMARY_KEY_NAME)) {
             removeIndex(PRIMARY_KEY_NAME);
         }
+        if (PrimitiveHashIndex.isSupported(columns)) {
+            addIndex(new PrimitiveHashIndex(PRIMARY_KEY_NAME, true, (NumberColumn<?, ?>) columns[0]));
+            return;
+        }
         addIndex(PRIMARY_KEY_NAME, true, columns);
     }
 
@@ -257,6 +472,7 @@ public class Indices {
      * Clears the values of all indices
      */
     public void clearValues() {
+        dirtyRows.clear();
         for (Index index : indexMap.values()) {
             index.clear();
         }
@@ -276,11 +492,31 @@ public class Indices {
         if (!isIndexColumn(column)) {
             return;
         }
+        if (lazy) {
+            dirtyRows.set(dataRow.getIndex());
+            return;
+        }
         for (Index indexObject : columnIndexMap.get(column)) {
             indexObject.update(dataRow);
         }
     }
 
+    /**
+     * Updates a row in each index that contains the specified column
+     *
+     * @param column   index column
+     * @param rowIndex index of the row to update
+     */
+    public void updateValue(DataFrameColumn<?, ?> column, int rowIndex) {
+        if (lazy) {
+            if (isIndexColumn(column)) {
+                dirtyRows.set(rowIndex);
+            }
+            return;
+        }
+        updateValue(column, dataFrame.getRow(rowIndex));
+    }
+
     /**
      * Updates all indices that contain a certain row.
      * All rows in the data frame are updated
@@ -294,15 +530,7 @@ public class Indices {
         if (!isIndexColumn(column)) {
             return;
         }
-        Collection<Index> columnIndices = columnIndexMap.get(column);
-        for (Index indexObject : columnIndices) {
-            indexObject.clear();
-        }
-        for (DataRow row : dataFrame) {
-            for (Index indexObject : columnIndices) {
-                indexObject.update(row);
-            }
-        }
+        build(columnIndexMap.get(column));
     }
 
     /**
@@ -314,6 +542,7 @@ public class Indices {
         if(indicesCount() == 0){
             return;
         }
+        applyPendingUpdates();
         for (Index index : indexMap.values()) {
             index.remove(dataRow);
         }
@@ -360,6 +589,7 @@ public class Indices {
     }
 
     public void clear(){
+        this.dirtyRows.clear();
         this.columnIndexMap.clear();
         this.indexMap.clear();
     }
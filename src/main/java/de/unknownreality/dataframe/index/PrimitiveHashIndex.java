@@ -0,0 +1,418 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+
+package de.unknownreality.dataframe.index;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameColumn;
+import de.unknownreality.dataframe.DataFrameRuntimeException;
+import de.unknownreality.dataframe.DataRow;
+import de.unknownreality.dataframe.Values;
+import de.unknownreality.dataframe.column.NumberColumn;
+
+import java.util.*;
+
+/**
+ * Hash index for a single integral number column that stores keys and row numbers in primitive arrays.
+ * <p>
+ * Keys are stored in an open addressing hash table with linear probing.
+ * Each key references the first row with this key, further rows with the same key are chained
+ * using an array indexed by row number. An indexed row therefore only costs a few primitive array entries
+ * instead of boxed row numbers and map entries.
+ * </p>
+ * <p>
+ * Rows found by {@link #find(Object...)} are returned in ascending order.
+ * </p>
+ */
+public class PrimitiveHashIndex implements Index {
+    private static final int EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final byte ROW_ABSENT = 0;
+    private static final byte ROW_PRESENT = 1;
+    private static final byte ROW_NA = 2;
+
+    private final String name;
+    private NumberColumn<?, ?> column;
+    private boolean unique;
+
+    private long[] tableKeys;
+    private int[] tableHeads;
+    private int keyCount;
+
+    private int[] next;
+    private long[] rowKeys;
+    private byte[] rowStates;
+    private int naHead = EMPTY;
+
+    /**
+     * Returns <tt>true</tt> if a primitive hash index can be created for the specified columns.
+     * This is the case for a single number column with integral values.
+     *
+     * @param columns index columns
+     * @return <tt>true</tt> if the columns are supported
+     */
+    public static boolean isSupported(DataFrameColumn<?, ?>... columns) {
+        return columns.length == 1
+                && columns[0] instanceof NumberColumn
+                && !((NumberColumn<?, ?>) columns[0]).isFloatingPoint();
+    }
+
+    /**
+     * Creates a primitive hash index for an integral number column
+     *
+     * @param indexName name of index
+     * @param unique    defines whether this index only allows unique values
+     * @param column    index column
+     */
+    public PrimitiveHashIndex(String indexName, boolean unique, NumberColumn<?, ?> column) {
+        if (!isSupported(column)) {
+            throw new DataFrameRuntimeException("only integral number columns are supported by primitive hash indices");
+        }
+        this.name = indexName;
+        this.unique = unique;
+        this.column = column;
+        clear();
+    }
+
+    public PrimitiveHashIndex(String indexName, NumberColumn<?, ?> column) {
+        this(indexName, false, column);
+    }
+
+    /**
+     * Creates an empty copy of this index using another column
+     *
+     * @param column index column of the copy
+     * @return empty primitive hash index
+     */
+    public PrimitiveHashIndex copy(NumberColumn<?, ?> column) {
+        return new PrimitiveHashIndex(name, unique, column);
+    }
+
+    @Override
+    public void update(DataRow dataRow) {
+        remove(dataRow);
+        resolveColumn(dataRow.getDataFrame());
+        int row = dataRow.getIndex();
+        ensureRowCapacity(row + 1);
+        add(row);
+    }
+
+    /**
+     * Builds this index from the primitive values of the index column without creating data rows.
+     *
+     * @param dataFrame data frame containing the index column
+     */
+    @Override
+    public void build(DataFrame dataFrame) {
+        clear();
+        resolveColumn(dataFrame);
+        int size = dataFrame.size();
+        ensureRowCapacity(size);
+        for (int row = 0; row < size; row++) {
+            add(row);
+        }
+    }
+
+    /**
+     * Uses the column of the data frame with the name of the index column,
+     * the column object of a data frame is replaced if its rows are set.
+     */
+    private void resolveColumn(DataFrame dataFrame) {
+        DataFrameColumn<?, ?> frameColumn = dataFrame.getColumn(column.getName());
+        if (frameColumn == column) {
+            return;
+        }
+        if (!isSupported(frameColumn)) {
+            throw new DataFrameRuntimeException(String.format("integral number column not found: %s", column.getName()));
+        }
+        column = (NumberColumn<?, ?>) frameColumn;
+    }
+
+    private void add(int row) {
+        if (column.isNA(row)) {
+            if (unique && naHead != EMPTY) {
+                throw duplicateException(Values.NA);
+            }
+            next[row] = naHead;
+            naHead = row;
+            rowStates[row] = ROW_NA;
+            return;
+        }
+        long key = column.getLong(row);
+        int slot = findSlot(key);
+        if (tableHeads[slot] == EMPTY) {
+            tableKeys[slot] = key;
+            next[row] = EMPTY;
+            tableHeads[slot] = row;
+            if (++keyCount * 3 > tableKeys.length * 2) {
+                resize(tableKeys.length << 1);
+            }
+        } else {
+            if (unique) {
+                throw duplicateException(column.get(row));
+            }
+            next[row] = tableHeads[slot];
+            tableHeads[slot] = row;
+        }
+        rowKeys[row] = key;
+        rowStates[row] = ROW_PRESENT;
+    }
+
+    private static DataFrameRuntimeException duplicateException(Object value) {
+        return new DataFrameRuntimeException(String.format("error adding row to index: duplicated values found '[%s]'", value));
+    }
+
+    @Override
+    public void remove(DataRow dataRow) {
+        int row = dataRow.getIndex();
+        if (row >= rowStates.length || rowStates[row] == ROW_ABSENT) {
+            return;
+        }
+        if (rowStates[row] == ROW_NA) {
+            naHead = unlink(naHead, row);
+        } else {
+            int slot = findSlot(rowKeys[row]);
+            int head = unlink(tableHeads[slot], row);
+            if (head == EMPTY) {
+                removeSlot(slot);
+            } else {
+                tableHeads[slot] = head;
+            }
+        }
+        rowStates[row] = ROW_ABSENT;
+    }
+
+    /**
+     * Removes a row from a chain of rows and returns the new head of the chain
+     */
+    private int unlink(int head, int row) {
+        if (head == row) {
+            return next[row];
+        }
+        int current = head;
+        while (next[current] != row) {
+            current = next[current];
+        }
+        next[current] = next[row];
+        return head;
+    }
+
+    @Override
+    public Collection<Integer> find(Object... values) {
+        if (values.length != 1) {
+            throw new IllegalArgumentException("value for each index column required");
+        }
+        int head = findHead(values[0]);
+        if (head == EMPTY) {
+            return new ArrayList<>(0);
+        }
+        int count = 0;
+        for (int row = head; row != EMPTY; row = next[row]) {
+            count++;
+        }
+        int[] rows = new int[count];
+        count = 0;
+        for (int row = head; row != EMPTY; row = next[row]) {
+            rows[count++] = row;
+        }
+        Arrays.sort(rows);
+        List<Integer> result = new ArrayList<>(count);
+        for (int row : rows) {
+            result.add(row);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the lowest row number with the specified key or <tt>-1</tt> if no row is found.
+     *
+     * @param value key value
+     * @return lowest row number or <tt>-1</tt>
+     */
+    public int findFirst(Object value) {
+        int first = EMPTY;
+        for (int row = findHead(value); row != EMPTY; row = next[row]) {
+            if (first == EMPTY || row < first) {
+                first = row;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Returns the number of rows with the specified key.
+     *
+     * @param value key value
+     * @return number of rows
+     */
+    public int count(Object value) {
+        int count = 0;
+        for (int row = findHead(value); row != EMPTY; row = next[row]) {
+            count++;
+        }
+        return count;
+    }
+
+    private int findHead(Object value) {
+        if (Values.NA.isNA(value)) {
+            return naHead;
+        }
+        if (!(value instanceof Number)) {
+            return EMPTY;
+        }
+        Number number = (Number) value;
+        long key = number.longValue();
+        if ((value instanceof Double || value instanceof Float) && number.doubleValue() != key) {
+            return EMPTY;
+        }
+        return tableHeads[findSlot(key)];
+    }
+
+    /**
+     * Returns the slot of a key or the empty slot the key would be inserted into
+     */
+    private int findSlot(long key) {
+        int mask = tableKeys.length - 1;
+        int slot = hash(key) & mask;
+        while (tableHeads[slot] != EMPTY && tableKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Removes a slot and shifts following keys of the probe sequence back, so no tombstones are required
+     */
+    private void removeSlot(int slot) {
+        int mask = tableKeys.length - 1;
+        int free = slot;
+        int current = (slot + 1) & mask;
+        while (tableHeads[current] != EMPTY) {
+            int home = hash(tableKeys[current]) & mask;
+            if (((current - home) & mask) >= ((current - free) & mask)) {
+                tableKeys[free] = tableKeys[current];
+                tableHeads[free] = tableHeads[current];
+                free = current;
+            }
+            current = (current + 1) & mask;
+        }
+        tableHeads[free] = EMPTY;
+        keyCount--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = tableKeys;
+        int[] oldHeads = tableHeads;
+        tableKeys = new long[capacity];
+        tableHeads = new int[capacity];
+        Arrays.fill(tableHeads, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHeads[i] != EMPTY) {
+                int slot = findSlot(oldKeys[i]);
+                tableKeys[slot] = oldKeys[i];
+                tableHeads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    private void ensureRowCapacity(int size) {
+        if (size <= rowStates.length) {
+            return;
+        }
+        int capacity = Math.max(size, rowStates.length + (rowStates.length >> 1));
+        next = Arrays.copyOf(next, capacity);
+        rowKeys = Arrays.copyOf(rowKeys, capacity);
+        rowStates = Arrays.copyOf(rowStates, capacity);
+    }
+
+    /**
+     * Returns the number of distinct non NA keys in this index
+     *
+     * @return number of keys
+     */
+    public int keyCount() {
+        return keyCount;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void setUnique(boolean unique) {
+        this.unique = unique;
+    }
+
+    @Override
+    public boolean containsColumn(DataFrameColumn<?, ?> column) {
+        return this.column == column;
+    }
+
+    @Override
+    public boolean isUnique() {
+        return unique;
+    }
+
+    @Override
+    public boolean isKeyIndex() {
+        return true;
+    }
+
+    @Override
+    public List<DataFrameColumn<?, ?>> getColumns() {
+        List<DataFrameColumn<?, ?>> columns = new ArrayList<>(1);
+        columns.add(column);
+        return columns;
+    }
+
+    @Override
+    public void clear() {
+        tableKeys = new long[INITIAL_CAPACITY];
+        tableHeads = new int[INITIAL_CAPACITY];
+        Arrays.fill(tableHeads, EMPTY);
+        keyCount = 0;
+        next = new int[0];
+        rowKeys = new long[0];
+        rowStates = new byte[0];
+        naHead = EMPTY;
+    }
+
+    @Override
+    public void replaceColumn(DataFrameColumn<?, ?> existing, DataFrameColumn<?, ?> replacement) {
+        if (existing != column) {
+            throw new DataFrameRuntimeException(String.format("column not found: %s", existing.getName()));
+        }
+        if (!isSupported(replacement)) {
+            throw new DataFrameRuntimeException("only integral number columns are supported by primitive hash indices");
+        }
+        column = (NumberColumn<?, ?>) replacement;
+    }
+}
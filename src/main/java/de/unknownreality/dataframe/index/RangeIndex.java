@@ -0,0 +1,46 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.index;
+
+import java.util.Collection;
+
+/**
+ * {@link Index} that keeps its rows ordered by the values of the first index column
+ * and can find all rows within a range of values.
+ */
+public interface RangeIndex extends Index {
+
+    /**
+     * Returns the rows whose value in the first index column is within a range.
+     * A <tt>null</tt> bound is unbounded. NA values are never within a range.
+     *
+     * @param low           lower bound or <tt>null</tt>
+     * @param lowInclusive  <tt>true</tt> if the lower bound is included
+     * @param high          upper bound or <tt>null</tt>
+     * @param highInclusive <tt>true</tt> if the upper bound is included
+     * @return row numbers within the range
+     */
+    Collection<Integer> findRange(Object low, boolean lowInclusive, Object high, boolean highInclusive);
+}
@@ -0,0 +1,350 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+
+package de.unknownreality.dataframe.index;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameColumn;
+import de.unknownreality.dataframe.DataFrameRuntimeException;
+import de.unknownreality.dataframe.DataRow;
+import de.unknownreality.dataframe.Values;
+
+import java.util.*;
+
+/**
+ * Index that keeps the rows of a data frame ordered by the values of its index columns.
+ * <p>
+ * In addition to exact lookups, the index supports range lookups on the first index column,
+ * prefix lookups on the leading columns of a composite key and iteration of all rows in key order.
+ * Keys are compared column by column, NA values are ordered before all other values.
+ * Numbers of different types are compared by their numeric value.
+ * </p>
+ */
+public class SortedIndex implements RangeIndex {
+    private static final Object MIN_VALUE = new Object();
+    private static final Object MAX_VALUE = new Object();
+    private static final Comparator<Object[]> KEY_COMPARATOR = SortedIndex::compareKeys;
+
+    // rows of each key are kept in ascending order, so they can be removed using a binary search
+    private final NavigableMap<Object[], List<Integer>> keyMap = new TreeMap<>(KEY_COMPARATOR);
+    private final Map<Integer, Object[]> rowKeyMap = new HashMap<>();
+    private final List<DataFrameColumn<?, ?>> columns;
+    private final String name;
+    private boolean unique;
+
+    /**
+     * Creates a sorted index using one or more columns of a data frame
+     *
+     * @param dataFrame   data frame
+     * @param name        name of index
+     * @param columnNames index columns
+     * @return sorted index
+     */
+    public static SortedIndex create(DataFrame dataFrame, String name, String... columnNames) {
+        DataFrameColumn<?, ?>[] columns = new DataFrameColumn<?, ?>[columnNames.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = dataFrame.getColumn(columnNames[i]);
+            if (columns[i] == null) {
+                throw new DataFrameRuntimeException(String.format("column not found: %s", columnNames[i]));
+            }
+        }
+        return new SortedIndex(name, columns);
+    }
+
+    /**
+     * Creates a sorted index using one or more columns
+     *
+     * @param indexName name of index
+     * @param unique    defines whether this index only allows unique values
+     * @param columns   index columns
+     */
+    public SortedIndex(String indexName, boolean unique, DataFrameColumn<?, ?>... columns) {
+        if (columns.length == 0) {
+            throw new DataFrameRuntimeException("at least one column is required for a sorted index");
+        }
+        this.name = indexName;
+        this.unique = unique;
+        this.columns = new ArrayList<>(Arrays.asList(columns));
+    }
+
+    public SortedIndex(String indexName, DataFrameColumn<?, ?>... columns) {
+        this(indexName, false, columns);
+    }
+
+    /**
+     * Creates an empty copy of this index using other columns
+     *
+     * @param columns index columns of the copy
+     * @return empty sorted index
+     */
+    public SortedIndex copy(DataFrameColumn<?, ?>... columns) {
+        return new SortedIndex(name, unique, columns);
+    }
+
+    @Override
+    public void update(DataRow dataRow) {
+        remove(dataRow);
+        add(createKey(dataRow), dataRow.getIndex());
+    }
+
+    private void add(Object[] key, int row) {
+        List<Integer> rows = keyMap.get(key);
+        if (rows == null) {
+            rows = new ArrayList<>(1);
+            keyMap.put(key, rows);
+        } else if (unique) {
+            throw new DataFrameRuntimeException(String.format("error adding row to index: duplicated values found '%s'", Arrays.toString(key)));
+        }
+        int position = Collections.binarySearch(rows, row);
+        if (position < 0) {
+            rows.add(-position - 1, row);
+        }
+        rowKeyMap.put(row, key);
+    }
+
+    @Override
+    public void remove(DataRow dataRow) {
+        Object[] key = rowKeyMap.remove(dataRow.getIndex());
+        if (key == null) {
+            return;
+        }
+        List<Integer> rows = keyMap.get(key);
+        int position = Collections.binarySearch(rows, dataRow.getIndex());
+        if (position >= 0) {
+            rows.remove(position);
+        }
+        if (rows.isEmpty()) {
+            keyMap.remove(key);
+        }
+    }
+
+    /**
+     * Builds this index from the index columns of a data frame without creating data rows.
+     *
+     * @param dataFrame data frame containing the index columns
+     */
+    @Override
+    public void build(DataFrame dataFrame) {
+        clear();
+        DataFrameColumn<?, ?>[] frameColumns = new DataFrameColumn<?, ?>[columns.size()];
+        for (int i = 0; i < frameColumns.length; i++) {
+            frameColumns[i] = dataFrame.getColumn(columns.get(i).getName());
+        }
+        for (int row = 0, size = dataFrame.size(); row < size; row++) {
+            Object[] key = new Object[frameColumns.length];
+            for (int c = 0; c < key.length; c++) {
+                Object value = frameColumns[c].get(row);
+                key[c] = Values.NA.isNA(value) ? Values.NA : value;
+            }
+            add(key, row);
+        }
+    }
+
+    private Object[] createKey(DataRow dataRow) {
+        Object[] key = new Object[columns.size()];
+        for (int i = 0; i < key.length; i++) {
+            Object value = dataRow.get(columns.get(i).getName());
+            key[i] = Values.NA.isNA(value) ? Values.NA : value;
+        }
+        return key;
+    }
+
+    @Override
+    public Collection<Integer> find(Object... values) {
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException("value for each index column required");
+        }
+        List<Integer> rows = keyMap.get(values);
+        return rows == null ? new ArrayList<>(0) : new ArrayList<>(rows);
+    }
+
+    /**
+     * Returns the rows whose values in the leading index columns are equal to the specified values.
+     * The rows are returned in key order.
+     *
+     * @param values values of the leading index columns
+     * @return row numbers matching the prefix
+     */
+    public List<Integer> findPrefix(Object... values) {
+        if (values.length == 0 || values.length > columns.size()) {
+            throw new IllegalArgumentException(String.format("between 1 and %d prefix values required", columns.size()));
+        }
+        return collect(keyMap.subMap(createBound(values, MIN_VALUE), true, createBound(values, MAX_VALUE), true));
+    }
+
+    /**
+     * Returns the rows whose value in the first index column is within a range.
+     * The rows are returned in key order.
+     *
+     * @param low           lower bound or <tt>null</tt>
+     * @param lowInclusive  <tt>true</tt> if the lower bound is included
+     * @param high          upper bound or <tt>null</tt>
+     * @param highInclusive <tt>true</tt> if the upper bound is included
+     * @return row numbers within the range
+     */
+    @Override
+    public List<Integer> findRange(Object low, boolean lowInclusive, Object high, boolean highInclusive) {
+        if (Values.NA.isNA(low) && low != null || Values.NA.isNA(high) && high != null) {
+            return new ArrayList<>(0);
+        }
+        Object[] from = low == null
+                ? createBound(new Object[]{Values.NA}, MAX_VALUE)
+                : createBound(new Object[]{low}, lowInclusive ? MIN_VALUE : MAX_VALUE);
+        Object[] to = high == null
+                ? createBound(new Object[]{MAX_VALUE}, MAX_VALUE)
+                : createBound(new Object[]{high}, highInclusive ? MAX_VALUE : MIN_VALUE);
+        if (low == null) {
+            lowInclusive = false;
+        }
+        if (compareKeys(from, to) > 0) {
+            return new ArrayList<>(0);
+        }
+        return collect(keyMap.subMap(from, lowInclusive, to, highInclusive));
+    }
+
+    /**
+     * Returns all rows of this index in ascending key order
+     *
+     * @return ordered row numbers
+     */
+    public List<Integer> getSortedRows() {
+        return collect(keyMap);
+    }
+
+    /**
+     * Returns all rows of this index in descending key order.
+     * Rows with equal keys are ordered by row number.
+     *
+     * @return ordered row numbers
+     */
+    public List<Integer> getDescendingRows() {
+        return collect(keyMap.descendingMap());
+    }
+
+    private Object[] createBound(Object[] prefix, Object fill) {
+        Object[] bound = new Object[columns.size()];
+        System.arraycopy(prefix, 0, bound, 0, prefix.length);
+        Arrays.fill(bound, prefix.length, bound.length, fill);
+        return bound;
+    }
+
+    private static List<Integer> collect(Map<Object[], List<Integer>> map) {
+        List<Integer> rows = new ArrayList<>();
+        for (List<Integer> keyRows : map.values()) {
+            rows.addAll(keyRows);
+        }
+        return rows;
+    }
+
+    private static int compareKeys(Object[] a, Object[] b) {
+        for (int i = 0, l = Math.min(a.length, b.length); i < l; i++) {
+            int c = compareValues(a[i], b[i]);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object a, Object b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == MIN_VALUE || b == MAX_VALUE) {
+            return -1;
+        }
+        if (a == MAX_VALUE || b == MIN_VALUE) {
+            return 1;
+        }
+        boolean naA = Values.NA.isNA(a);
+        boolean naB = Values.NA.isNA(b);
+        if (naA || naB) {
+            return naA && naB ? 0 : (naA ? -1 : 1);
+        }
+        if (a instanceof Number && b instanceof Number && a.getClass() != b.getClass()) {
+            Number numberA = (Number) a;
+            Number numberB = (Number) b;
+            if (isIntegral(numberA) && isIntegral(numberB)) {
+                return Long.compare(numberA.longValue(), numberB.longValue());
+            }
+            return Double.compare(numberA.doubleValue(), numberB.doubleValue());
+        }
+        try {
+            return ((Comparable<Object>) a).compareTo(b);
+        } catch (ClassCastException e) {
+            throw new DataFrameRuntimeException(String.format("values can not be compared: '%s' and '%s'", a, b), e);
+        }
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void setUnique(boolean unique) {
+        this.unique = unique;
+    }
+
+    @Override
+    public boolean containsColumn(DataFrameColumn<?, ?> column) {
+        return columns.contains(column);
+    }
+
+    @Override
+    public boolean isUnique() {
+        return unique;
+    }
+
+    @Override
+    public boolean isKeyIndex() {
+        return true;
+    }
+
+    @Override
+    public List<DataFrameColumn<?, ?>> getColumns() {
+        return new ArrayList<>(columns);
+    }
+
+    @Override
+    public void clear() {
+        keyMap.clear();
+        rowKeyMap.clear();
+    }
+
+    @Override
+    public void replaceColumn(DataFrameColumn<?, ?> existing, DataFrameColumn<?, ?> replacement) {
+        int index = columns.indexOf(existing);
+        if (index == -1) {
+            throw new DataFrameRuntimeException(String.format("column not found: %s", existing.getName()));
+        }
+        columns.set(index, replacement);
+    }
+}
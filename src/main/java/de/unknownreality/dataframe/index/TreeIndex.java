@@ -24,9 +24,11 @@
 
 package de.unknownreality.dataframe.index;
 
+import de.unknownreality.dataframe.DataFrame;
 import de.unknownreality.dataframe.DataFrameColumn;
 import de.unknownreality.dataframe.DataFrameRuntimeException;
 import de.unknownreality.dataframe.DataRow;
+import de.unknownreality.dataframe.Values;
 
 import java.util.*;
 
@@ -87,6 +89,11 @@ public class TreeIndex implements Index {
         return unique;
     }
 
+    @Override
+    public boolean isKeyIndex() {
+        return true;
+    }
+
     @Override
     public void replaceColumn(DataFrameColumn<?, ?> existing, DataFrameColumn<?, ?> replacement) {
         Integer index = columnIndexMap.get(existing);
@@ -109,6 +116,29 @@ public class TreeIndex implements Index {
         addRec(root, 0, values, dataRow.getIndex());
     }
 
+    /**
+     * Builds this index from the index columns of a data frame without creating data rows.
+     *
+     * @param dataFrame data frame containing the index columns
+     */
+    @Override
+    public void build(DataFrame dataFrame) {
+        clear();
+        DataFrameColumn<?, ?>[] columns = new DataFrameColumn<?, ?>[columnIndexMap.size()];
+        int i = 0;
+        for (DataFrameColumn<?, ?> column : columnIndexMap.keySet()) {
+            columns[i++] = dataFrame.getColumn(column.getName());
+        }
+        Object[] values = new Object[columns.length];
+        for (int row = 0, size = dataFrame.size(); row < size; row++) {
+            for (int c = 0; c < columns.length; c++) {
+                Object value = columns[c].get(row);
+                values[c] = value == null ? Values.NA : value;
+            }
+            addRec(root, 0, values, row);
+        }
+    }
+
     private void addRec(TreeNode node, int index, Object[] values, Integer rowIndex) {
         if (index == values.length) {
             if (unique && node.hasIndices()) {
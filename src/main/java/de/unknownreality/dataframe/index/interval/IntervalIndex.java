@@ -32,34 +32,78 @@ import de.unknownreality.dataframe.column.NumberColumn;
 import de.unknownreality.dataframe.index.Index;
 
 import java.util.*;
+import java.util.function.IntConsumer;
 
+/**
+ * Index of closed intervals defined by a start and an end column.
+ * <p>
+ * A {@link Mode#Dynamic} index adds each updated row to a randomized {@link IntervalSearchTree}.
+ * A {@link Mode#Static} index is built in one pass into a {@link StaticIntervalTree} of primitive arrays,
+ * modifications only invalidate the tree and it is rebuilt from the index columns at the next query.
+ * Rows removed with {@link #remove(DataRow)} are left out until they are updated again.
+ * Static indices are suited for data that is loaded once and queried often.
+ * </p>
+ */
 public class IntervalIndex implements Index {
+    public enum Mode {
+        Dynamic,
+        Static
+    }
+
     private final Map<Integer, Interval> intervalMap = new HashMap<>();
     private final IntervalSearchTree<Integer> intervalSearchTree = new IntervalSearchTree<>();
     private NumberColumn<?, ?> startColumn;
     private NumberColumn<?, ?> endColumn;
     private final String name;
+    private final Mode mode;
+    private StaticIntervalTree staticTree;
+    private final BitSet removedRows = new BitSet();
 
     public static IntervalIndex create(DataFrame dataFrame, String name, String startColumn, String endColumn) {
-        return new IntervalIndex(name, dataFrame.getNumberColumn(startColumn), dataFrame.getNumberColumn(endColumn));
+        return create(dataFrame, name, startColumn, endColumn, Mode.Dynamic);
+    }
+
+    public static IntervalIndex create(DataFrame dataFrame, String name, String startColumn, String endColumn, Mode mode) {
+        return new IntervalIndex(name, dataFrame.getNumberColumn(startColumn), dataFrame.getNumberColumn(endColumn), mode);
     }
 
     public static IntervalIndex create(String name, NumberColumn<?, ?> startColumn, NumberColumn<?, ?> endColumn) {
         return new IntervalIndex(name, startColumn, endColumn);
     }
 
+    public static IntervalIndex create(String name, NumberColumn<?, ?> startColumn, NumberColumn<?, ?> endColumn, Mode mode) {
+        return new IntervalIndex(name, startColumn, endColumn, mode);
+    }
+
     public IntervalIndex(String name, NumberColumn<?, ?> startColumn, NumberColumn<?, ?> endColumn) {
+        this(name, startColumn, endColumn, Mode.Dynamic);
+    }
+
+    public IntervalIndex(String name, NumberColumn<?, ?> startColumn, NumberColumn<?, ?> endColumn, Mode mode) {
         this.name = name;
         this.startColumn = startColumn;
         this.endColumn = endColumn;
+        this.mode = mode;
+    }
+
+    /**
+     * Returns the mode of this index
+     *
+     * @return index mode
+     */
+    public Mode getMode() {
+        return mode;
     }
 
     @Override
     public void update(DataRow dataRow) {
-        if (intervalMap.containsKey(dataRow.getIndex())) {
-            Interval interval = intervalMap.get(dataRow.getIndex());
-            intervalSearchTree.remove(interval);
+        if (mode == Mode.Static) {
+            resolveColumns(dataRow.getDataFrame());
+            removedRows.clear(dataRow.getIndex());
+            staticTree = null;
+            return;
         }
+        remove(dataRow);
         Interval interval = createInterval(dataRow);
         intervalMap.put(dataRow.getIndex(), interval);
         intervalSearchTree.add(interval, dataRow.getIndex());
@@ -67,9 +111,14 @@ public class IntervalIndex implements Index {
 
     @Override
     public void remove(DataRow dataRow) {
-        if (intervalMap.containsKey(dataRow.getIndex())) {
-            Interval interval = intervalMap.get(dataRow.getIndex());
-            intervalSearchTree.remove(interval);
+        if (mode == Mode.Static) {
+            removedRows.set(dataRow.getIndex());
+            staticTree = null;
+            return;
+        }
+        Interval interval = intervalMap.remove(dataRow.getIndex());
+        if (interval != null) {
+            intervalSearchTree.remove(interval, dataRow.getIndex());
         }
     }
 
@@ -85,6 +134,11 @@ public class IntervalIndex implements Index {
             if (!(values[0] instanceof Number)) {
                 throw new DataFrameRuntimeException("stab value must be a number for interval search");
             }
+            if (mode == Mode.Static) {
+                List<Integer> rows = new ArrayList<>();
+                getStaticTree().stab(((Number) values[0]).doubleValue(), rows::add);
+                return rows;
+            }
             return intervalSearchTree.stab((Number) values[0]);
 
         }
@@ -95,9 +149,89 @@ public class IntervalIndex implements Index {
             throw new DataFrameRuntimeException("start and end values must be numbers for interval search");
 
         }
+        if (mode == Mode.Static) {
+            List<Integer> rows = new ArrayList<>();
+            getStaticTree().searchOverlaps(((Number) values[0]).doubleValue(), ((Number) values[1]).doubleValue(), rows::add);
+            return rows;
+        }
         return intervalSearchTree.searchAll((Number)values[0],(Number)values[1]);
     }
 
+    /**
+     * Returns the number of intervals containing a value
+     *
+     * @param value stab value
+     * @return number of intervals
+     */
+    public int count(Number value) {
+        if (mode == Mode.Static) {
+            return getStaticTree().countStab(value.doubleValue());
+        }
+        return intervalSearchTree.stab(value).size();
+    }
+
+    /**
+     * Returns the number of intervals overlapping the interval <tt>[low, high]</tt>
+     *
+     * @param low  start of the query interval
+     * @param high end of the query interval
+     * @return number of intervals
+     */
+    public int count(Number low, Number high) {
+        if (mode == Mode.Static) {
+            return getStaticTree().countOverlaps(low.doubleValue(), high.doubleValue());
+        }
+        return intervalSearchTree.searchAll(low, high).size();
+    }
+
+    /**
+     * Passes the row of each interval containing a value to a consumer.
+     * Static indices do not allocate objects for the search.
+     *
+     * @param value    stab value
+     * @param consumer row consumer
+     */
+    public void stab(Number value, IntConsumer consumer) {
+        if (mode == Mode.Static) {
+            getStaticTree().stab(value.doubleValue(), consumer);
+            return;
+        }
+        for (Integer row : intervalSearchTree.stab(value)) {
+            consumer.accept(row);
+        }
+    }
+
+    /**
+     * Passes the row of each interval overlapping the interval <tt>[low, high]</tt> to a consumer.
+     * Static indices do not allocate objects for the search.
+     *
+     * @param low      start of the query interval
+     * @param high     end of the query interval
+     * @param consumer row consumer
+     */
+    public void search(Number low, Number high, IntConsumer consumer) {
+        if (mode == Mode.Static) {
+            getStaticTree().searchOverlaps(low.doubleValue(), high.doubleValue(), consumer);
+            return;
+        }
+        for (Integer row : intervalSearchTree.searchAll(low, high)) {
+            consumer.accept(row);
+        }
+    }
+
+    private StaticIntervalTree getStaticTree() {
+        if (staticTree == null) {
+            staticTree = StaticIntervalTree.create(startColumn, endColumn,
+                    Math.min(startColumn.size(), endColumn.size()), removedRows);
+        }
+        return staticTree;
+    }
+
+    private void resolveColumns(DataFrame dataFrame) {
+        startColumn = dataFrame.getNumberColumn(startColumn.getName());
+        endColumn = dataFrame.getNumberColumn(endColumn.getName());
+    }
+
     @Override
     public String getName() {
         return name;
@@ -128,6 +262,8 @@ public class IntervalIndex implements Index {
 
     @Override
     public void clear() {
+        staticTree = null;
+        removedRows.clear();
         intervalMap.clear();
         intervalSearchTree.clear();
     }
@@ -144,10 +280,32 @@ public class IntervalIndex implements Index {
         if (endColumn == existing) {
             endColumn = (NumberColumn<?, ?>) replacement;
         }
-        for (int i = 0; i < startColumn.size(); i++) {
-            Interval interval = new Interval(startColumn.get(i),endColumn.get(i));
-            intervalMap.put(i,interval);
-            intervalSearchTree.add(interval,i);
+        if (mode == Mode.Dynamic) {
+            addAll(startColumn.size());
+        }
+    }
+
+    /**
+     * Builds this index from the start and end columns without creating data rows.
+     *
+     * @param dataFrame data frame containing the index columns
+     */
+    @Override
+    public void build(DataFrame dataFrame) {
+        clear();
+        resolveColumns(dataFrame);
+        if (mode == Mode.Static) {
+            staticTree = StaticIntervalTree.create(startColumn, endColumn, dataFrame.size());
+            return;
+        }
+        addAll(dataFrame.size());
+    }
+
+    private void addAll(int size) {
+        for (int i = 0; i < size; i++) {
+            Interval interval = new Interval(startColumn.get(i), endColumn.get(i));
+            intervalMap.put(i, interval);
+            intervalSearchTree.add(interval, i);
         }
     }
 }
@@ -27,6 +27,7 @@ package de.unknownreality.dataframe.index.interval;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
 
 import static de.unknownreality.dataframe.common.NumberUtil.*;
@@ -171,6 +172,35 @@ public class IntervalSearchTree<T> {
         return node;
     }
 
+    /**
+     * Removes an interval with a specific value.
+     * Other entries with an equal interval are kept.
+     *
+     * @param interval interval to remove
+     * @param value    value of the removed interval
+     */
+    public void remove(Interval interval, T value) {
+        root = remove(root, interval, value);
+    }
+
+    private IntervalNode<T> remove(IntervalNode<T> node, Interval interval, T value) {
+        if (node == null) return null;
+        int c = interval.compareTo(node.getInterval());
+        if (c < 0) {
+            node.setLeft(remove(node.getLeft(), interval, value));
+        } else if (c > 0) {
+            node.setRight(remove(node.getRight(), interval, value));
+        } else if (Objects.equals(value, node.getValue())) {
+            node = joinLeftRight(node.getLeft(), node.getRight());
+        } else {
+            // rotations can move equal intervals into both subtrees
+            node.setLeft(remove(node.getLeft(), interval, value));
+            node.setRight(remove(node.getRight(), interval, value));
+        }
+        updateNode(node);
+        return node;
+    }
+
     private IntervalNode<T> joinLeftRight(IntervalNode<T> a, IntervalNode<T> b) {
         if (a == null) return b;
         if (b == null) return a;
@@ -181,7 +211,7 @@ public class IntervalSearchTree<T> {
             return a;
         }
         else {
-            a.setRight(joinLeftRight(a, b.getLeft()));
+            b.setLeft(joinLeftRight(a, b.getLeft()));
             updateNode(b);
             return b;
         }
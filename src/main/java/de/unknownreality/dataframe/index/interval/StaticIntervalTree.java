@@ -0,0 +1,210 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+
+package de.unknownreality.dataframe.index.interval;
+
+import de.unknownreality.dataframe.column.NumberColumn;
+import de.unknownreality.dataframe.sort.IndexSorter;
+
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable interval tree built from primitive start and end arrays.
+ * <p>
+ * The intervals are sorted by their start values and stored in arrays that form an implicit balanced
+ * binary search tree: the root of a range is its middle element. Each element stores the maximum end value
+ * of its subtree, so subtrees that end before a query value are skipped.
+ * Queries visit or count the found rows without allocating objects.
+ * </p>
+ * <p>
+ * Intervals are closed, start and end values are compared as <tt>double</tt> values.
+ * </p>
+ */
+public class StaticIntervalTree {
+    private final double[] starts;
+    private final double[] ends;
+    private final double[] maxEnds;
+    private final int[] rows;
+
+    /**
+     * Creates a tree for the rows of a start and an end column.
+     * Rows with a NA start or end value are not added.
+     *
+     * @param startColumn start column
+     * @param endColumn   end column
+     * @param size        number of rows
+     * @return static interval tree
+     */
+    public static StaticIntervalTree create(NumberColumn<?, ?> startColumn, NumberColumn<?, ?> endColumn, int size) {
+        return create(startColumn, endColumn, size, null);
+    }
+
+    /**
+     * Creates a tree for the rows of a start and an end column.
+     * Rows with a NA start or end value and excluded rows are not added.
+     *
+     * @param startColumn  start column
+     * @param endColumn    end column
+     * @param size         number of rows
+     * @param excludedRows rows that are not added or <tt>null</tt>
+     * @return static interval tree
+     */
+    public static StaticIntervalTree create(NumberColumn<?, ?> startColumn, NumberColumn<?, ?> endColumn, int size,
+                                            BitSet excludedRows) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (!startColumn.isNA(i) && !endColumn.isNA(i) && (excludedRows == null || !excludedRows.get(i))) {
+                count++;
+            }
+        }
+        double[] starts = new double[count];
+        double[] ends = new double[count];
+        int[] rows = new int[count];
+        count = 0;
+        for (int i = 0; i < size; i++) {
+            if (!startColumn.isNA(i) && !endColumn.isNA(i) && (excludedRows == null || !excludedRows.get(i))) {
+                starts[count] = startColumn.getDouble(i);
+                ends[count] = endColumn.getDouble(i);
+                rows[count++] = i;
+            }
+        }
+        return new StaticIntervalTree(starts, ends, rows);
+    }
+
+    /**
+     * Creates a tree from interval arrays of equal length.
+     * The arrays are not modified.
+     *
+     * @param starts start values
+     * @param ends   end values
+     * @param rows   row numbers of the intervals
+     */
+    public StaticIntervalTree(double[] starts, double[] ends, int[] rows) {
+        if (starts.length != ends.length || starts.length != rows.length) {
+            throw new IllegalArgumentException("start, end and row arrays must have the same length");
+        }
+        int size = starts.length;
+        int[] order = IndexSorter.argsort(size, (a, b) -> {
+            int c = Double.compare(starts[a], starts[b]);
+            return c != 0 ? c : Double.compare(ends[a], ends[b]);
+        });
+        this.starts = new double[size];
+        this.ends = new double[size];
+        this.rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            this.starts[i] = starts[order[i]];
+            this.ends[i] = ends[order[i]];
+            this.rows[i] = rows[order[i]];
+        }
+        this.maxEnds = new double[size];
+        computeMaxEnds(0, size);
+    }
+
+    private double computeMaxEnds(int from, int to) {
+        if (from >= to) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        int mid = (from + to) >>> 1;
+        double max = Math.max(ends[mid], Math.max(computeMaxEnds(from, mid), computeMaxEnds(mid + 1, to)));
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    /**
+     * Returns the number of intervals in this tree
+     *
+     * @return number of intervals
+     */
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Returns the number of intervals containing a value
+     *
+     * @param value stab value
+     * @return number of intervals
+     */
+    public int countStab(double value) {
+        return search(0, rows.length, value, value, null);
+    }
+
+    /**
+     * Passes the row of each interval containing a value to a consumer
+     *
+     * @param value    stab value
+     * @param consumer row consumer
+     * @return number of intervals
+     */
+    public int stab(double value, IntConsumer consumer) {
+        return search(0, rows.length, value, value, consumer);
+    }
+
+    /**
+     * Returns the number of intervals overlapping the interval <tt>[low, high]</tt>
+     *
+     * @param low  start of the query interval
+     * @param high end of the query interval
+     * @return number of intervals
+     */
+    public int countOverlaps(double low, double high) {
+        return search(0, rows.length, low, high, null);
+    }
+
+    /**
+     * Passes the row of each interval overlapping the interval <tt>[low, high]</tt> to a consumer
+     *
+     * @param low      start of the query interval
+     * @param high     end of the query interval
+     * @param consumer row consumer
+     * @return number of intervals
+     */
+    public int searchOverlaps(double low, double high, IntConsumer consumer) {
+        return search(0, rows.length, low, high, consumer);
+    }
+
+    private int search(int from, int to, double low, double high, IntConsumer consumer) {
+        int count = 0;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (maxEnds[mid] < low) {
+                return count;
+            }
+            count += search(from, mid, low, high, consumer);
+            if (starts[mid] > high) {
+                return count;
+            }
+            if (ends[mid] >= low) {
+                count++;
+                if (consumer != null) {
+                    consumer.accept(rows[mid]);
+                }
+            }
+            from = mid + 1;
+        }
+        return count;
+    }
+}
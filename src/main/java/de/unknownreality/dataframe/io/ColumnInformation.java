@@ -39,10 +39,20 @@ public class ColumnInformation {
     private Class<? extends DataFrameColumn> columnType;
 
 
+    /**
+     * Creates column information for a value type.
+     * If a column class is provided instead of a value type, it is used as column type.
+     *
+     * @param index column index
+     * @param name  column name
+     * @param type  value type or column class
+     */
     public ColumnInformation(int index, String name, Class<?> type) {
         this.index = index;
         this.name = name;
-        this.columnType = DataFrameTypeManager.get().getColumnType(type);
+        this.columnType = DataFrameColumn.class.isAssignableFrom(type)
+                ? type.asSubclass(DataFrameColumn.class)
+                : DataFrameTypeManager.get().getColumnType(type);
         if (columnType == null) {
             throw new DataFrameRuntimeException(String.format("no column type found for value type '%s'", type));
         }
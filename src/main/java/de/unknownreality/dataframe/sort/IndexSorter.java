@@ -0,0 +1,407 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.sort;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameColumn;
+import de.unknownreality.dataframe.DataFrameRuntimeException;
+import de.unknownreality.dataframe.column.NumberColumn;
+import de.unknownreality.dataframe.type.ValueType;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes sort permutations (argsort) directly on the columns of a data frame.
+ * <p>
+ * Comparators are resolved once per sort column. Number columns are compared as primitives without boxing.
+ * NA values are always sorted to the end, independent of the sort direction.
+ * The sort is stable. Large sorts run in parallel, see {@link #setParallelThreshold(int)}.
+ * </p>
+ */
+public class IndexSorter {
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final int KEY_SORT_THRESHOLD = 64;
+    private static final int MIN_PARALLEL_RUN = 1 << 13;
+    private static volatile int parallelThreshold = 1 << 17;
+
+    private IndexSorter() {
+    }
+
+    /**
+     * Returns the row order of a data frame sorted by the specified columns.
+     * A single number column is sorted with a radix sort, multiple columns and string columns are sorted
+     * by {@link NormalizedKeys normalized keys}. Other columns are sorted using their value comparators.
+     *
+     * @param dataFrame   data frame
+     * @param sortColumns sort columns
+     * @return source row index for each sorted position
+     */
+    public static int[] argsort(DataFrame dataFrame, SortColumn... sortColumns) {
+        int size = dataFrame.size();
+        if (size < KEY_SORT_THRESHOLD || sortColumns.length == 0) {
+            return argsort(size, comparator(dataFrame, sortColumns));
+        }
+        DataFrameColumn<?, ?>[] columns = new DataFrameColumn<?, ?>[sortColumns.length];
+        SortColumn.Direction[] directions = new SortColumn.Direction[sortColumns.length];
+        boolean supported = true;
+        for (int i = 0; i < sortColumns.length; i++) {
+            columns[i] = getColumn(dataFrame, sortColumns[i]);
+            directions[i] = sortColumns[i].getDirection();
+            supported &= NormalizedKeys.isSupported(columns[i]);
+        }
+        if (columns.length == 1 && columns[0] instanceof NumberColumn) {
+            return RadixSorter.argsort((NumberColumn<?, ?>) columns[0], directions[0]);
+        }
+        if (supported) {
+            return NormalizedKeys.argsort(columns, directions);
+        }
+        return argsort(size, comparator(dataFrame, sortColumns));
+    }
+
+    private static DataFrameColumn<?, ?> getColumn(DataFrame dataFrame, SortColumn sortColumn) {
+        DataFrameColumn<?, ?> column = dataFrame.getColumn(sortColumn.getName());
+        if (column == null) {
+            throw new DataFrameRuntimeException(String.format("sort column not found '%s'", sortColumn.getName()));
+        }
+        return column;
+    }
+
+    /**
+     * Returns the first <tt>n</tt> rows of the sort order defined by the sort columns.
+     * The rows are selected using a bounded heap, the data frame is not sorted.
+     * The result is the same as the first <tt>n</tt> rows of {@link #argsort(DataFrame, SortColumn...)}.
+     *
+     * @param dataFrame   data frame
+     * @param n           maximum number of rows
+     * @param sortColumns sort columns
+     * @return indices of the selected rows in sort order
+     */
+    public static int[] top(DataFrame dataFrame, int n, SortColumn... sortColumns) {
+        if (n < 0) {
+            throw new DataFrameRuntimeException(String.format("number of rows must not be negative: %d", n));
+        }
+        int size = dataFrame.size();
+        IndexComparator columnComparator = comparator(dataFrame, sortColumns);
+        IndexComparator comparator = (a, b) -> {
+            int c = columnComparator.compare(a, b);
+            return c != 0 ? c : Integer.compare(a, b);
+        };
+        int[] heap = new int[Math.min(n, size)];
+        int heapSize = 0;
+        for (int row = 0; row < size; row++) {
+            if (heapSize < heap.length) {
+                heap[heapSize] = row;
+                siftUp(heap, heapSize++, comparator);
+            } else if (heapSize > 0 && comparator.compare(row, heap[0]) < 0) {
+                heap[0] = row;
+                siftDown(heap, heapSize, comparator);
+            }
+        }
+        sort(heap, 0, heapSize, comparator);
+        return heap;
+    }
+
+    /**
+     * Returns the last <tt>n</tt> rows of the sort order defined by the sort columns, last row first.
+     * This is the same as {@link #top(DataFrame, int, SortColumn...)} with inverted sort directions.
+     * NA values are still sorted to the end.
+     *
+     * @param dataFrame   data frame
+     * @param n           maximum number of rows
+     * @param sortColumns sort columns
+     * @return indices of the selected rows in inverted sort order
+     */
+    public static int[] bottom(DataFrame dataFrame, int n, SortColumn... sortColumns) {
+        SortColumn[] inverted = new SortColumn[sortColumns.length];
+        for (int i = 0; i < sortColumns.length; i++) {
+            SortColumn.Direction direction = sortColumns[i].getDirection() == SortColumn.Direction.Ascending
+                    ? SortColumn.Direction.Descending : SortColumn.Direction.Ascending;
+            inverted[i] = new SortColumn(sortColumns[i].getName(), direction);
+        }
+        return top(dataFrame, n, inverted);
+    }
+
+    /**
+     * Restores the max-heap property after a value was added at the specified position
+     */
+    private static void siftUp(int[] heap, int index, IndexComparator comparator) {
+        int value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (comparator.compare(value, heap[parent]) <= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    /**
+     * Restores the max-heap property after the root was replaced
+     */
+    private static void siftDown(int[] heap, int size, IndexComparator comparator) {
+        int value = heap[0];
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (comparator.compare(value, heap[child]) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    /**
+     * Returns the indices <tt>[0, size)</tt> sorted by a comparator
+     *
+     * @param size       number of indices
+     * @param comparator index comparator
+     * @return sorted indices
+     */
+    public static int[] argsort(int size, IndexComparator comparator) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        sort(order, 0, size, comparator);
+        return order;
+    }
+
+    /**
+     * Sorts a range of an index array using a comparator.
+     * The sort is a stable merge sort. Ranges above the {@link #getParallelThreshold() parallel threshold}
+     * are split into runs that are sorted in the common {@link ForkJoinPool} and merged.
+     *
+     * @param indices    indices to sort
+     * @param from       first index (inclusive)
+     * @param to         last index (exclusive)
+     * @param comparator index comparator
+     */
+    public static void sort(int[] indices, int from, int to, IndexComparator comparator) {
+        int length = to - from;
+        if (length < 2) {
+            return;
+        }
+        int[] buffer = new int[length];
+        if (isParallel(length)) {
+            int leafSize = Math.max(MIN_PARALLEL_RUN, length / (ForkJoinPool.getCommonPoolParallelism() * 4));
+            ForkJoinPool.commonPool().invoke(new SortTask(indices, buffer, from, from, to, comparator, leafSize));
+        } else {
+            mergeSort(indices, buffer, from, from, to, comparator);
+        }
+    }
+
+    /**
+     * Sets the minimum number of rows for parallel sorting.
+     * Sorts of data frames and columns with at least this number of rows use the common {@link ForkJoinPool}.
+     * Use {@link Integer#MAX_VALUE} to disable parallel sorting.
+     *
+     * @param threshold minimum number of rows
+     */
+    public static void setParallelThreshold(int threshold) {
+        if (threshold < 2) {
+            throw new DataFrameRuntimeException("parallel sort threshold must be at least 2");
+        }
+        parallelThreshold = threshold;
+    }
+
+    /**
+     * Returns the minimum number of rows for parallel sorting
+     *
+     * @return minimum number of rows
+     */
+    public static int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Returns <tt>true</tt> if a sort of the specified size should run in parallel
+     *
+     * @param size number of sorted values
+     * @return <tt>true</tt> if the sort should run in parallel
+     */
+    public static boolean isParallel(int size) {
+        return size >= parallelThreshold && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    private static void mergeSort(int[] indices, int[] buffer, int base, int from, int to, IndexComparator comparator) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(indices, from, to, comparator);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(indices, buffer, base, from, mid, comparator);
+        mergeSort(indices, buffer, base, mid, to, comparator);
+        merge(indices, buffer, from - base, from, mid, to, comparator);
+    }
+
+    /**
+     * Merges the sorted ranges <tt>[from, mid)</tt> and <tt>[mid, to)</tt>.
+     *
+     * @param indices      indices
+     * @param buffer       buffer with at least <tt>bufferOffset + mid - from</tt> elements
+     * @param bufferOffset first buffer position used by this merge
+     * @param from         start of the first range
+     * @param mid          start of the second range
+     * @param to           end of the second range
+     * @param comparator   index comparator
+     */
+    static void merge(int[] indices, int[] buffer, int bufferOffset, int from, int mid, int to, IndexComparator comparator) {
+        if (comparator.compare(indices[mid - 1], indices[mid]) <= 0) {
+            return;
+        }
+        int leftLength = mid - from;
+        System.arraycopy(indices, from, buffer, bufferOffset, leftLength);
+        int left = bufferOffset;
+        int leftEnd = bufferOffset + leftLength;
+        int right = mid;
+        int target = from;
+        while (left < leftEnd && right < to) {
+            if (comparator.compare(indices[right], buffer[left]) < 0) {
+                indices[target++] = indices[right++];
+            } else {
+                indices[target++] = buffer[left++];
+            }
+        }
+        while (left < leftEnd) {
+            indices[target++] = buffer[left++];
+        }
+    }
+
+    private static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] indices;
+        private final int[] buffer;
+        private final int base;
+        private final int from;
+        private final int to;
+        private final IndexComparator comparator;
+        private final int leafSize;
+
+        SortTask(int[] indices, int[] buffer, int base, int from, int to, IndexComparator comparator, int leafSize) {
+            this.indices = indices;
+            this.buffer = buffer;
+            this.base = base;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                mergeSort(indices, buffer, base, from, to, comparator);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(indices, buffer, base, from, mid, comparator, leafSize),
+                    new SortTask(indices, buffer, base, mid, to, comparator, leafSize));
+            merge(indices, buffer, from - base, from, mid, to, comparator);
+        }
+    }
+
+    private static void insertionSort(int[] indices, int from, int to, IndexComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            int value = indices[i];
+            int j = i - 1;
+            while (j >= from && comparator.compare(indices[j], value) > 0) {
+                indices[j + 1] = indices[j];
+                j--;
+            }
+            indices[j + 1] = value;
+        }
+    }
+
+    /**
+     * Creates a comparator for the rows of a data frame using multiple sort columns
+     *
+     * @param dataFrame   data frame
+     * @param sortColumns sort columns
+     * @return row index comparator
+     */
+    public static IndexComparator comparator(DataFrame dataFrame, SortColumn... sortColumns) {
+        IndexComparator[] comparators = new IndexComparator[sortColumns.length];
+        for (int i = 0; i < sortColumns.length; i++) {
+            comparators[i] = comparator(getColumn(dataFrame, sortColumns[i]), sortColumns[i].getDirection());
+        }
+        if (comparators.length == 1) {
+            return comparators[0];
+        }
+        return (a, b) -> {
+            for (IndexComparator comparator : comparators) {
+                int c = comparator.compare(a, b);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * Creates a comparator for the values of a column.
+     * NA values are sorted to the end.
+     *
+     * @param column    column
+     * @param direction sort direction
+     * @return row index comparator
+     */
+    public static IndexComparator comparator(DataFrameColumn<?, ?> column, SortColumn.Direction direction) {
+        IndexComparator values = valueComparator(column);
+        int sign = direction == SortColumn.Direction.Descending ? -1 : 1;
+        return (a, b) -> {
+            boolean naA = column.isNA(a);
+            boolean naB = column.isNA(b);
+            if (naA || naB) {
+                return naA == naB ? 0 : (naA ? 1 : -1);
+            }
+            return sign * values.compare(a, b);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IndexComparator valueComparator(DataFrameColumn<?, ?> column) {
+        if (column instanceof NumberColumn) {
+            NumberColumn<?, ?> numberColumn = (NumberColumn<?, ?>) column;
+            if (numberColumn.isFloatingPoint()) {
+                return (a, b) -> Double.compare(numberColumn.getDouble(a), numberColumn.getDouble(b));
+            }
+            return (a, b) -> Long.compare(numberColumn.getLong(a), numberColumn.getLong(b));
+        }
+        DataFrameColumn<Object, ?> objectColumn = (DataFrameColumn<Object, ?>) column;
+        Comparator<Object> comparator = ((ValueType<Object>) column.getValueType()).getComparator();
+        return (a, b) -> comparator.compare(objectColumn.get(a), objectColumn.get(b));
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.sort;
+
+import de.unknownreality.dataframe.DataFrameColumn;
+import de.unknownreality.dataframe.column.NumberColumn;
+import de.unknownreality.dataframe.type.impl.BooleanType;
+import de.unknownreality.dataframe.type.impl.CharacterType;
+import de.unknownreality.dataframe.type.impl.StringType;
+
+import java.util.Arrays;
+
+/**
+ * Normalized byte keys for multi-column sorts.
+ * <p>
+ * The values of all sort columns of a row are encoded into one byte array.
+ * Comparing two keys lexicographically as unsigned bytes gives the same result as comparing
+ * the rows column by column, so a sort needs only one key comparison per row pair.
+ * Each column segment starts with a NA flag, NA values are sorted to the end independent of the direction.
+ * Descending columns are encoded with inverted bytes.
+ * Rows with fixed width keys (numbers, booleans, characters) are sorted with a radix sort,
+ * unless the sort runs in parallel.
+ * </p>
+ */
+public class NormalizedKeys {
+    private static final int NUMBER_WIDTH = 1 + Long.BYTES;
+    private static final int BOOLEAN_WIDTH = 2;
+    private static final int CHARACTER_WIDTH = 3;
+    private static final byte VALUE = 0;
+    private static final byte NA = 1;
+    private static final byte STRING_END = 0;
+    private static final byte STRING_CHAR = 1;
+
+    private NormalizedKeys() {
+    }
+
+    /**
+     * Returns <tt>true</tt> if the values of a column can be encoded as normalized keys.
+     * Only columns using the natural order of their values are supported.
+     *
+     * @param column column
+     * @return <tt>true</tt> if the column is supported
+     */
+    public static boolean isSupported(DataFrameColumn<?, ?> column) {
+        if (column instanceof NumberColumn) {
+            return true;
+        }
+        Class<?> typeClass = column.getValueType().getClass();
+        return typeClass == StringType.class || typeClass == BooleanType.class || typeClass == CharacterType.class;
+    }
+
+    private static boolean isString(DataFrameColumn<?, ?> column) {
+        return column.getValueType().getClass() == StringType.class;
+    }
+
+    private static int width(DataFrameColumn<?, ?> column) {
+        if (column instanceof NumberColumn) {
+            return NUMBER_WIDTH;
+        }
+        return column.getValueType().getClass() == BooleanType.class ? BOOLEAN_WIDTH : CHARACTER_WIDTH;
+    }
+
+    /**
+     * Returns the row order of columns sorted by normalized keys
+     *
+     * @param columns    supported sort columns, all with the same size
+     * @param directions sort direction for each column
+     * @return source row index for each sorted position
+     */
+    public static int[] argsort(DataFrameColumn<?, ?>[] columns, SortColumn.Direction[] directions) {
+        int size = columns[0].size();
+        for (DataFrameColumn<?, ?> column : columns) {
+            if (isString(column)) {
+                byte[][] keys = encodeVariable(columns, directions, size);
+                return IndexSorter.argsort(size, (a, b) -> compare(keys[a], keys[b]));
+            }
+        }
+        int width = 0;
+        for (DataFrameColumn<?, ?> column : columns) {
+            width += width(column);
+        }
+        byte[] keys = new byte[size * width];
+        int offset = 0;
+        for (int c = 0; c < columns.length; c++) {
+            boolean descending = directions[c] == SortColumn.Direction.Descending;
+            for (int row = 0; row < size; row++) {
+                encodeFixed(columns[c], row, descending, keys, row * width + offset);
+            }
+            offset += width(columns[c]);
+        }
+        if (IndexSorter.isParallel(size)) {
+            int keyWidth = width;
+            return IndexSorter.argsort(size, (a, b) -> compare(keys, a * keyWidth, b * keyWidth, keyWidth));
+        }
+        return RadixSorter.sort(keys, width, size);
+    }
+
+    /**
+     * Encodes the value of a fixed width column.
+     * The NA flag is never inverted, the value bytes of NA values are zero.
+     */
+    private static void encodeFixed(DataFrameColumn<?, ?> column, int row, boolean descending, byte[] target, int offset) {
+        if (column.isNA(row)) {
+            target[offset] = NA;
+            Arrays.fill(target, offset + 1, offset + width(column), (byte) 0);
+            return;
+        }
+        target[offset] = VALUE;
+        int mask = descending ? 0xFF : 0;
+        if (column instanceof NumberColumn) {
+            NumberColumn<?, ?> numberColumn = (NumberColumn<?, ?>) column;
+            long key = numberColumn.isFloatingPoint()
+                    ? RadixSorter.doubleKey(numberColumn.getDouble(row))
+                    : RadixSorter.longKey(numberColumn.getLong(row));
+            for (int i = 0; i < Long.BYTES; i++) {
+                target[offset + 1 + i] = (byte) ((key >>> ((Long.BYTES - 1 - i) << 3)) ^ mask);
+            }
+        } else if (column.getValueType().getClass() == BooleanType.class) {
+            target[offset + 1] = (byte) ((Boolean) column.get(row) ? 1 ^ mask : mask);
+        } else {
+            char value = (Character) column.get(row);
+            target[offset + 1] = (byte) ((value >>> 8) ^ mask);
+            target[offset + 2] = (byte) (value ^ mask);
+        }
+    }
+
+    private static byte[][] encodeVariable(DataFrameColumn<?, ?>[] columns, SortColumn.Direction[] directions, int size) {
+        byte[][] keys = new byte[size][];
+        int fixedWidth = 0;
+        for (DataFrameColumn<?, ?> column : columns) {
+            fixedWidth += isString(column) ? 1 : width(column);
+        }
+        byte[] buffer = new byte[fixedWidth + 64];
+        for (int row = 0; row < size; row++) {
+            int length = 0;
+            for (int c = 0; c < columns.length; c++) {
+                DataFrameColumn<?, ?> column = columns[c];
+                boolean descending = directions[c] == SortColumn.Direction.Descending;
+                if (!isString(column)) {
+                    buffer = ensureCapacity(buffer, length + width(column));
+                    encodeFixed(column, row, descending, buffer, length);
+                    length += width(column);
+                    continue;
+                }
+                if (column.isNA(row)) {
+                    buffer = ensureCapacity(buffer, length + 1);
+                    buffer[length++] = NA;
+                    continue;
+                }
+                String value = (String) column.get(row);
+                buffer = ensureCapacity(buffer, length + 2 + value.length() * 3);
+                buffer[length++] = VALUE;
+                int mask = descending ? 0xFF : 0;
+                for (int i = 0; i < value.length(); i++) {
+                    char ch = value.charAt(i);
+                    buffer[length++] = (byte) (STRING_CHAR ^ mask);
+                    buffer[length++] = (byte) ((ch >>> 8) ^ mask);
+                    buffer[length++] = (byte) (ch ^ mask);
+                }
+                buffer[length++] = (byte) (STRING_END ^ mask);
+            }
+            keys[row] = Arrays.copyOf(buffer, length);
+        }
+        return keys;
+    }
+
+    private static byte[] ensureCapacity(byte[] buffer, int capacity) {
+        return buffer.length >= capacity ? buffer : Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+    }
+
+    private static int compare(byte[] keys, int a, int b, int width) {
+        for (int i = 0; i < width; i++) {
+            int c = (keys[a + i] & 0xFF) - (keys[b + i] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compares two keys lexicographically as unsigned bytes
+     *
+     * @param a first key
+     * @param b second key
+     * @return comparison result
+     */
+    public static int compare(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int c = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return a.length - b.length;
+    }
+}
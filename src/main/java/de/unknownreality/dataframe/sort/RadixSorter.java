@@ -0,0 +1,222 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.sort;
+
+import de.unknownreality.dataframe.column.NumberColumn;
+
+import java.util.Arrays;
+
+/**
+ * Stable LSD radix sorts for row permutations.
+ * <p>
+ * Number values are mapped to unsigned 64 bit keys that preserve the order of
+ * {@link Long#compare(long, long)} and {@link Double#compare(double, double)}.
+ * Passes in which all keys share the same byte are skipped.
+ * Above the {@link IndexSorter#getParallelThreshold() parallel threshold} the keys are sorted with a parallel merge sort.
+ * </p>
+ */
+public class RadixSorter {
+    private static final int RADIX = 256;
+
+    private RadixSorter() {
+    }
+
+    /**
+     * Returns the row order of a number column sorted by value.
+     * NA values are sorted to the end, independent of the sort direction.
+     *
+     * @param column    number column
+     * @param direction sort direction
+     * @return source row index for each sorted position
+     */
+    public static int[] argsort(NumberColumn<?, ?> column, SortColumn.Direction direction) {
+        int size = column.size();
+        boolean floatingPoint = column.isFloatingPoint();
+        boolean descending = direction == SortColumn.Direction.Descending;
+        long[] keys = new long[size];
+        int[] order = new int[size];
+        int valueCount = 0;
+        int naCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (column.isNA(i)) {
+                naCount++;
+                continue;
+            }
+            long key = floatingPoint ? doubleKey(column.getDouble(i)) : longKey(column.getLong(i));
+            keys[valueCount] = descending ? ~key : key;
+            order[valueCount++] = i;
+        }
+        if (IndexSorter.isParallel(valueCount)) {
+            order = parallelSort(keys, order, valueCount, size);
+        } else {
+            sort(keys, order, valueCount);
+        }
+        if (naCount > 0) {
+            int index = valueCount;
+            for (int i = 0; i < size; i++) {
+                if (column.isNA(i)) {
+                    order[index++] = i;
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Sorts the values associated with unsigned keys with a parallel merge sort
+     *
+     * @param keys   unsigned keys
+     * @param values values associated with the keys
+     * @param length number of keys
+     * @param size   size of the returned array
+     * @return sorted values, followed by unused positions
+     */
+    private static int[] parallelSort(long[] keys, int[] values, int length, int size) {
+        int[] positions = IndexSorter.argsort(length, (a, b) -> Long.compareUnsigned(keys[a], keys[b]));
+        int[] sorted = new int[size];
+        for (int i = 0; i < length; i++) {
+            sorted[i] = values[positions[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * Maps a long value to a key with the same order if compared as unsigned value
+     *
+     * @param value value
+     * @return unsigned key
+     */
+    public static long longKey(long value) {
+        return value ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Maps a double value to a key with the same order as {@link Double#compare(double, double)}
+     * if compared as unsigned value
+     *
+     * @param value value
+     * @return unsigned key
+     */
+    public static long doubleKey(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Sorts the first <tt>length</tt> keys as unsigned values and rearranges the order array accordingly.
+     *
+     * @param keys   unsigned keys
+     * @param order  values associated with the keys
+     * @param length number of keys
+     */
+    public static void sort(long[] keys, int[] order, int length) {
+        if (length < 2) {
+            return;
+        }
+        int[][] counts = new int[Long.BYTES][RADIX];
+        for (int i = 0; i < length; i++) {
+            long key = keys[i];
+            for (int pass = 0; pass < Long.BYTES; pass++) {
+                counts[pass][(int) (key >>> (pass << 3)) & 0xFF]++;
+            }
+        }
+        long[] sourceKeys = keys;
+        int[] sourceOrder = order;
+        long[] targetKeys = new long[length];
+        int[] targetOrder = new int[length];
+        for (int pass = 0; pass < Long.BYTES; pass++) {
+            int shift = pass << 3;
+            int[] count = counts[pass];
+            if (count[(int) (sourceKeys[0] >>> shift) & 0xFF] == length) {
+                continue;
+            }
+            toOffsets(count);
+            for (int i = 0; i < length; i++) {
+                int target = count[(int) (sourceKeys[i] >>> shift) & 0xFF]++;
+                targetKeys[target] = sourceKeys[i];
+                targetOrder[target] = sourceOrder[i];
+            }
+            long[] tempKeys = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = tempKeys;
+            int[] tempOrder = sourceOrder;
+            sourceOrder = targetOrder;
+            targetOrder = tempOrder;
+        }
+        if (sourceKeys != keys) {
+            System.arraycopy(sourceKeys, 0, keys, 0, length);
+            System.arraycopy(sourceOrder, 0, order, 0, length);
+        }
+    }
+
+    /**
+     * Sorts row indices by fixed width byte keys.
+     * The key of row <tt>i</tt> is stored at <tt>keys[i * width, (i + 1) * width)</tt>.
+     * Keys are compared lexicographically as unsigned bytes.
+     *
+     * @param keys   flat key array
+     * @param width  key width in bytes
+     * @param length number of rows
+     * @return sorted row indices
+     */
+    public static int[] sort(byte[] keys, int width, int length) {
+        int[] order = new int[length];
+        for (int i = 0; i < length; i++) {
+            order[i] = i;
+        }
+        if (length < 2) {
+            return order;
+        }
+        int[] target = new int[length];
+        int[] count = new int[RADIX];
+        for (int position = width - 1; position >= 0; position--) {
+            Arrays.fill(count, 0);
+            for (int i = 0; i < length; i++) {
+                count[keys[i * width + position] & 0xFF]++;
+            }
+            if (count[keys[position] & 0xFF] == length) {
+                continue;
+            }
+            toOffsets(count);
+            for (int i = 0; i < length; i++) {
+                int row = order[i];
+                target[count[keys[row * width + position] & 0xFF]++] = row;
+            }
+            int[] temp = order;
+            order = target;
+            target = temp;
+        }
+        return order;
+    }
+
+    private static void toOffsets(int[] count) {
+        int offset = 0;
+        for (int i = 0; i < RADIX; i++) {
+            int c = count[i];
+            count[i] = offset;
+            offset += c;
+        }
+    }
+}
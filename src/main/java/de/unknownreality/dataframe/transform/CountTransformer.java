@@ -27,6 +27,7 @@ package de.unknownreality.dataframe.transform;
 import de.unknownreality.dataframe.DataFrame;
 import de.unknownreality.dataframe.DataFrameColumn;
 import de.unknownreality.dataframe.DefaultDataFrame;
+import de.unknownreality.dataframe.column.DictionaryStringColumn;
 import de.unknownreality.dataframe.column.IntegerColumn;
 
 import java.util.LinkedHashMap;
@@ -60,6 +61,12 @@ public class CountTransformer<T> implements ColumnDataFrameTransform<DataFrameCo
         valueColumn.setName(source.getName());
         IntegerColumn countColumn = new IntegerColumn(COUNTS_COLUMN);
 
+        if (source instanceof DictionaryStringColumn) {
+            countCodes((DictionaryStringColumn) source, valueColumn, countColumn);
+            countDataFrame.addColumn(valueColumn);
+            countDataFrame.addColumn(countColumn);
+            return countDataFrame;
+        }
         Map<T, Integer> counts = new LinkedHashMap<>();
         for (int i = 0; i < source.size(); i++) {
             if (ignoreNA && source.isNA(i)) {
@@ -79,4 +86,37 @@ public class CountTransformer<T> implements ColumnDataFrameTransform<DataFrameCo
         countDataFrame.addColumn(countColumn);
         return countDataFrame;
     }
+
+    /**
+     * Counts the values of a dictionary encoded column using the int codes.
+     * Values are appended in order of their first occurrence.
+     *
+     * @param source      input column
+     * @param valueColumn column the values are appended to
+     * @param countColumn column the counts are appended to
+     */
+    @SuppressWarnings("unchecked")
+    private void countCodes(DictionaryStringColumn source, DataFrameColumn<T, ?> valueColumn, IntegerColumn countColumn) {
+        int naIndex = source.getDictionarySize();
+        int[] counts = new int[naIndex + 1];
+        int[] order = new int[naIndex + 1];
+        int distinct = 0;
+        for (int i = 0; i < source.size(); i++) {
+            int code = source.getCode(i);
+            if (code == DictionaryStringColumn.NA_CODE) {
+                if (ignoreNA) {
+                    continue;
+                }
+                code = naIndex;
+            }
+            if (counts[code]++ == 0) {
+                order[distinct++] = code;
+            }
+        }
+        for (int i = 0; i < distinct; i++) {
+            int code = order[i];
+            valueColumn.append(code == naIndex ? null : (T) source.getDictionaryValue(code));
+            countColumn.append(counts[code]);
+        }
+    }
 }
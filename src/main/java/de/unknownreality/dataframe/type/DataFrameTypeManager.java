@@ -27,6 +27,7 @@ package de.unknownreality.dataframe.type;
 import de.unknownreality.dataframe.DataFrameColumn;
 import de.unknownreality.dataframe.DataFrameRuntimeException;
 import de.unknownreality.dataframe.column.*;
+import de.unknownreality.dataframe.column.storage.StorageMode;
 
 import java.lang.reflect.Array;
 import java.text.ParseException;
@@ -49,17 +50,28 @@ public class DataFrameTypeManager {
             new ByteColumn()
     );
 
+    /**
+     * Alternative column implementations for value types already covered by the default columns.
+     * They are only registered as column types and never returned for a value type.
+     */
+    private static final List<DataFrameColumn<?, ?>> ALTERNATIVE_COLUMN = Arrays.asList(
+            new DictionaryStringColumn(),
+            new Utf8StringColumn()
+    );
+
     private static final DataFrameTypeManager defaultInstance = createNew();
 
     private final Map<Class<?>, DataFrameColumn<?, ?>> columnValueTypeMap = new HashMap<>();
     private final Map<Class<? extends DataFrameColumn>, DataFrameColumn<?, ?>> columnTypesMap = new HashMap<>();
     private final List<Class<?>> customTypes = new ArrayList<>();
+    private StorageMode storageMode = StorageMode.HEAP;
 
     /**
      * Do not instantiate ColumnConverter.
      */
     private DataFrameTypeManager() {
         DEFAULT_COLUMN.forEach(this::add);
+        ALTERNATIVE_COLUMN.forEach(col -> this.columnTypesMap.put(col.getClass(), col));
     }
 
     private void add(DataFrameColumn<?, ?> col) {
@@ -131,6 +143,38 @@ public class DataFrameTypeManager {
         }
     }
 
+    /**
+     * Sets the storage mode of number columns created by this type manager.
+     * Existing columns are not changed.
+     *
+     * @param storageMode storage mode for new number columns
+     * @return <tt>self</tt> for method chaining
+     */
+    public DataFrameTypeManager setStorageMode(StorageMode storageMode) {
+        if (storageMode == null) {
+            throw new DataFrameRuntimeException("storage mode must not be null");
+        }
+        this.storageMode = storageMode;
+        return this;
+    }
+
+    /**
+     * Returns the storage mode of number columns created by this type manager
+     *
+     * @return storage mode for new number columns
+     */
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    private DataFrameColumn<?, ?> createEmpty(DataFrameColumn<?, ?> column) {
+        DataFrameColumn<?, ?> empty = column.copyEmpty();
+        if (empty instanceof NumberColumn) {
+            ((NumberColumn<?, ?>) empty).setStorageMode(storageMode);
+        }
+        return empty;
+    }
+
     public List<Class<?>> getCustomTypes() {
         return Collections.unmodifiableList(customTypes);
     }
@@ -148,19 +192,32 @@ public class DataFrameTypeManager {
         if (column == null) {
             throw new DataFrameRuntimeException(String.format("no column type found for value type '%s'", type.getCanonicalName()));
         }
-        return (DataFrameColumn<T, ?>) column.copyEmpty();
+        return (DataFrameColumn<T, ?>) createEmpty(column);
     }
 
     public <T> DataFrameColumn<T, ?> createColumn(ValueType<T> valueType) {
         return createColumnForType(valueType.getType());
     }
 
+    /**
+     * Returns an empty column of a registered column class.
+     * If the column class is not registered, a column for the value type is returned.
+     *
+     * @param columnClass column class
+     * @param valueType   column value type
+     * @return empty column
+     */
+    public DataFrameColumn<?, ?> createColumn(Class<?> columnClass, ValueType<?> valueType) {
+        DataFrameColumn<?, ?> column = columnTypesMap.get(columnClass);
+        return column == null ? createColumn(valueType) : createEmpty(column);
+    }
+
     public <T extends DataFrameColumn<?, T>> DataFrameColumn<?, ?> createColumn(Class<T> type) {
         DataFrameColumn<?, ?> column = columnTypesMap.get(type);
         if (column == null) {
             throw new DataFrameRuntimeException(String.format("no column type found for '%s'", type.getCanonicalName()));
         }
-        return column.copyEmpty();
+        return createEmpty(column);
     }
 
     /**
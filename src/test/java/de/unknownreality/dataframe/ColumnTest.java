@@ -31,12 +31,87 @@ import org.junit.Test;
 import java.text.ParseException;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Set;
 
 /**
  * Created by Alex on 08.06.2017.
  */
 public class ColumnTest {
+    @Test
+    public void testBooleanColumnBits() {
+        BooleanColumn a = new BooleanColumn("a");
+        BooleanColumn b = new BooleanColumn("b");
+        for (int i = 0; i < 150; i++) {
+            a.append(i % 2 == 0);
+            b.append(i % 3 == 0);
+        }
+        a.setNA(100);
+        Assert.assertEquals(74, a.cardinality());
+
+        BooleanColumn and = a.copy().and(b);
+        Assert.assertEquals(25, and.cardinality());
+        Assert.assertTrue(and.isNA(100));
+        Assert.assertEquals((Boolean) true, and.get(138));
+
+        BooleanColumn flipped = a.copy().flip();
+        Assert.assertEquals(75, flipped.cardinality());
+        Assert.assertTrue(flipped.isNA(100));
+        Assert.assertEquals(-1, flipped.nextSetBit(150));
+
+        int count = 0;
+        for (int i = b.nextSetBit(0); i >= 0; i = b.nextSetBit(i + 1)) {
+            Assert.assertEquals(0, i % 3);
+            count++;
+        }
+        Assert.assertEquals(50, count);
+        Assert.assertEquals(50, b.toIndices().length);
+        Assert.assertEquals(129, b.nextSetBit(127));
+
+        BooleanColumn shortColumn = new BooleanColumn("c", new Boolean[]{true, true});
+        BooleanColumn or = b.copy().or(shortColumn);
+        Assert.assertEquals(51, or.cardinality());
+
+        a.sort();
+        Assert.assertTrue(a.isNA(0));
+        Assert.assertEquals((Boolean) false, a.get(1));
+        Assert.assertEquals((Boolean) false, a.get(75));
+        Assert.assertEquals((Boolean) true, a.get(76));
+        Assert.assertEquals(74, a.cardinality());
+    }
+
+    @Test
+    public void testUtf8StringColumn() {
+        Utf8StringColumn column = new Utf8StringColumn("test",
+                new String[]{"b", null, "\u00e4pfel", "a", "b", "\ud83d\ude00"});
+        Assert.assertEquals(6, column.size());
+        Assert.assertEquals("\u00e4pfel", column.get(2));
+        Assert.assertNull(column.get(1));
+        Assert.assertEquals(6, column.getByteLength(2));
+        Assert.assertTrue(column.valueEquals(0, 4));
+        Assert.assertTrue(column.valueEquals(2, "\u00e4pfel"));
+        Assert.assertFalse(column.valueEquals(3, "ab"));
+        Assert.assertEquals(column.valueHashCode(0), column.valueHashCode(4));
+        Assert.assertTrue(column.contains("\ud83d\ude00"));
+        Assert.assertFalse(column.contains("c"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a", "b", "\u00e4pfel", "\ud83d\ude00")), column.uniq());
+
+        Utf8StringColumn copy = column.copy();
+        column.sort();
+        Assert.assertArrayEquals(new String[]{null, "a", "b", "b", "\u00e4pfel", "\ud83d\ude00"}, column.toArray());
+        Assert.assertEquals("b", copy.get(0));
+
+        for (int i = 0; i < 100; i++) {
+            copy.set(0, "value" + i);
+        }
+        Assert.assertEquals("value99", copy.get(0));
+        Assert.assertEquals("\u00e4pfel", copy.get(2));
+        copy.setNA(2);
+        Assert.assertTrue(copy.isNA(2));
+        Assert.assertEquals(6, copy.compact().size());
+        Assert.assertEquals("\ud83d\ude00", copy.get(5));
+    }
+
     @Test
     public void testBasicColumn() {
         IntegerColumn basicColumn = new IntegerColumn("test");
@@ -24,6 +24,13 @@
 
 package de.unknownreality.dataframe;
 
+import de.unknownreality.dataframe.column.DictionaryStringColumn;
+import de.unknownreality.dataframe.column.StringColumn;
+import de.unknownreality.dataframe.column.Utf8StringColumn;
+import de.unknownreality.dataframe.csv.CSVReader;
+import de.unknownreality.dataframe.csv.CSVReaderBuilder;
+import de.unknownreality.dataframe.group.DataGrouping;
+import de.unknownreality.dataframe.transform.CountTransformer;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -64,4 +71,76 @@ public class DataFrameConverterTest {
         Assert.assertEquals(String.class, df.getHeader().getValueType("v").getType());
         Assert.assertEquals(Boolean.class, df.getHeader().getValueType("b").getType());
     }
+
+    @Test
+    public void testDictionaryDetection() {
+        String[] categories = new String[]{"red", "green", "blue"};
+        StringBuilder csvString = new StringBuilder();
+        csvString.append("x;c;v\n");
+        for (int i = 0; i < 1000; i++) {
+            csvString.append(String.format(Locale.US, "%d;%s;%s", i, i % 10 == 9 ? "" : categories[i % 3], i + "s"));
+            csvString.append("\n");
+        }
+        DataFrame df = DataFrame.fromCSV(csvString.toString(), ';', true);
+        Assert.assertEquals(DictionaryStringColumn.class, df.getColumn("c").getClass());
+        Assert.assertEquals(StringColumn.class, df.getColumn("v").getClass());
+
+        DictionaryStringColumn column = (DictionaryStringColumn) df.getColumn("c");
+        Assert.assertEquals(3, column.getDictionarySize());
+        Assert.assertEquals("red", column.get(0));
+        Assert.assertTrue(column.isNA(9));
+        Assert.assertEquals(column.getCode("green"), column.getCode(1));
+
+        DataFrame red = df.select("c == 'red'");
+        Assert.assertEquals(300, red.size());
+        Assert.assertEquals(DictionaryStringColumn.class, red.getColumn("c").getClass());
+        Assert.assertEquals(700, df.select("c != 'red'").size());
+        Assert.assertEquals(0, df.select("c == 'yellow'").size());
+
+        DataGrouping grouping = df.groupBy("c");
+        Assert.assertEquals(4, grouping.size());
+        Assert.assertEquals(300, grouping.findByGroupValues("blue").getGroup().size());
+
+        DataFrame counts = column.transform(new CountTransformer(false));
+        Assert.assertEquals(4, counts.size());
+        Assert.assertEquals("red", counts.getRow(0).getString("c"));
+        Assert.assertEquals(300, (int) counts.getRow(0).getInteger(CountTransformer.COUNTS_COLUMN));
+        Assert.assertTrue(counts.getRow(3).isNA("c"));
+        Assert.assertEquals(100, (int) counts.getRow(3).getInteger(CountTransformer.COUNTS_COLUMN));
+
+        df.sort("c");
+        Assert.assertEquals("blue", df.getRow(0).getString("c"));
+        Assert.assertEquals("red", df.getRow(899).getString("c"));
+        Assert.assertTrue(df.getRow(900).isNA("c"));
+
+        column = (DictionaryStringColumn) df.getColumn("c");
+        column.sort();
+        Assert.assertTrue(column.isNA(99));
+        Assert.assertEquals("blue", column.get(100));
+        Assert.assertEquals("red", column.get(999));
+    }
+
+    @Test
+    public void testUtf8ColumnType() {
+        StringBuilder csvString = new StringBuilder();
+        csvString.append("x;v\n");
+        for (int i = 0; i < 100; i++) {
+            csvString.append(i).append(";").append("id-").append(i).append("\n");
+        }
+        CSVReader csvReader = CSVReaderBuilder.create()
+                .withHeader(true)
+                .withSeparator(';')
+                .setColumnType("x", Integer.class)
+                .setColumnType("v", Utf8StringColumn.class)
+                .build();
+        DataFrame df = DataFrame.load(csvString.toString(), csvReader);
+        Assert.assertEquals(Utf8StringColumn.class, df.getColumn("v").getClass());
+        Assert.assertEquals("id-42", df.getStringColumn("v").get(42));
+
+        DataFrame selected = df.select("v == 'id-42'");
+        Assert.assertEquals(1, selected.size());
+        Assert.assertEquals(42, (int) selected.getRow(0).getInteger("x"));
+        Assert.assertEquals(Utf8StringColumn.class, selected.getColumn("v").getClass());
+        Assert.assertEquals(99, df.select("v != 'id-42'").size());
+    }
 }
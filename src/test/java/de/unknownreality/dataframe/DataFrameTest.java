@@ -39,6 +39,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -53,6 +54,121 @@ public class DataFrameTest {
     public final ExpectedException exception = ExpectedException.none();
 
 
+    @Test
+    public void argsortTest() {
+        DataFrame dataFrame = DataFrameBuilder.createDefault();
+        dataFrame.addColumn(new IntegerColumn("id"));
+        dataFrame.addColumn(new StringColumn("group"));
+        dataFrame.addColumn(new DoubleColumn("value"));
+        dataFrame.addColumn(new BooleanColumn("flag"));
+        for (int i = 0; i < 100; i++) {
+            dataFrame.append(i, "g" + (i % 3), i % 7 == 0 ? null : (double) ((i * 13) % 10), i % 2 == 0);
+        }
+        dataFrame.setPrimaryKey("id");
+        dataFrame.sort(new SortColumn("group", SortColumn.Direction.Descending), new SortColumn("value"));
+        for (int i = 1; i < dataFrame.size(); i++) {
+            DataRow previous = dataFrame.getRow(i - 1);
+            DataRow row = dataFrame.getRow(i);
+            int c = row.getString("group").compareTo(previous.getString("group"));
+            Assert.assertTrue(c <= 0);
+            if (c == 0 && !previous.isNA("value")) {
+                Assert.assertTrue(row.isNA("value") || row.getDouble("value") >= previous.getDouble("value"));
+                if (!row.isNA("value") && row.getDouble("value").equals(previous.getDouble("value"))) {
+                    Assert.assertTrue(row.getInteger("id") > previous.getInteger("id"));
+                }
+            }
+            if (c == 0 && previous.isNA("value")) {
+                Assert.assertTrue(row.isNA("value"));
+            }
+            Assert.assertEquals(row.getInteger("id") % 2 == 0, row.getBoolean("flag"));
+        }
+        Assert.assertEquals("g2", dataFrame.getRow(0).getString("group"));
+        DataRow row = dataFrame.selectByPrimaryKey(42);
+        Assert.assertEquals("g0", row.getString("group"));
+        Assert.assertTrue(row.isNA("value"));
+
+        dataFrame.sort("id");
+        for (int i = 0; i < dataFrame.size(); i++) {
+            Assert.assertEquals((Integer) i, dataFrame.getIntegerColumn("id").get(i));
+        }
+        dataFrame.sort((a, b) -> Integer.compare(b.getInteger("id"), a.getInteger("id")));
+        Assert.assertEquals((Integer) 99, dataFrame.getIntegerColumn("id").get(0));
+        Assert.assertEquals((Integer) 99, dataFrame.selectByPrimaryKey(99).getInteger("id"));
+    }
+
+    @Test
+    public void copyOnWriteTest() {
+        DataFrame dataFrame = DataFrameBuilder.createDefault();
+        dataFrame.addColumn(new IntegerColumn("id"));
+        dataFrame.addColumn(new StringColumn("name"));
+        dataFrame.addColumn(new BooleanColumn("flag"));
+        for (int i = 0; i < 200; i++) {
+            dataFrame.append(i, "n" + i, i % 3 == 0);
+        }
+        DataFrame copy = dataFrame.copy();
+        DataFrame tail = dataFrame.tail(50);
+        Assert.assertEquals(200, copy.size());
+        Assert.assertEquals(50, tail.size());
+        Assert.assertEquals((Integer) 150, tail.getIntegerColumn("id").get(0));
+        Assert.assertEquals("n150", tail.getStringColumn("name").get(0));
+        Assert.assertEquals(true, tail.getBooleanColumn("flag").get(0));
+
+        copy.getIntegerColumn("id").set(0, -1);
+        copy.getStringColumn("name").set(0, "changed");
+        Assert.assertEquals((Integer) 0, dataFrame.getIntegerColumn("id").get(0));
+        Assert.assertEquals("n0", dataFrame.getStringColumn("name").get(0));
+
+        dataFrame.getStringColumn("name").set(150, "changed");
+        dataFrame.sort("id", SortColumn.Direction.Descending);
+        Assert.assertEquals("n150", tail.getStringColumn("name").get(0));
+        Assert.assertEquals((Integer) 150, tail.getIntegerColumn("id").get(0));
+        Assert.assertEquals((Integer) 199, dataFrame.getIntegerColumn("id").get(0));
+
+        tail.append(200, "n200", false);
+        Assert.assertEquals(51, tail.size());
+        Assert.assertEquals("n200", tail.getStringColumn("name").get(50));
+        Assert.assertEquals(200, dataFrame.size());
+        Assert.assertEquals((Integer) 1, copy.getIntegerColumn("id").get(1));
+    }
+
+    @Test
+    public void viewTest() {
+        DataFrame dataFrame = DataFrameBuilder.createDefault();
+        dataFrame.addColumn(new IntegerColumn("id"));
+        dataFrame.addColumn(new StringColumn("name"));
+        dataFrame.addColumn(new DoubleColumn("value"));
+        for (int i = 0; i < 100; i++) {
+            dataFrame.append(i, "n" + (i % 10), i % 7 == 0 ? null : (double) i);
+        }
+        DataFrameView view = dataFrame.view("id >= 20").select("name == 'n1'").head(5);
+        Assert.assertEquals(5, view.size());
+        Assert.assertEquals(21, view.getValue(0, 0));
+        Assert.assertEquals(61, view.getRow(4).getInteger("id").intValue());
+        Assert.assertEquals(61, view.getRowIndex(4));
+        Assert.assertEquals(Arrays.asList(21, 31, 41, 51, 61), view.getColumn("id").toList());
+
+        ColumnView<?> values = view.getColumn("value");
+        Assert.assertEquals(1, values.countNA());
+        Assert.assertEquals(31 + 41 + 51 + 61, values.sum(), 0d);
+        Assert.assertEquals(31d, values.min(), 0d);
+        Assert.assertEquals(61d, values.max(), 0d);
+        Assert.assertEquals(51d, values.median().doubleValue(), 0d);
+
+        DataFrameView range = dataFrame.view(10, 20);
+        Assert.assertEquals(10, range.size());
+        Assert.assertEquals("n5", range.getValue(1, 5));
+
+        DataFrame materialized = view.toDataFrame();
+        Assert.assertEquals(5, materialized.size());
+        Assert.assertEquals((Integer) 41, materialized.getIntegerColumn("id").get(2));
+        Assert.assertTrue(materialized.getDoubleColumn("value").isNA(0));
+        Assert.assertEquals(10, range.toDataFrame().size());
+
+        dataFrame.sort("id", SortColumn.Direction.Descending);
+        exception.expect(DataFrameRuntimeException.class);
+        view.getValue(0, 0);
+    }
+
     @Test
     public void testCreation() {
         DataFrame dataFrame = DataFrameBuilder.createDefault();
@@ -468,6 +584,11 @@ public class DataFrameTest {
         Assert.assertEquals(false,test.getRow(0).get("c"));
         Assert.assertEquals(false,test.getRow(1).get("c"));
 
+        test = dataFrame.select(dataFrame.getBooleanColumn("c").copy().flip());
+        Assert.assertEquals(2,test.size());
+        Assert.assertEquals("C",test.getRow(0).get("name"));
+        Assert.assertEquals("D",test.getRow(1).get("name"));
+
         test = dataFrame
                 .selectColumns("name").allRows();
         Assert.assertEquals(1,test.getColumns().size());
@@ -24,16 +24,26 @@
 
 package de.unknownreality.dataframe;
 
+import de.unknownreality.dataframe.column.ColumnStatistics;
 import de.unknownreality.dataframe.column.DoubleColumn;
 import de.unknownreality.dataframe.column.FloatColumn;
 import de.unknownreality.dataframe.column.IntegerColumn;
+import de.unknownreality.dataframe.column.LongColumn;
+import de.unknownreality.dataframe.column.NumberColumn;
+import de.unknownreality.dataframe.column.ShortColumn;
+import de.unknownreality.dataframe.column.storage.ChunkedNumberStorage;
+import de.unknownreality.dataframe.column.storage.StorageMode;
+import de.unknownreality.dataframe.type.DataFrameTypeManager;
+import de.unknownreality.dataframe.common.math.QuantileSketch;
 import de.unknownreality.dataframe.common.math.Quantiles;
+import de.unknownreality.dataframe.common.math.QuickSelect;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Created by Alex on 17.07.2017.
@@ -123,4 +133,252 @@ public class NumberColumnTest {
         Assert.assertEquals((Double)2d,dc.getQuantile(0.25));
         Assert.assertEquals((Double)4d,dc.getQuantile(0.75));
     }
+
+    @Test
+    public void primitiveStorageTest() {
+        IntegerColumn ic = new IntegerColumn("A", new Integer[]{5, null, 3, 1, null, 4});
+        Assert.assertEquals(6, ic.size());
+        Assert.assertEquals(5, ic.getInt(0));
+        Assert.assertEquals(3L, ic.getLong(2));
+        Assert.assertEquals(4d, ic.getDouble(5), 0d);
+        Assert.assertTrue(ic.isNA(1));
+        Assert.assertNull(ic.get(4));
+        Assert.assertEquals(Double.NaN, ic.toDouble(1), 0d);
+
+        IntegerColumn copy = ic.copy();
+        ic.sort();
+        Assert.assertArrayEquals(new Integer[]{null, null, 1, 3, 4, 5}, ic.toArray());
+        Assert.assertArrayEquals(new Integer[]{5, null, 3, 1, null, 4}, copy.toArray());
+        copy.set(1, 7);
+        Assert.assertEquals((Integer) 7, copy.get(1));
+        copy.reverse();
+        Assert.assertArrayEquals(new Integer[]{4, null, 1, 3, 7, 5}, copy.toArray());
+
+        LongColumn lc = new LongColumn("B");
+        for (long l = 0; l < 1000; l++) {
+            lc.append(Long.MAX_VALUE - l);
+        }
+        lc.appendRaw(1.9d);
+        Assert.assertEquals(1001, lc.size());
+        Assert.assertEquals(Long.MAX_VALUE, lc.getLong(0));
+        Assert.assertEquals((Long) 1L, lc.get(1000));
+        lc.clear();
+        Assert.assertEquals(0, lc.size());
+    }
+
+    @Test
+    public void offHeapStorageTest() {
+        IntegerColumn ic = new IntegerColumn("A", new Integer[]{5, null, 3, 1, null, 4})
+                .setStorageMode(StorageMode.OFF_HEAP);
+        Assert.assertEquals(StorageMode.OFF_HEAP, ic.getStorageMode());
+        Assert.assertArrayEquals(new Integer[]{5, null, 3, 1, null, 4}, ic.toArray());
+        for (int i = 0; i < 500; i++) {
+            ic.append(i);
+        }
+        Assert.assertEquals(506, ic.size());
+        Assert.assertEquals(499, ic.getInt(505));
+
+        IntegerColumn copy = ic.copy();
+        Assert.assertEquals(StorageMode.OFF_HEAP, copy.getStorageMode());
+        ic.set(0, 9);
+        Assert.assertEquals(5, copy.getInt(0));
+        copy.sort();
+        Assert.assertTrue(copy.isNA(1));
+        Assert.assertEquals((Integer) 0, copy.get(2));
+        Assert.assertEquals((Integer) 499, copy.get(505));
+
+        ShortColumn sc = new ShortColumn("S", new Short[]{3, null, -2}).setStorageMode(StorageMode.OFF_HEAP);
+        sc.reverse();
+        Assert.assertArrayEquals(new Short[]{-2, null, 3}, sc.toArray());
+        Assert.assertArrayEquals(new Short[]{-2, null, 3},
+                sc.setStorageMode(StorageMode.HEAP).toArray());
+
+        DataFrameTypeManager.get().setStorageMode(StorageMode.OFF_HEAP);
+        try {
+            DataFrame df = DataFrame.fromCSV("data_index.csv", NumberColumnTest.class.getClassLoader(), ';', true);
+            for (DataFrameColumn<?, ?> column : df.getColumns()) {
+                if (column instanceof NumberColumn) {
+                    Assert.assertEquals(StorageMode.OFF_HEAP, ((NumberColumn<?, ?>) column).getStorageMode());
+                }
+            }
+            DataFrame selected = df.select("UID > 1");
+            for (DataFrameColumn<?, ?> column : selected.getColumns()) {
+                if (column instanceof NumberColumn) {
+                    Assert.assertEquals(StorageMode.OFF_HEAP, ((NumberColumn<?, ?>) column).getStorageMode());
+                }
+            }
+            df.close();
+            Assert.assertEquals(0, df.size());
+        } finally {
+            DataFrameTypeManager.get().setStorageMode(StorageMode.HEAP);
+        }
+
+        try (DataFrame df = DataFrameBuilder.create()
+                .addDoubleColumn("d")
+                .withStorageMode(StorageMode.OFF_HEAP)
+                .build()) {
+            df.append(1.5d);
+            df.append((Object) null);
+            Assert.assertEquals(StorageMode.OFF_HEAP, df.getDoubleColumn("d").getStorageMode());
+            Assert.assertEquals(1.5d, df.getDoubleColumn("d").getDouble(0), 0d);
+            Assert.assertTrue(df.getDoubleColumn("d").isNA(1));
+        }
+
+        try (DataFrame df = DataFrame.create()) {
+            Assert.assertEquals(0, df.size());
+        }
+    }
+
+    @Test
+    public void chunkedStorageTest() {
+        int n = ChunkedNumberStorage.CHUNK_SIZE * 2 + 10;
+        LongColumn lc = new LongColumn("A").setStorageMode(StorageMode.CHUNKED);
+        for (long i = 0; i < n; i++) {
+            if (i % 100 == 0) {
+                lc.appendNA();
+            } else {
+                lc.append(i);
+            }
+        }
+        Assert.assertEquals(n, lc.size());
+        Assert.assertEquals(StorageMode.CHUNKED, lc.getStorageMode());
+        Assert.assertTrue(lc.isNA(8200));
+        Assert.assertFalse(lc.isNA(8201));
+        Assert.assertEquals(n - 1, lc.getLong(n - 1));
+
+        LongColumn copy = lc.copy();
+        copy.set(1, -1L);
+        Assert.assertEquals(1L, lc.getLong(1));
+        Assert.assertEquals(-1L, copy.getLong(1));
+        copy.reverse();
+        Assert.assertEquals(n - 1, lc.getLong(n - 1));
+        Assert.assertEquals(-1L, copy.getLong(n - 2));
+
+        DataFrame a = DataFrameBuilder.create().addLongColumn("A").addStringColumn("S")
+                .withStorageMode(StorageMode.CHUNKED).build();
+        for (int i = 0; i < ChunkedNumberStorage.CHUNK_SIZE; i++) {
+            a.append((long) i, "a");
+        }
+        DataFrame b = a.copy();
+        b.getLongColumn("A").setStorageMode(StorageMode.CHUNKED);
+        a.concat(b);
+        Assert.assertEquals(ChunkedNumberStorage.CHUNK_SIZE * 2, a.size());
+        Assert.assertEquals((Long) 5L, a.getLongColumn("A").get(ChunkedNumberStorage.CHUNK_SIZE + 5));
+        Assert.assertEquals("a", a.getStringColumn("S").get(ChunkedNumberStorage.CHUNK_SIZE + 5));
+        a.getLongColumn("A").set(ChunkedNumberStorage.CHUNK_SIZE, 42L);
+        Assert.assertEquals((Long) 0L, b.getLongColumn("A").get(0));
+        Assert.assertEquals((Long) 42L, a.getLongColumn("A").get(ChunkedNumberStorage.CHUNK_SIZE));
+    }
+
+    @Test
+    public void statisticsTest() {
+        DoubleColumn dc = new DoubleColumn("A");
+        ColumnStatistics empty = dc.getStatistics();
+        Assert.assertEquals(0, empty.getCount());
+        Assert.assertTrue(empty.isSorted());
+
+        dc.appendNA();
+        for (int i = 0; i < 1000; i++) {
+            dc.append((double) (i % 100));
+        }
+        ColumnStatistics statistics = dc.getStatistics();
+        Assert.assertEquals(1000, statistics.getCount());
+        Assert.assertEquals(1, statistics.getNACount());
+        Assert.assertFalse(statistics.isSorted());
+        Assert.assertEquals(100, statistics.getDistinctEstimate(), 5);
+
+        dc.append(500d);
+        Assert.assertSame(statistics, dc.getStatistics());
+        Assert.assertEquals((Double) 500d, dc.max());
+        Assert.assertEquals((Double) 0d, dc.min());
+        Assert.assertEquals(49500d + 500d, dc.sum(), 0d);
+
+        dc.set(0, -1d);
+        Assert.assertNotSame(statistics, dc.getStatistics());
+        Assert.assertEquals((Double) (-1d), dc.min());
+        Assert.assertEquals(0, dc.getStatistics().getNACount());
+
+        dc.sort();
+        Assert.assertTrue(dc.getStatistics().isSorted());
+        Assert.assertEquals((Double) 50d, dc.median());
+        dc.append(1000d);
+        Assert.assertTrue(dc.getStatistics().isSorted());
+        dc.reverse();
+        Assert.assertFalse(dc.getStatistics().isSorted());
+        Assert.assertEquals((Double) 1000d, dc.getQuantile(1d));
+        Assert.assertEquals((Double) 1000d, dc.get(0));
+
+        dc.add(dc);
+        Assert.assertEquals((Double) 2000d, dc.max());
+    }
+
+    @Test
+    public void appendAfterSortTest() {
+        IntegerColumn column = new IntegerColumn("A");
+        column.append(5);
+        column.append(1);
+        column.min();
+        column.sort();
+        Assert.assertTrue(column.getStatistics().isSorted());
+        column.append(3);
+        Assert.assertFalse(column.getStatistics().isSorted());
+        Assert.assertEquals((Integer) 3, column.median());
+        Assert.assertEquals((Integer) 3, column.getQuantile(0.5));
+        column.sort();
+        Assert.assertEquals(Arrays.asList(1, 3, 5), Arrays.asList(column.toArray()));
+        column.append(5);
+        Assert.assertTrue(column.getStatistics().isSorted());
+    }
+    @Test
+    public void quantileSelectionTest() {
+        Random random = new Random(42);
+        for (int n : new int[]{1, 2, 7, 100, 1001}) {
+            double[] values = new double[n];
+            long[] longValues = new long[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = random.nextInt(50);
+                longValues[i] = random.nextInt(50);
+            }
+            double[] sorted = values.clone();
+            long[] sortedLong = longValues.clone();
+            Arrays.sort(sorted);
+            Arrays.sort(sortedLong);
+            for (int k = 0; k < n; k += Math.max(1, n / 10)) {
+                Assert.assertEquals(sorted[k], QuickSelect.select(values.clone(), n, k), 0);
+                Assert.assertEquals(sortedLong[k], QuickSelect.select(longValues.clone(), n, k));
+            }
+        }
+
+        IntegerColumn column = new IntegerColumn("x");
+        column.appendNA();
+        for (int i = 0; i < 100; i++) {
+            column.append((i * 37) % 100);
+        }
+        Assert.assertEquals((Integer) 50, column.median());
+        Assert.assertEquals((Integer) 24, column.getQuantile(0.25));
+        Assert.assertEquals((Integer) 0, column.getQuantile(0));
+        Assert.assertEquals((Integer) 99, column.getQuantile(1));
+        column.sort();
+        Assert.assertEquals((Integer) 50, column.median());
+        Assert.assertEquals((Integer) 24, column.getQuantile(0.25));
+
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int i = 0; i < 50000; i++) {
+            first.add(i);
+            second.add(i + 50000);
+        }
+        first.merge(second);
+        Assert.assertEquals(100000, first.getCount());
+        Assert.assertEquals(0d, first.getMin(), 0);
+        Assert.assertEquals(99999d, first.getMax(), 0);
+        Assert.assertEquals(50000d, first.median(), 1000);
+        Assert.assertEquals(90000d, first.getQuantile(0.9), 1000);
+
+        DoubleColumn doubleColumn = new DoubleColumn("d");
+        for (int i = 1; i <= 1000; i++) {
+            doubleColumn.append((double) i);
+        }
+        Assert.assertEquals(500d, doubleColumn.createQuantileSketch().median(), 10);
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.filter;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.filter.compile.PredicateCache;
+import de.unknownreality.dataframe.filter.compile.PredicateCompiler;
+import de.unknownreality.dataframe.filter.compile.PredicateCompilerException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class PredicateCacheTest {
+
+    @Test
+    public void cacheTest() {
+        PredicateCache cache = new PredicateCache(2);
+        FilterPredicate p1 = cache.get("x > 5 && y == 'a'");
+        Assert.assertSame(p1, cache.get("  x >   5 &&  y == 'a' "));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+
+        Assert.assertNotSame(cache.get("y == 'a  b'"), cache.get("y == 'a b'"));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNotSame(p1, cache.get("x > 5 && y == 'a'"));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(4, cache.getMisses());
+
+        try {
+            cache.get("x > ");
+            Assert.fail("invalid predicate must fail");
+        } catch (PredicateCompilerException e) {
+            // expected
+        }
+        Assert.assertEquals(2, cache.size());
+
+        cache.setMaxSize(0);
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNotSame(cache.get("x > 5"), cache.get("x > 5"));
+        cache.clear();
+        Assert.assertEquals(0, cache.getHits());
+        Assert.assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void normalizeTest() {
+        Assert.assertEquals("x > 5 AND y == 'a  b'", PredicateCache.normalize("  x  >    5 AND y == 'a  b' "));
+        Assert.assertEquals("s ~= /a  b/ && t == \"c  \\\"  d\"", PredicateCache.normalize("s ~= /a  b/   && t == \"c  \\\"  d\""));
+        Assert.assertEquals("", PredicateCache.normalize("   "));
+    }
+
+    @Test
+    public void concurrentCacheTest() throws Exception {
+        DataFrame dataFrame = PredicateEvaluatorTest.createDataFrame(200);
+        PredicateCache cache = PredicateCompiler.getCache();
+        long hits = cache.getHits();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String predicate = PredicateEvaluatorTest.PREDICATES[i % PredicateEvaluatorTest.PREDICATES.length];
+                results.add(executor.submit(() -> dataFrame.select(predicate).size()));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                String predicate = PredicateEvaluatorTest.PREDICATES[i % PredicateEvaluatorTest.PREDICATES.length];
+                Assert.assertEquals(predicate,
+                        PredicateEvaluator.select(dataFrame, PredicateCompiler.compile(predicate)).length,
+                        results.get(i).get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue(cache.getHits() > hits);
+        Assert.assertTrue(cache.size() <= cache.getMaxSize());
+    }
+}
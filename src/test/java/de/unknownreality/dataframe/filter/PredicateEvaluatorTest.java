@@ -0,0 +1,264 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.filter;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataRow;
+import de.unknownreality.dataframe.DefaultDataFrame;
+import de.unknownreality.dataframe.Values;
+import de.unknownreality.dataframe.column.BooleanColumn;
+import de.unknownreality.dataframe.column.DictionaryStringColumn;
+import de.unknownreality.dataframe.column.DoubleColumn;
+import de.unknownreality.dataframe.column.IntegerColumn;
+import de.unknownreality.dataframe.column.StringColumn;
+import de.unknownreality.dataframe.column.Utf8StringColumn;
+import de.unknownreality.dataframe.common.Row;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class PredicateEvaluatorTest {
+
+    static DataFrame createDataFrame(int size) {
+        Random random = new Random(3);
+        DataFrame dataFrame = new DefaultDataFrame();
+        dataFrame.addColumn(new IntegerColumn("i"));
+        dataFrame.addColumn(new DoubleColumn("d"));
+        dataFrame.addColumn(new StringColumn("s"));
+        dataFrame.addColumn(new DictionaryStringColumn("c"));
+        dataFrame.addColumn(new Utf8StringColumn("u"));
+        dataFrame.addColumn(new BooleanColumn("b"));
+        dataFrame.addColumn(new IntegerColumn("j"));
+        String[] names = {"alpha", "beta", "gamma", "delta", "NA"};
+        for (int i = 0; i < size; i++) {
+            dataFrame.append(
+                    random.nextInt(8) == 0 ? null : random.nextInt(20),
+                    random.nextInt(8) == 0 ? null : random.nextInt(40) / 2d,
+                    random.nextInt(8) == 0 ? null : names[random.nextInt(names.length)],
+                    random.nextInt(8) == 0 ? null : names[random.nextInt(names.length)],
+                    random.nextInt(8) == 0 ? null : names[random.nextInt(names.length)],
+                    random.nextInt(8) == 0 ? null : random.nextBoolean(),
+                    random.nextInt(8) == 0 ? null : random.nextInt(20));
+        }
+        return dataFrame;
+    }
+
+    static final String[] PREDICATES = {
+            "i > 10", "i <= 5", "i == 7", "i != 7", "i == 7.5", "d >= 4.5", "d < 10", "d != 3",
+            "s == 'beta'", "s != 'beta'", "s > 'beta'", "c == 'gamma'", "c != 'gamma'", "c == 'omega'",
+            "u == 'delta'", "u != 'delta'", "u < 'delta'", "b", "!b", "b == true",
+            "(i > 5 AND d < 12) OR s == 'alpha'", "(c == 'beta' OR u == 'beta') AND !(i < 3)",
+            ".i > .j", ".i == .j", ".s < .u", ".s == .c", "s LIKE 'al%'", "u LIKE '%ta'", "c LIKE '_a%'", "c ~= /[a-d].*/", "i == NA", "i != NA"
+    };
+
+    static List<FilterPredicate> predicates() {
+        List<FilterPredicate> predicates = new ArrayList<>();
+        for (String predicate : PREDICATES) {
+            predicates.add(FilterPredicate.compile(predicate));
+        }
+        predicates.add(FilterPredicate.in("s", new Object[]{"alpha", "gamma"}));
+        predicates.add(FilterPredicate.btwn("i", 3, 12));
+        predicates.add(FilterPredicate.gt("i", 4).xor(FilterPredicate.lt("d", 8)));
+        predicates.add(FilterPredicate.gt("i", 4).nor(FilterPredicate.lt("d", 8)));
+        predicates.add(FilterPredicate.eq(FilterPredicate.gt("i", 4), FilterPredicate.lt("d", 8)));
+        predicates.add(FilterPredicate.ne(FilterPredicate.gt("i", 4), FilterPredicate.lt("d", 8)));
+        predicates.add(FilterPredicate.and(FilterPredicate.gt("i", 1), FilterPredicate.lt("i", 18), FilterPredicate.ne("s", "beta")));
+        predicates.add(FilterPredicate.or(FilterPredicate.gt("i", 17), FilterPredicate.eq("c", "alpha"), FilterPredicate.eq("u", "beta")));
+        predicates.add(FilterPredicate.and(FilterPredicate.ge("d", 2.5), FilterPredicate.le("d", 15), FilterPredicate.gt("d", 3)));
+        predicates.add(FilterPredicate.and(FilterPredicate.lt("i", 12), FilterPredicate.ge("i", 12L)));
+        predicates.add(FilterPredicate.btwn("i", 3, 12).and(FilterPredicate.btwn("d", 1, 9)).or(FilterPredicate.eq("s", "beta")));
+        predicates.add(FilterPredicate.in("i", new Object[]{3, 7, 11, Values.NA}));
+        predicates.add(FilterPredicate.in("i", new Object[]{3L, 7L}));
+        predicates.add(FilterPredicate.in("d", new Object[]{2.5, 4d}));
+        predicates.add(FilterPredicate.in("c", new Object[]{"beta", "delta", Values.NA}));
+        predicates.add(FilterPredicate.not(FilterPredicate.not(FilterPredicate.gt("i", 5))));
+        predicates.add(FilterPredicate.compile("i > 2 && (i < 15 && (d >= 3 || c == 'alpha' || b))"));
+        predicates.add(FilterPredicate.EMPTY_FILTER);
+        return predicates;
+    }
+
+    static int[] expectedRows(DataFrame dataFrame, FilterPredicate predicate) {
+        List<Integer> rows = new ArrayList<>();
+        for (DataRow row : dataFrame) {
+            if (predicate.valid(row)) {
+                rows.add(row.getIndex());
+            }
+        }
+        return rows.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    public void selectionVectorTest() {
+        DataFrame dataFrame = createDataFrame(500);
+        for (FilterPredicate predicate : predicates()) {
+            int[] expected = expectedRows(dataFrame, predicate);
+            Assert.assertArrayEquals(predicate.toString(), expected, PredicateEvaluator.select(dataFrame, predicate));
+            Assert.assertEquals(expected.length == 0 ? -1 : expected[0], PredicateEvaluator.selectFirst(dataFrame, predicate));
+
+            DataFrame selected = dataFrame.select(predicate);
+            Assert.assertEquals(expected.length, selected.size());
+            for (int i = 0; i < expected.length; i++) {
+                Assert.assertEquals(dataFrame.getRow(expected[i]), selected.getRow(i));
+            }
+            Assert.assertEquals(expected.length, dataFrame.selectRows(predicate).size());
+        }
+        DataFrame filtered = dataFrame.copy().filter("i > 10");
+        Assert.assertEquals(dataFrame.select("i > 10"), filtered);
+        Assert.assertTrue(Arrays.stream(PredicateEvaluator.select(filtered, FilterPredicate.compile("i <= 10"))).count() == 0);
+    }
+
+    @Test
+    public void compiledPredicateTest() {
+        DataFrame dataFrame = createDataFrame(500);
+        for (FilterPredicate predicate : predicates()) {
+            BoundPredicate compiled = BoundPredicateCompiler.compile(predicate, dataFrame);
+            for (DataRow row : dataFrame) {
+                Assert.assertEquals(predicate.toString(), predicate.valid(row), compiled.test(row.getIndex()));
+            }
+        }
+        FilterPredicate predicate = FilterPredicate.btwn("i", 3, 12).and(FilterPredicate.ne("s", "beta"));
+        Assert.assertTrue(predicate instanceof AndPredicate);
+        Assert.assertEquals(2, ((AndPredicate) predicate).getPredicates().size());
+        Assert.assertEquals("((i > 3) AND (i < 12)) AND (s != beta)", predicate.toString());
+    }
+
+    @Test
+    public void adaptiveOrderTest() {
+        Assert.assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, BoundPredicateCompiler.sample(10, 1024));
+        int[] sample = BoundPredicateCompiler.sample(100000, 1024);
+        Assert.assertEquals(1024, sample.length);
+        for (int i = 1; i < sample.length; i++) {
+            Assert.assertTrue(sample[i] > sample[i - 1]);
+        }
+        Assert.assertTrue(sample[sample.length - 1] < 100000);
+
+        double[] sink = new double[1];
+        BoundPredicate slowAll = row -> {
+            double v = row;
+            for (int i = 0; i < 200; i++) {
+                v = Math.sqrt(v + i);
+            }
+            sink[0] += v;
+            return true;
+        };
+        BoundPredicate fastNone = row -> false;
+        Assert.assertArrayEquals(new int[]{1, 0},
+                BoundPredicateCompiler.order(Arrays.asList(slowAll, fastNone), sample, true));
+        BoundPredicate slowNone = row -> !slowAll.test(row);
+        BoundPredicate fastAll = row -> true;
+        Assert.assertArrayEquals(new int[]{1, 0},
+                BoundPredicateCompiler.order(Arrays.asList(slowNone, fastAll), sample, false));
+
+        DataFrame dataFrame = createDataFrame(3000);
+        int threshold = BoundPredicateCompiler.getAdaptiveThreshold();
+        try {
+            BoundPredicateCompiler.setAdaptiveThreshold(0);
+            for (FilterPredicate predicate : predicates()) {
+                int[] expected = expectedRows(dataFrame, predicate);
+                Assert.assertArrayEquals(predicate.toString(), expected, PredicateEvaluator.select(dataFrame, predicate));
+                BoundPredicateCompiler.setAdaptive(false);
+                Assert.assertArrayEquals(predicate.toString(), expected, PredicateEvaluator.select(dataFrame, predicate));
+                BoundPredicateCompiler.setAdaptive(true);
+            }
+        } finally {
+            BoundPredicateCompiler.setAdaptive(true);
+            BoundPredicateCompiler.setAdaptiveThreshold(threshold);
+        }
+    }
+
+    @Test
+    public void parallelSelectTest() {
+        DataFrame dataFrame = createDataFrame(30000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        int threshold = PredicateEvaluator.getParallelThreshold();
+        try {
+            for (FilterPredicate predicate : predicates()) {
+                int[] expected = expectedRows(dataFrame, predicate);
+                Assert.assertArrayEquals(predicate.toString(), expected,
+                        PredicateEvaluator.select(dataFrame, predicate, executor, 4));
+            }
+            PredicateEvaluator.setParallelThreshold(1000);
+            FilterPredicate predicate = FilterPredicate.compile("(i > 5 AND d < 12) OR s == 'alpha'");
+            Assert.assertEquals(expectedRows(dataFrame, predicate).length, dataFrame.select(predicate).size());
+            try {
+                PredicateEvaluator.select(dataFrame, FilterPredicate.compile("x > 1"), executor, 4);
+                Assert.fail("missing column must fail");
+            } catch (DataFrameFilterRuntimeException e) {
+                // expected
+            }
+        } finally {
+            PredicateEvaluator.setParallelThreshold(threshold);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void customPredicateTest() {
+        DataFrame dataFrame = createDataFrame(30000);
+        Thread caller = Thread.currentThread();
+        List<Thread> threads = new ArrayList<>();
+        FilterPredicate custom = new FilterPredicate() {
+            @Override
+            public boolean valid(Row<?, String> row) {
+                if (!threads.contains(Thread.currentThread())) {
+                    threads.add(Thread.currentThread());
+                }
+                Object value = row.get("i");
+                return value instanceof Integer && (Integer) value % 2 == 0;
+            }
+
+            @Override
+            public String toString() {
+                return "custom";
+            }
+        };
+        FilterPredicate predicate = FilterPredicate.and(FilterPredicate.compile("d < 12"), custom);
+        Assert.assertTrue(FilterPredicate.compile("(i > 5 AND d < 12) OR s == 'alpha'").isThreadSafe());
+        Assert.assertFalse(custom.isThreadSafe());
+        Assert.assertFalse(predicate.isThreadSafe());
+        Assert.assertFalse(FilterPredicate.not(custom).isThreadSafe());
+        Assert.assertFalse(FilterPredicate.xor(FilterPredicate.compile("d < 12"), custom).isThreadSafe());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        int threshold = PredicateEvaluator.getParallelThreshold();
+        try {
+            PredicateEvaluator.setParallelThreshold(1000);
+            int[] expected = expectedRows(dataFrame, predicate);
+            Assert.assertArrayEquals(expected, PredicateEvaluator.select(dataFrame, predicate));
+            Assert.assertArrayEquals(expected, PredicateEvaluator.select(dataFrame, predicate, executor, 4));
+            Assert.assertEquals(Collections.singletonList(caller), threads);
+        } finally {
+            PredicateEvaluator.setParallelThreshold(threshold);
+            executor.shutdown();
+        }
+    }
+}
@@ -28,12 +28,17 @@ import de.unknownreality.dataframe.*;
 import de.unknownreality.dataframe.column.IntegerColumn;
 import de.unknownreality.dataframe.csv.CSVReader;
 import de.unknownreality.dataframe.csv.CSVReaderBuilder;
+import de.unknownreality.dataframe.filter.FilterPredicate;
+import de.unknownreality.dataframe.filter.IndexPlan;
 import de.unknownreality.dataframe.group.DataFrameGroupingTest;
+import de.unknownreality.dataframe.index.interval.IntervalIndex;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -241,4 +246,280 @@ public class DataFrameIndexTest {
         Assert.assertEquals("D",test.getRow(1).get("name"));
     }
 
+    @Test
+    public void testIndexPlan() {
+        DataFrame dataFrame = DataFrame.create()
+                .addIntegerColumn("id")
+                .addStringColumn("name")
+                .addIntegerColumn("group")
+                .addDoubleColumn("start")
+                .addDoubleColumn("end");
+        String[] names = {"A", "B", "C", "D"};
+        for (int i = 0; i < 200; i++) {
+            dataFrame.append(i, names[i % names.length], i % 7, (double) (i % 50), (double) (i % 50 + i % 5));
+        }
+        dataFrame.setPrimaryKey("id");
+        dataFrame.addIndex("name_group", "name", "group");
+        dataFrame.addIndex(IntervalIndex.create(dataFrame, "interval", "start", "end"));
+
+        Indices indices = new Indices(dataFrame);
+        indices.setPrimaryKey(dataFrame.getColumn("id"));
+        indices.addIndex("name_group", dataFrame.getColumn("name"), dataFrame.getColumn("group"));
+        indices.addIndex(IntervalIndex.create(dataFrame, "interval", "start", "end"));
+
+        IndexPlan plan = IndexPlan.create(dataFrame, indices, FilterPredicate.compile("id == 42"));
+        Assert.assertFalse(plan.isFullScan());
+        Assert.assertArrayEquals(new int[]{42}, plan.getCandidates());
+        Assert.assertEquals(FilterPredicate.EMPTY_FILTER, plan.getResidual());
+
+        plan = IndexPlan.create(dataFrame, indices, FilterPredicate.compile("name == 'B' && group == 3 && start > 10"));
+        Assert.assertEquals(Collections.singletonList("name_group"), plan.getIndexNames());
+        Assert.assertEquals("start > 10", plan.getResidual().toString());
+
+        plan = IndexPlan.create(dataFrame, indices, FilterPredicate.compile("name == 'B' && start > 10"));
+        Assert.assertTrue(plan.isFullScan());
+        plan = IndexPlan.create(dataFrame, indices, FilterPredicate.compile("id == 3 || name == 'B'"));
+        Assert.assertTrue(plan.isFullScan());
+        plan = IndexPlan.create(dataFrame, indices, FilterPredicate.compile("start <= 12 && end >= 12"));
+        Assert.assertEquals(Collections.singletonList("interval"), plan.getIndexNames());
+
+        List<FilterPredicate> predicates = new ArrayList<>();
+        predicates.add(FilterPredicate.compile("id == 42"));
+        predicates.add(FilterPredicate.compile("id == 42.0"));
+        predicates.add(FilterPredicate.compile("id == 4200"));
+        predicates.add(FilterPredicate.compile("id == 3 || id == 17 || (name == 'A' && group == 4)"));
+        predicates.add(FilterPredicate.compile("name == 'B' && group == 3 && start > 10"));
+        predicates.add(FilterPredicate.compile("start <= 12 && end >= 12"));
+        predicates.add(FilterPredicate.compile("start <= 12.5 && end >= 12.5 && name != 'C'"));
+        predicates.add(FilterPredicate.in("id", new Object[]{1, 5, 9, 1000}));
+        predicates.add(FilterPredicate.in("id", new Object[]{1L, 5L}));
+        predicates.add(FilterPredicate.in("name", new Object[]{"A", "C"}).and(FilterPredicate.in("group", new Object[]{2, 5})));
+        for (FilterPredicate predicate : predicates) {
+            List<Integer> expected = new ArrayList<>();
+            for (DataRow row : dataFrame) {
+                if (predicate.valid(row)) {
+                    expected.add(row.getInteger("id"));
+                }
+            }
+            Assert.assertFalse(predicate.toString(), IndexPlan.create(dataFrame, indices, predicate).isFullScan());
+            DataFrame selected = dataFrame.select(predicate);
+            List<Integer> ids = new ArrayList<>();
+            for (DataRow row : selected) {
+                ids.add(row.getInteger("id"));
+            }
+            Assert.assertEquals(predicate.toString(), expected, ids);
+            Assert.assertEquals(expected.size(), dataFrame.selectRows(predicate).size());
+            DataRow first = dataFrame.selectFirst(predicate);
+            Assert.assertEquals(expected.isEmpty() ? null : expected.get(0), first == null ? null : first.getInteger("id"));
+        }
+
+        FilterPredicate inWithNull = FilterPredicate.in("id", new Object[]{1, null});
+        Assert.assertTrue(IndexPlan.create(dataFrame, indices, inWithNull).isFullScan());
+        Assert.assertEquals(1, dataFrame.select(inWithNull).size());
+        Assert.assertEquals(1, dataFrame.selectRows(inWithNull).size());
+        Assert.assertEquals(1, dataFrame.selectFirst(inWithNull).getIndex());
+
+        dataFrame.getIntegerColumn("id").set(42, 4200);
+        Assert.assertEquals(1, dataFrame.select("id == 4200").size());
+        Assert.assertEquals(0, dataFrame.select("id == 42").size());
+    }
+
+    private static void assertIndices(DataFrame dataFrame) {
+        int groupCount = 0;
+        int rangeCount = 0;
+        int stabCount = 0;
+        for (DataRow row : dataFrame) {
+            if ("g3".equals(row.getString("group"))) {
+                groupCount++;
+            }
+            double start = row.getDouble("start");
+            if (start >= 100 && start <= 200) {
+                rangeCount++;
+            }
+            if (start <= 150 && row.getInteger("end") >= 150) {
+                stabCount++;
+            }
+        }
+        Assert.assertEquals(groupCount, dataFrame.selectRowsByIndex("group", "g3").size());
+        Assert.assertEquals(rangeCount, dataFrame.selectRowsByIndexRange("start", 100d, 200d).size());
+        Assert.assertEquals(stabCount, dataFrame.selectRowsByIndex("interval", 150).size());
+        for (int i = 0; i < dataFrame.size(); i += 997) {
+            DataRow row = dataFrame.getRow(i);
+            Assert.assertEquals(i, dataFrame.selectByPrimaryKey(row.getInteger("id")).getIndex());
+        }
+    }
+
+    @Test
+    public void testIndexPlanRange() {
+        DataFrame dataFrame = DataFrame.create()
+                .addIntegerColumn("id")
+                .addStringColumn("name")
+                .addDoubleColumn("score");
+        String[] names = {"A", "B", "C", "D"};
+        for (int i = 0; i < 200; i++) {
+            dataFrame.append(i, names[i % names.length], i % 11 == 0 ? null : (double) (i % 40));
+        }
+        dataFrame.addIndex(SortedIndex.create(dataFrame, "score_name", "score", "name"));
+        Indices indices = new Indices(dataFrame);
+        indices.addIndex(SortedIndex.create(dataFrame, "score_name", "score", "name"));
+
+        IndexPlan plan = IndexPlan.create(dataFrame, indices, FilterPredicate.compile("score >= 10 && score < 20 && name == 'B'"));
+        Assert.assertFalse(plan.isFullScan());
+        Assert.assertEquals(Collections.singletonList("score_name"), plan.getIndexNames());
+        Assert.assertEquals("(score >= 10) AND (score < 20) AND (name == B)", plan.getResidual().toString());
+        Assert.assertTrue(plan.getCandidates().length > plan.select(dataFrame).length);
+        for (int row : plan.getCandidates()) {
+            double score = dataFrame.getRow(row).getDouble("score");
+            Assert.assertTrue(score >= 10 && score < 20);
+        }
+        for (int row : plan.select(dataFrame)) {
+            Assert.assertEquals("B", dataFrame.getRow(row).getString("name"));
+        }
+
+        plan = IndexPlan.create(dataFrame, indices, FilterPredicate.compile("score > 10 && score <= 20"));
+        for (int row : plan.getCandidates()) {
+            double score = dataFrame.getRow(row).getDouble("score");
+            Assert.assertTrue(score > 10 && score <= 20);
+        }
+        Assert.assertTrue(IndexPlan.create(dataFrame, indices, FilterPredicate.compile("name == 'B'")).isFullScan());
+
+        List<FilterPredicate> predicates = new ArrayList<>();
+        predicates.add(FilterPredicate.compile("score >= 10 && score < 20"));
+        predicates.add(FilterPredicate.compile("score > 10 && score <= 20"));
+        predicates.add(FilterPredicate.compile("score > 10 && score < 11"));
+        predicates.add(FilterPredicate.compile("score >= 15 && score <= 15"));
+        predicates.add(FilterPredicate.compile("score > 30 && score < 5"));
+        predicates.add(FilterPredicate.compile("score < 3"));
+        predicates.add(FilterPredicate.compile("score >= 37"));
+        predicates.add(FilterPredicate.compile("score == 12"));
+        predicates.add(FilterPredicate.compile("score > 5 && score <= 25 && name != 'C' && id < 150"));
+        for (FilterPredicate predicate : predicates) {
+            List<Integer> expected = new ArrayList<>();
+            for (DataRow row : dataFrame) {
+                if (predicate.valid(row)) {
+                    expected.add(row.getIndex());
+                }
+            }
+            plan = IndexPlan.create(dataFrame, indices, predicate);
+            Assert.assertFalse(predicate.toString(), plan.isFullScan());
+            List<Integer> rows = new ArrayList<>();
+            for (int row : plan.select(dataFrame)) {
+                rows.add(row);
+            }
+            Assert.assertEquals(predicate.toString(), expected, rows);
+            Assert.assertEquals(predicate.toString(), expected.size(), dataFrame.select(predicate).size());
+        }
+    }
+
+    @Test
+    public void testBulkBuild() {
+        DataFrame dataFrame = DataFrame.create()
+                .addIntegerColumn("id")
+                .addStringColumn("group")
+                .addDoubleColumn("start")
+                .addIntegerColumn("end");
+        java.util.Random random = new java.util.Random(5);
+        for (int i = 0; i < 70000; i++) {
+            int start = random.nextInt(1000);
+            dataFrame.append(i, "g" + random.nextInt(10), (double) start, start + random.nextInt(20));
+        }
+        dataFrame.setPrimaryKey("id");
+        dataFrame.addIndex("group", "group");
+        dataFrame.addIndex(SortedIndex.create(dataFrame, "start", "start"));
+        dataFrame.addIndex(IntervalIndex.create(dataFrame, "interval", "start", "end"));
+        assertIndices(dataFrame);
+
+        dataFrame.sort("start", de.unknownreality.dataframe.sort.SortColumn.Direction.Descending);
+        assertIndices(dataFrame);
+        dataFrame.reverse();
+        assertIndices(dataFrame);
+        dataFrame.filter("group != 'g1'");
+        assertIndices(dataFrame);
+        DataFrame copy = dataFrame.copy();
+        copy.sort("id");
+        assertIndices(copy);
+
+        dataFrame.getIntegerColumn("id").set(1, dataFrame.getRow(0).getInteger("id"));
+        try {
+            dataFrame.sort("end");
+            Assert.fail("duplicated primary key must fail");
+        } catch (DataFrameRuntimeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testLazyIndexUpdates() {
+        DataFrame dataFrame = DataFrame.create()
+                .addIntegerColumn("id")
+                .addStringColumn("name");
+        dataFrame.setPrimaryKey("id");
+        dataFrame.addIndex("name_idx", "name");
+        dataFrame.setLazyIndexUpdates(true);
+        for (int i = 0; i < 1000; i++) {
+            dataFrame.append(i, "n" + (i % 10));
+        }
+        Assert.assertEquals(100, dataFrame.selectRowsByIndex("name_idx", "n3").size());
+        Assert.assertEquals("n7", dataFrame.selectByPrimaryKey(17).getString("name"));
+
+        dataFrame.getRow(17).set("name", "x");
+        dataFrame.getIntegerColumn("id").set(18, 1018);
+        Assert.assertEquals(1, dataFrame.select(FilterPredicate.eq("name", "x")).size());
+        Assert.assertNull(dataFrame.selectByPrimaryKey(18));
+        Assert.assertEquals(18, dataFrame.selectByPrimaryKey(1018).getIndex());
+
+        dataFrame.append(5, "d1");
+        dataFrame.append(2000, "ok");
+        dataFrame.append(7, "d2");
+        try {
+            dataFrame.selectByPrimaryKey(2000);
+            Assert.fail("duplicated primary key must fail");
+        } catch (DataFrameRuntimeException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("[5]"));
+        }
+        try {
+            dataFrame.selectByPrimaryKey(2000);
+            Assert.fail("rejected rows must remain pending");
+        } catch (DataFrameRuntimeException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("[5]"));
+        }
+        dataFrame.getIntegerColumn("id").set(1000, 1005);
+        try {
+            dataFrame.selectByPrimaryKey(2000);
+            Assert.fail("duplicated primary key must fail");
+        } catch (DataFrameRuntimeException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("[7]"));
+        }
+        dataFrame.getIntegerColumn("id").set(1002, 1007);
+        Assert.assertEquals(1001, dataFrame.selectByPrimaryKey(2000).getIndex());
+        Assert.assertEquals(5, dataFrame.selectByPrimaryKey(5).getIndex());
+        Assert.assertEquals(1000, dataFrame.selectByPrimaryKey(1005).getIndex());
+        Assert.assertEquals(1002, dataFrame.selectByPrimaryKey(1007).getIndex());
+
+        dataFrame.getIntegerColumn("id").set(10, 20);
+        dataFrame.getIntegerColumn("id").set(20, 10);
+        Assert.assertEquals(10, dataFrame.selectByPrimaryKey(20).getIndex());
+        Assert.assertEquals(20, dataFrame.selectByPrimaryKey(10).getIndex());
+        Assert.assertEquals(1, dataFrame.select("id == 20").size());
+        Assert.assertEquals(10, dataFrame.selectFirst("id == 20").getIndex());
+
+        dataFrame.append(3000, "n3");
+        dataFrame.setLazyIndexUpdates(false);
+        Assert.assertEquals(101, dataFrame.selectRowsByIndex("name_idx", "n3").size());
+        try {
+            dataFrame.append(3000, "dup");
+            Assert.fail("duplicated primary key must fail");
+        } catch (DataFrameRuntimeException e) {
+            // expected
+        }
+
+        dataFrame.setLazyIndexUpdates(true);
+        for (int i = 0; i < 500; i++) {
+            dataFrame.getRow(i).set("name", "m" + (i % 5));
+        }
+        Assert.assertEquals(100, dataFrame.selectRowsByIndex("name_idx", "m0").size());
+        Assert.assertEquals(51, dataFrame.selectRowsByIndex("name_idx", "n3").size());
+        Assert.assertEquals(1001, dataFrame.selectByPrimaryKey(2000).getIndex());
+        Assert.assertEquals("m0", dataFrame.selectByPrimaryKey(0).getString("name"));
+    }
 }
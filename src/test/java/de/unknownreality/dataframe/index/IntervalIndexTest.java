@@ -30,6 +30,7 @@ import de.unknownreality.dataframe.DataRow;
 import de.unknownreality.dataframe.DataRows;
 import de.unknownreality.dataframe.column.LongColumn;
 import de.unknownreality.dataframe.index.interval.IntervalIndex;
+import de.unknownreality.dataframe.index.interval.StaticIntervalTree;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -219,4 +220,62 @@ public class IntervalIndexTest {
         dataFrame.removeColumn("start");
         dataFrame.selectRowsByIndex("idx", 1d, 3d);
     }
+
+    private static List<Integer> sorted(java.util.Collection<Integer> rows) {
+        List<Integer> list = new java.util.ArrayList<>(rows);
+        java.util.Collections.sort(list);
+        return list;
+    }
+
+    @Test
+    public void testStaticIntervalIndex() {
+        DataFrame dataFrame = DataFrame.create()
+                .addLongColumn("start")
+                .addLongColumn("end");
+        java.util.Random random = new java.util.Random(9);
+        for (int i = 0; i < 3000; i++) {
+            long start = random.nextInt(10000);
+            dataFrame.append(start, start + random.nextInt(random.nextInt(10) == 0 ? 2000 : 50));
+        }
+        IntervalIndex dynamicIndex = IntervalIndex.create(dataFrame, "dynamic", "start", "end");
+        IntervalIndex staticIndex = IntervalIndex.create(dataFrame, "static", "start", "end", IntervalIndex.Mode.Static);
+        dataFrame.addIndex(dynamicIndex);
+        dataFrame.addIndex(staticIndex);
+        assertEquals(IntervalIndex.Mode.Static, staticIndex.getMode());
+        for (int v = -10; v < 12000; v += 37) {
+            List<Integer> expected = sorted(dynamicIndex.find(v));
+            assertEquals(expected, sorted(staticIndex.find(v)));
+            assertEquals(expected.size(), staticIndex.count(v));
+            assertEquals(expected.size(), dynamicIndex.count(v));
+            List<Integer> overlaps = sorted(dynamicIndex.find(v, v + 100));
+            assertEquals(overlaps, sorted(staticIndex.find(v, v + 100)));
+            assertEquals(overlaps.size(), staticIndex.count(v, v + 100));
+            int[] visited = new int[1];
+            staticIndex.search(v, v + 100, row -> visited[0]++);
+            assertEquals(overlaps.size(), visited[0]);
+        }
+        assertEquals(sorted(dynamicIndex.find(5000.5)), sorted(staticIndex.find(5000.5)));
+
+        dataFrame.getRow(10).set("start", 20000L);
+        dataFrame.getRow(10).set("end", 20010L);
+        assertEquals(java.util.Collections.singletonList(10), staticIndex.find(20005));
+        staticIndex.remove(dataFrame.getRow(10));
+        assertEquals(0, staticIndex.count(20005));
+        dataFrame.sort("end");
+        assertEquals(sorted(dynamicIndex.find(20005)), sorted(staticIndex.find(20005)));
+        assertEquals(sorted(dynamicIndex.find(300, 400)), sorted(staticIndex.find(300, 400)));
+
+        DataFrame selected = dataFrame.select("start <= 700 && end >= 700");
+        assertEquals(staticIndex.count(700), selected.size());
+        DataFrame copy = dataFrame.copy();
+        assertEquals(staticIndex.count(700), copy.selectRowsByIndex("static", 700).size());
+
+        StaticIntervalTree tree = new StaticIntervalTree(new double[]{5, 1, 3, 3}, new double[]{6, 10, 3, 4}, new int[]{0, 1, 2, 3});
+        assertEquals(4, tree.size());
+        assertEquals(3, tree.countStab(3));
+        assertEquals(2, tree.countStab(5.5));
+        assertEquals(0, tree.countStab(11));
+        assertEquals(4, tree.countOverlaps(0, 20));
+        assertEquals(1, tree.countOverlaps(7, 8));
+    }
 }
@@ -112,6 +112,30 @@ public class IntervalSearchTreeTest {
         }
     }
 
+    @Test
+    public void intervalSearchTreeRemoveTest(){
+        List<Interval> intervalList = new ArrayList<Interval>();
+        IntervalSearchTree<Integer> intervalSearchTree = new IntervalSearchTree<Integer>();
+        int c = 1000;
+        for(int i = 0; i < c; i++){
+            int low = RANDOM.nextInt(20);
+            Interval interval = new Interval(low,low + RANDOM.nextInt(5));
+            intervalList.add(interval);
+            intervalSearchTree.add(interval,i);
+        }
+        List<Interval> remaining = new ArrayList<Interval>(intervalList);
+        for(int i = 0; i < c; i += 2){
+            intervalSearchTree.remove(intervalList.get(i),i);
+            remaining.set(i, new Interval(-10, -10));
+        }
+        assertEquals(c / 2, intervalSearchTree.getSize());
+        for(int value = 0; value < 25; value++){
+            Set<Integer> result = new HashSet<Integer>(intervalSearchTree.stab(value));
+            Set<Integer> naive = new HashSet<Integer>(findStabNaive(remaining,value));
+            assertEquals(naive,result);
+        }
+    }
+
     private List<Integer> findStabNaive(List<Interval> intervals,int searchInterval){
         List<Integer> result = new ArrayList<Integer>();
         for(int i = 0; i < intervals.size(); i++){
@@ -0,0 +1,134 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+
+package de.unknownreality.dataframe.index;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameRuntimeException;
+import de.unknownreality.dataframe.DataRow;
+import de.unknownreality.dataframe.Values;
+import de.unknownreality.dataframe.column.DoubleColumn;
+import de.unknownreality.dataframe.column.IntegerColumn;
+import de.unknownreality.dataframe.column.LongColumn;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class PrimitiveHashIndexTest {
+
+    private static List<Integer> expectedRows(DataFrame dataFrame, Object key) {
+        List<Integer> rows = new ArrayList<>();
+        for (DataRow row : dataFrame) {
+            Object value = row.get("k");
+            if (Values.NA.isNA(key) ? Values.NA.isNA(value) : key.equals(value)) {
+                rows.add(row.getIndex());
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void testFind() {
+        DataFrame dataFrame = DataFrame.create()
+                .addLongColumn("k")
+                .addIntegerColumn("v");
+        Random random = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            dataFrame.append(random.nextInt(50) == 0 ? null : (long) random.nextInt(700) - 350, i);
+        }
+        PrimitiveHashIndex index = new PrimitiveHashIndex("k_idx", dataFrame.getNumberColumn("k"));
+        dataFrame.addIndex(index);
+        for (long key = -360; key < 360; key++) {
+            Assert.assertEquals(expectedRows(dataFrame, key), index.find(key));
+        }
+        Assert.assertEquals(expectedRows(dataFrame, Values.NA), index.find(Values.NA));
+        Assert.assertEquals(expectedRows(dataFrame, 12L), index.find(12));
+        Assert.assertEquals(expectedRows(dataFrame, 12L), index.find(12d));
+        Assert.assertTrue(index.find(12.5d).isEmpty());
+        Assert.assertTrue(index.find("12").isEmpty());
+        Assert.assertEquals(expectedRows(dataFrame, 7L).size(), index.count(7L));
+
+        // change keys so that slots are removed and probe sequences are shifted back
+        for (int i = 0; i < dataFrame.size(); i += 3) {
+            dataFrame.getRow(i).set("k", (long) random.nextInt(20) * 1000);
+        }
+        for (long key = -360; key < 360; key++) {
+            Assert.assertEquals(expectedRows(dataFrame, key), index.find(key));
+        }
+        for (long key = 0; key < 20000; key += 1000) {
+            Assert.assertEquals(expectedRows(dataFrame, key), index.find(key));
+        }
+        dataFrame.sort("v", de.unknownreality.dataframe.sort.SortColumn.Direction.Descending);
+        for (long key = -360; key < 360; key++) {
+            Assert.assertEquals(expectedRows(dataFrame, key), index.find(key));
+        }
+        Assert.assertEquals(expectedRows(dataFrame, Values.NA), dataFrame.selectRowsByIndex("k_idx", Values.NA)
+                .stream().map(DataRow::getIndex).collect(java.util.stream.Collectors.toList()));
+    }
+
+    @Test
+    public void testPrimaryKey() {
+        DataFrame dataFrame = DataFrame.create()
+                .addIntegerColumn("id")
+                .addStringColumn("name")
+                .addDoubleColumn("d");
+        for (int i = 0; i < 1000; i++) {
+            dataFrame.append(i * 7, "n" + i, i + 0.5d);
+        }
+        dataFrame.setPrimaryKey("id");
+        Indices indices = new Indices(dataFrame);
+        indices.setPrimaryKey(dataFrame.getColumn("id"));
+        Index primaryKey = indices.getIndices().iterator().next();
+        Assert.assertTrue(primaryKey instanceof PrimitiveHashIndex);
+        Assert.assertTrue(primaryKey.isUnique());
+        Assert.assertEquals(Integer.valueOf(3), indices.findByPrimaryKey(21));
+        Assert.assertNull(indices.findByPrimaryKey(22));
+        Assert.assertEquals("n10", dataFrame.selectByPrimaryKey(70).getString("name"));
+        Assert.assertNull(dataFrame.selectByPrimaryKey(71));
+        try {
+            dataFrame.append(70, "x", 1d);
+            Assert.fail("duplicated primary key must fail");
+        } catch (DataFrameRuntimeException e) {
+            // expected
+        }
+
+        DataFrame selection = dataFrame.selectByIndex(Indices.PRIMARY_KEY_NAME, 140);
+        Assert.assertEquals(1, selection.size());
+        Assert.assertEquals("n20", selection.selectByPrimaryKey(140).getString("name"));
+
+        indices.setPrimaryKey(dataFrame.getColumn("d"));
+        Assert.assertTrue(indices.getIndices().iterator().next() instanceof TreeIndex);
+        dataFrame.setPrimaryKey("id", "name");
+        Assert.assertEquals("n3", dataFrame.selectByPrimaryKey(21, "n3").getString("name"));
+
+        Assert.assertTrue(PrimitiveHashIndex.isSupported(new IntegerColumn("a")));
+        Assert.assertTrue(PrimitiveHashIndex.isSupported(new LongColumn("a")));
+        Assert.assertFalse(PrimitiveHashIndex.isSupported(new DoubleColumn("a")));
+        Assert.assertFalse(PrimitiveHashIndex.isSupported(new IntegerColumn("a"), new IntegerColumn("b")));
+    }
+}
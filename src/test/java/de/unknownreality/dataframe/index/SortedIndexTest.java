@@ -0,0 +1,260 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+
+package de.unknownreality.dataframe.index;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameRuntimeException;
+import de.unknownreality.dataframe.DataRow;
+import de.unknownreality.dataframe.filter.FilterPredicate;
+import de.unknownreality.dataframe.filter.IndexPlan;
+import de.unknownreality.dataframe.filter.PredicateEvaluator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class SortedIndexTest {
+
+    private static DataFrame createDataFrame() {
+        DataFrame dataFrame = DataFrame.create()
+                .addStringColumn("group")
+                .addLongColumn("ts")
+                .addDoubleColumn("price");
+        Random random = new Random(7);
+        String[] groups = {"a", "b", "c"};
+        for (int i = 0; i < 500; i++) {
+            dataFrame.append(
+                    groups[random.nextInt(groups.length)],
+                    (long) random.nextInt(100),
+                    random.nextInt(10) == 0 ? null : random.nextInt(200) / 4d);
+        }
+        return dataFrame;
+    }
+
+    private static List<Integer> sorted(java.util.Collection<Integer> rows) {
+        List<Integer> list = new ArrayList<>(rows);
+        Collections.sort(list);
+        return list;
+    }
+
+    private static List<Integer> expectedRange(DataFrame dataFrame, double low, boolean lowInclusive, double high, boolean highInclusive) {
+        List<Integer> rows = new ArrayList<>();
+        for (DataRow row : dataFrame) {
+            if (row.isNA("price")) {
+                continue;
+            }
+            double v = row.getDouble("price");
+            if ((lowInclusive ? v >= low : v > low) && (highInclusive ? v <= high : v < high)) {
+                rows.add(row.getIndex());
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void testRange() {
+        DataFrame dataFrame = createDataFrame();
+        SortedIndex index = SortedIndex.create(dataFrame, "price", "price");
+        dataFrame.addIndex(index);
+
+        Assert.assertEquals(expectedRange(dataFrame, 10, true, 20, true), sorted(index.findRange(10d, true, 20d, true)));
+        Assert.assertEquals(expectedRange(dataFrame, 10, false, 20, false), sorted(index.findRange(10d, false, 20d, false)));
+        Assert.assertEquals(expectedRange(dataFrame, 10, true, 20, false), sorted(index.findRange(10, true, 20L, false)));
+        Assert.assertEquals(expectedRange(dataFrame, -1, true, 12.5, true), sorted(index.findRange(null, false, 12.5, true)));
+        Assert.assertEquals(expectedRange(dataFrame, 40, false, 1000, true), sorted(index.findRange(40d, false, null, false)));
+        Assert.assertEquals(expectedRange(dataFrame, -1, true, 1000, true), sorted(index.findRange(null, false, null, false)));
+        Assert.assertTrue(index.findRange(20d, true, 10d, true).isEmpty());
+        Assert.assertTrue(index.findRange(20d, false, 20d, false).isEmpty());
+
+        List<Integer> ordered = index.findRange(10d, true, 20d, true);
+        for (int i = 1; i < ordered.size(); i++) {
+            Assert.assertTrue(dataFrame.getRow(ordered.get(i - 1)).getDouble("price")
+                    <= dataFrame.getRow(ordered.get(i)).getDouble("price"));
+        }
+
+        Assert.assertEquals(expectedRange(dataFrame, 10, true, 20, true).size(),
+                dataFrame.selectByIndexRange("price", 10d, 20d).size());
+        DataFrame selection = dataFrame.selectColumns("group", "price").whereIndexRange("price", 10d, 20d);
+        Assert.assertEquals(2, selection.getColumns().size());
+        Assert.assertEquals(expectedRange(dataFrame, 10, true, 20, true).size(), selection.size());
+        try {
+            dataFrame.addIndex("group_idx", "group");
+            dataFrame.selectByIndexRange("group_idx", "a", "b");
+            Assert.fail("range query on tree index must fail");
+        } catch (DataFrameRuntimeException e) {
+            // expected
+        }
+
+        dataFrame.getRow(0).set("price", 1000d);
+        Assert.assertEquals(Collections.singletonList(0), index.findRange(999, true, null, false));
+        Assert.assertEquals(expectedRange(dataFrame, 10, true, 20, true),
+                sorted(index.findRange(10d, true, 20d, true)));
+
+        FilterPredicate predicate = FilterPredicate.btwn("price", 10d, 20d);
+        Assert.assertEquals(expectedRange(dataFrame, 10, false, 20, false).size(), dataFrame.select(predicate).size());
+    }
+
+    @Test
+    public void testRangePlan() {
+        DataFrame dataFrame = createDataFrame();
+        dataFrame.addIndex(SortedIndex.create(dataFrame, "price", "price"));
+        Indices indices = new Indices(dataFrame);
+        indices.addIndex(SortedIndex.create(dataFrame, "price", "price"));
+        FilterPredicate[] predicates = {
+                FilterPredicate.gt("price", 10d),
+                FilterPredicate.ge("price", 10d),
+                FilterPredicate.lt("price", 5.5),
+                FilterPredicate.le("price", 5.5),
+                FilterPredicate.btwn("price", 10d, 20d),
+                FilterPredicate.ge("price", 10d).and(FilterPredicate.lt("price", 20d)),
+                FilterPredicate.gt("price", 10d).and(FilterPredicate.le("price", 20d)),
+                FilterPredicate.ge("price", 12.5).and(FilterPredicate.le("price", 12.5)),
+                FilterPredicate.gt("price", 30d).and(FilterPredicate.lt("price", 10d)),
+                FilterPredicate.compile("price >= 10 && price < 20"),
+                FilterPredicate.btwn("price", 10d, 20d).and(FilterPredicate.eq("group", "b")),
+                FilterPredicate.gt("price", 40d).or(FilterPredicate.lt("price", 2d))
+        };
+        for (FilterPredicate predicate : predicates) {
+            IndexPlan plan = IndexPlan.create(dataFrame, indices, predicate);
+            Assert.assertFalse(predicate + ": " + plan, plan.isFullScan());
+            Assert.assertEquals(predicate.toString(), Collections.singletonList("price"), plan.getIndexNames());
+            int[] expected = PredicateEvaluator.select(dataFrame, predicate);
+            Assert.assertArrayEquals(predicate.toString(), expected, plan.select(dataFrame));
+            Assert.assertEquals(predicate.toString(), expected.length, dataFrame.select(predicate).size());
+            DataRow first = dataFrame.selectFirst(predicate);
+            Assert.assertEquals(predicate.toString(), expected.length == 0 ? null : expected[0],
+                    first == null ? null : first.getIndex());
+        }
+        IndexPlan plan = IndexPlan.create(dataFrame, indices,
+                FilterPredicate.btwn("price", 10d, 20d).and(FilterPredicate.eq("group", "b")));
+        for (int row : plan.getCandidates()) {
+            double price = dataFrame.getRow(row).getDouble("price");
+            Assert.assertTrue(price >= 10d && price <= 20d);
+        }
+        Assert.assertTrue(IndexPlan.create(dataFrame, indices, FilterPredicate.eq("group", "b")).isFullScan());
+    }
+
+    @Test
+    public void testUpdateKeepsRowOrder() {
+        DataFrame dataFrame = createDataFrame();
+        SortedIndex index = SortedIndex.create(dataFrame, "group", "group");
+        index.build(dataFrame);
+        int groupColumn = dataFrame.getHeader().getIndex("group");
+        for (int row = dataFrame.size() - 1; row >= 0; row -= 3) {
+            dataFrame.setValue(groupColumn, row, "d");
+            index.update(dataFrame.getRow(row));
+        }
+        for (String group : new String[]{"a", "b", "c", "d"}) {
+            List<Integer> expected = new ArrayList<>();
+            for (DataRow row : dataFrame) {
+                if (group.equals(row.getString("group"))) {
+                    expected.add(row.getIndex());
+                }
+            }
+            Assert.assertEquals(expected, index.find(group));
+        }
+        for (int row = 0; row < dataFrame.size(); row += 2) {
+            index.remove(dataFrame.getRow(row));
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (DataRow row : dataFrame) {
+            if (row.getIndex() % 2 == 1 && "d".equals(row.getString("group"))) {
+                expected.add(row.getIndex());
+            }
+        }
+        Assert.assertEquals(expected, index.find("d"));
+        Assert.assertEquals(dataFrame.size() / 2, index.getSortedRows().size());
+    }
+
+    @Test
+    public void testPrefixAndOrder() {
+        DataFrame dataFrame = createDataFrame();
+        SortedIndex index = new SortedIndex("group_ts", dataFrame.getColumn("group"), dataFrame.getColumn("ts"));
+        dataFrame.addIndex(index);
+
+        List<Integer> expectedB = new ArrayList<>();
+        List<Integer> expectedB5 = new ArrayList<>();
+        for (DataRow row : dataFrame) {
+            if ("b".equals(row.getString("group"))) {
+                expectedB.add(row.getIndex());
+                if (row.getLong("ts") == 5L) {
+                    expectedB5.add(row.getIndex());
+                }
+            }
+        }
+        Assert.assertEquals(expectedB, sorted(index.findPrefix("b")));
+        Assert.assertEquals(expectedB5, sorted(index.findPrefix("b", 5L)));
+        Assert.assertEquals(expectedB5, sorted(index.find("b", 5L)));
+        Assert.assertEquals(expectedB5, sorted(dataFrame.selectRowsByIndex("group_ts", "b", 5).stream()
+                .map(DataRow::getIndex).collect(java.util.stream.Collectors.toList())));
+        Assert.assertEquals(expectedB, sorted(index.findRange("b", true, "b", true)));
+        Assert.assertTrue(index.findPrefix("x").isEmpty());
+        try {
+            index.findPrefix("a", 1L, 2L);
+            Assert.fail("too many prefix values must fail");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        List<Integer> rows = index.getSortedRows();
+        Assert.assertEquals(dataFrame.size(), rows.size());
+        for (int i = 1; i < rows.size(); i++) {
+            DataRow a = dataFrame.getRow(rows.get(i - 1));
+            DataRow b = dataFrame.getRow(rows.get(i));
+            int c = a.getString("group").compareTo(b.getString("group"));
+            Assert.assertTrue(c < 0 || c == 0 && a.getLong("ts") <= b.getLong("ts"));
+        }
+        List<Integer> descending = index.getDescendingRows();
+        Assert.assertEquals(rows.size(), descending.size());
+        DataRow first = dataFrame.getRow(rows.get(0));
+        DataRow last = dataFrame.getRow(descending.get(descending.size() - 1));
+        Assert.assertEquals(first.getString("group"), last.getString("group"));
+        Assert.assertEquals(first.getLong("ts"), last.getLong("ts"));
+
+        dataFrame.sort("ts");
+        Assert.assertEquals(dataFrame.size(), index.getSortedRows().size());
+        Assert.assertEquals(expectedB.size(), index.findPrefix("b").size());
+        for (int row : index.findPrefix("b", 5L)) {
+            Assert.assertEquals(5L, dataFrame.getRow(row).getLong("ts").longValue());
+        }
+
+        DataFrame copy = dataFrame.selectByIndex("group_ts", "c", 7L);
+        Assert.assertEquals(copy.size(), copy.selectRowsByIndexRange("group_ts", "c", "c").size());
+
+        SortedIndex unique = new SortedIndex("unique", true, dataFrame.getColumn("group"));
+        try {
+            dataFrame.addIndex(unique);
+            Assert.fail("duplicated values must fail");
+        } catch (DataFrameRuntimeException e) {
+            // expected
+        }
+        Assert.assertEquals(Arrays.asList("group", "ts"), Arrays.asList(index.getColumns().get(0).getName(), index.getColumns().get(1).getName()));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ *
+ *  * Copyright (c) 2019 Alexander Grün
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package de.unknownreality.dataframe.sort;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameBuilder;
+import de.unknownreality.dataframe.column.BooleanColumn;
+import de.unknownreality.dataframe.column.DoubleColumn;
+import de.unknownreality.dataframe.column.IntegerColumn;
+import de.unknownreality.dataframe.column.LongColumn;
+import de.unknownreality.dataframe.column.StringColumn;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class IndexSorterTest {
+
+    private static DataFrame createDataFrame(int size) {
+        Random random = new Random(7);
+        DataFrame dataFrame = DataFrameBuilder.createDefault();
+        dataFrame.addColumn(new IntegerColumn("int"));
+        dataFrame.addColumn(new LongColumn("long"));
+        dataFrame.addColumn(new DoubleColumn("double"));
+        dataFrame.addColumn(new StringColumn("string"));
+        dataFrame.addColumn(new BooleanColumn("bool"));
+        double[] specialValues = {-0.0, 0.0, Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, -1.5};
+        for (int i = 0; i < size; i++) {
+            dataFrame.append(
+                    random.nextInt(10) == 0 ? null : random.nextInt(200) - 100,
+                    random.nextInt(10) == 0 ? null : random.nextLong(),
+                    random.nextInt(10) == 0 ? null : (random.nextInt(5) == 0
+                            ? specialValues[random.nextInt(specialValues.length)] : (double) random.nextInt(20)),
+                    random.nextInt(10) == 0 ? null : (random.nextBoolean() ? "a" : "ab") + (char) random.nextInt(300),
+                    random.nextInt(10) == 0 ? null : random.nextBoolean());
+        }
+        return dataFrame;
+    }
+
+    private static void assertSameOrder(DataFrame dataFrame, SortColumn... sortColumns) {
+        int[] expected = IndexSorter.argsort(dataFrame.size(), IndexSorter.comparator(dataFrame, sortColumns));
+        int[] actual = IndexSorter.argsort(dataFrame, sortColumns);
+        Assert.assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void radixSortTest() {
+        DataFrame dataFrame = createDataFrame(2000);
+        for (SortColumn.Direction direction : SortColumn.Direction.values()) {
+            assertSameOrder(dataFrame, new SortColumn("int", direction));
+            assertSameOrder(dataFrame, new SortColumn("long", direction));
+            assertSameOrder(dataFrame, new SortColumn("double", direction));
+        }
+        int[] order = IndexSorter.argsort(dataFrame, new SortColumn("double"));
+        Assert.assertTrue(dataFrame.getDoubleColumn("double").isNA(order[order.length - 1]));
+    }
+
+    @Test
+    public void normalizedKeySortTest() {
+        DataFrame dataFrame = createDataFrame(2000);
+        for (SortColumn.Direction first : SortColumn.Direction.values()) {
+            for (SortColumn.Direction second : SortColumn.Direction.values()) {
+                assertSameOrder(dataFrame, new SortColumn("string", first));
+                assertSameOrder(dataFrame, new SortColumn("bool", first), new SortColumn("int", second));
+                assertSameOrder(dataFrame, new SortColumn("double", first), new SortColumn("int", second));
+                assertSameOrder(dataFrame, new SortColumn("string", first), new SortColumn("double", second));
+                assertSameOrder(dataFrame, new SortColumn("int", first), new SortColumn("string", second),
+                        new SortColumn("long", first));
+            }
+        }
+    }
+    @Test
+    public void parallelSortTest() {
+        DataFrame dataFrame = createDataFrame(20000);
+        SortColumn[][] sorts = {
+                {new SortColumn("double", SortColumn.Direction.Descending)},
+                {new SortColumn("string"), new SortColumn("int", SortColumn.Direction.Descending)},
+                {new SortColumn("bool"), new SortColumn("long")}
+        };
+        int[][] expected = new int[sorts.length][];
+        for (int i = 0; i < sorts.length; i++) {
+            expected[i] = IndexSorter.argsort(dataFrame, sorts[i]);
+        }
+        DataFrame columnSortFrame = createDataFrame(20000);
+        DoubleColumn doubleColumn = columnSortFrame.getDoubleColumn("double").copy();
+        StringColumn stringColumn = columnSortFrame.getStringColumn("string").copy();
+        int threshold = IndexSorter.getParallelThreshold();
+        IndexSorter.setParallelThreshold(256);
+        try {
+            for (int i = 0; i < sorts.length; i++) {
+                Assert.assertArrayEquals(expected[i], IndexSorter.argsort(dataFrame, sorts[i]));
+            }
+            dataFrame.sort("int", SortColumn.Direction.Descending);
+            for (int i = 1; i < dataFrame.size(); i++) {
+                if (!dataFrame.getIntegerColumn("int").isNA(i)) {
+                    Assert.assertTrue(dataFrame.getIntegerColumn("int").get(i - 1) >= dataFrame.getIntegerColumn("int").get(i));
+                }
+            }
+            doubleColumn.sort();
+            stringColumn.sort();
+        } finally {
+            IndexSorter.setParallelThreshold(threshold);
+        }
+        for (int i = 1; i < doubleColumn.size(); i++) {
+            if (!doubleColumn.isNA(i - 1)) {
+                Assert.assertTrue(Double.compare(doubleColumn.get(i - 1), doubleColumn.get(i)) <= 0);
+            }
+            if (!stringColumn.isNA(i - 1)) {
+                Assert.assertTrue(stringColumn.get(i - 1).compareTo(stringColumn.get(i)) <= 0);
+            }
+        }
+    }
+    @Test
+    public void topTest() {
+        DataFrame dataFrame = createDataFrame(1000);
+        SortColumn[] sortColumns = {new SortColumn("bool", SortColumn.Direction.Descending), new SortColumn("int")};
+        DataFrame top = dataFrame.top(25, sortColumns);
+        DataFrame expected = dataFrame.copy().sort(sortColumns).head(25);
+        Assert.assertEquals(25, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            Assert.assertEquals(expected.getRow(i), top.getRow(i));
+        }
+        DataFrame bottom = dataFrame.bottom(10, new SortColumn("double"));
+        DataFrame expectedBottom = dataFrame.copy().sort("double", SortColumn.Direction.Descending).head(10);
+        for (int i = 0; i < bottom.size(); i++) {
+            Assert.assertEquals(expectedBottom.getRow(i), bottom.getRow(i));
+        }
+        Assert.assertEquals(1000, dataFrame.top(5000, new SortColumn("long")).size());
+        Assert.assertEquals(0, dataFrame.top(0, new SortColumn("long")).size());
+        Assert.assertEquals(createDataFrame(1000), dataFrame);
+    }
+}